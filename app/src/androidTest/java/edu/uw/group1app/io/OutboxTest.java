@@ -0,0 +1,275 @@
+package edu.uw.group1app.io;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.android.volley.NetworkResponse;
+import com.android.volley.NoConnectionError;
+import com.android.volley.Request;
+import com.android.volley.ServerError;
+import com.android.volley.VolleyError;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented tests for {@link Outbox}, driven through a stand-in {@link Transport} that
+ * fails while the web service is "down" and answers once it is back up. Each test checks
+ * the order calls get through in, that each is removed from disk exactly once, and what
+ * survives a new Outbox on the same store.
+ */
+@RunWith(AndroidJUnit4.class)
+public class OutboxTest {
+
+    private static final String BASE_URL = "https://example.test/";
+
+    private static final String JWT = "jwt-1";
+
+    /**
+     * Answers every call on the main thread, as Volley does. While down every call fails
+     * without leaving the device; calls to a failing path get a 500.
+     */
+    private static final class OutageTransport implements Transport {
+        private final Handler mMain = new Handler(Looper.getMainLooper());
+
+        private volatile boolean mDown;
+
+        private volatile String mFailingPath;
+
+        /**
+         * The path and idempotency key of every call that got through, in order.
+         */
+        private final List<String> mDeliveredPaths =
+                Collections.synchronizedList(new ArrayList<>());
+        private final List<String> mDeliveredKeys =
+                Collections.synchronizedList(new ArrayList<>());
+
+        /**
+         * Released once per failed attempt.
+         */
+        private final Semaphore mFailures = new Semaphore(0);
+
+        private volatile int mFailingPathAttempts;
+
+        @Override
+        public <T> void send(final ApiCall<T> call) {
+            final String path = call.getUrl().substring(BASE_URL.length());
+            final String key = call.getHeaders().get(Outbox.IDEMPOTENCY_HEADER);
+            mMain.post(() -> {
+                if (mDown) {
+                    fail(call, new NoConnectionError(new ConnectException("refused")));
+                } else if (path.equals(mFailingPath)) {
+                    mFailingPathAttempts++;
+                    fail(call, new ServerError(new NetworkResponse(500, new byte[0],
+                            Collections.<String, String>emptyMap(), false)));
+                } else {
+                    mDeliveredPaths.add(path);
+                    mDeliveredKeys.add(key);
+                    answer(call);
+                }
+            });
+        }
+
+        @Override
+        public void cancelAll(final Object tag) {
+        }
+
+        private void fail(final ApiCall<?> call, final VolleyError error) {
+            call.getErrorListener().onErrorResponse(error);
+            mFailures.release();
+        }
+
+        private static <T> void answer(final ApiCall<T> call) {
+            try {
+                call.getListener().onResponse(call.getDecoder().decode(
+                        "{}".getBytes(StandardCharsets.UTF_8), "UTF-8"));
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        void awaitFailure() throws InterruptedException {
+            assertTrue(mFailures.tryAcquire(10, TimeUnit.SECONDS));
+        }
+    }
+
+    private Context mContext;
+
+    private final List<Outbox> mOutboxes = new ArrayList<>();
+
+    private final List<String> mAnswered = Collections.synchronizedList(new ArrayList<>());
+
+    private final List<VolleyError> mErrors = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void setUp() {
+        mContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        OutboxStore store = new OutboxStore(mContext);
+        store.clear();
+        store.close();
+    }
+
+    @After
+    public void tearDown() {
+        onMain(() -> {
+            for (Outbox outbox : mOutboxes) {
+                outbox.stop();
+            }
+        });
+    }
+
+    private static void onMain(final Runnable action) {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(action);
+    }
+
+    private Outbox outbox(final Transport transport) {
+        Outbox outbox = new ApiClient(mContext, BASE_URL, transport).getOutbox();
+        mOutboxes.add(outbox);
+        return outbox;
+    }
+
+    /**
+     * Queue a PUT to a path, recording the path once it is answered.
+     */
+    private void enqueue(final Outbox outbox, final String path, final CountDownLatch done) {
+        onMain(() -> outbox.enqueue(JWT, Request.Method.PUT, path, new JSONObject(),
+                (data, charset) -> path,
+                answer -> {
+                    mAnswered.add(answer);
+                    done.countDown();
+                },
+                error -> {
+                    mErrors.add(error);
+                    done.countDown();
+                }));
+    }
+
+    /**
+     * it returns the idempotency keys still queued on disk, oldest first
+     */
+    private List<String> queuedKeys() {
+        OutboxStore store = new OutboxStore(mContext);
+        try {
+            List<String> keys = new ArrayList<>();
+            for (OutboxStore.Entry entry : store.loadOldest(100)) {
+                keys.add(entry.getKey());
+            }
+            return keys;
+        } finally {
+            store.close();
+        }
+    }
+
+    /**
+     * Wait for the outbox's own disk thread to catch up with the calls it has finished.
+     */
+    private List<String> awaitQueuedKeys(final int count) {
+        long deadline = SystemClock.uptimeMillis() + 5_000;
+        List<String> keys = queuedKeys();
+        while (keys.size() != count && SystemClock.uptimeMillis() < deadline) {
+            SystemClock.sleep(20);
+            keys = queuedKeys();
+        }
+        return keys;
+    }
+
+    @Test
+    public void outage_thenRecovery_sendsEachCallOnceInOrder() throws Exception {
+        OutageTransport transport = new OutageTransport();
+        transport.mDown = true;
+        Outbox outbox = outbox(transport);
+        onMain(() -> outbox.start(JWT));
+
+        CountDownLatch done = new CountDownLatch(3);
+        enqueue(outbox, "chats/1", done);
+        enqueue(outbox, "chats/2", done);
+        enqueue(outbox, "chats/3", done);
+        transport.awaitFailure();
+
+        // nothing got through, so everything is still queued and nobody has been told
+        assertEquals(3, awaitQueuedKeys(3).size());
+        assertTrue(mAnswered.isEmpty());
+        assertTrue(mErrors.isEmpty());
+
+        transport.mDown = false;
+        onMain(outbox::retryNow);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        assertEquals(Arrays.asList("chats/1", "chats/2", "chats/3"), mAnswered);
+        assertEquals(mAnswered, transport.mDeliveredPaths);
+        assertEquals(3, new HashSet<>(transport.mDeliveredKeys).size());
+        assertTrue(mErrors.isEmpty());
+        assertTrue(awaitQueuedKeys(0).isEmpty());
+    }
+
+    @Test
+    public void queuedCalls_surviveANewOutbox() throws Exception {
+        OutageTransport down = new OutageTransport();
+        down.mDown = true;
+        Outbox first = outbox(down);
+        onMain(() -> first.start(JWT));
+        enqueue(first, "chats/1", new CountDownLatch(1));
+        enqueue(first, "chats/2", new CountDownLatch(1));
+        down.awaitFailure();
+        onMain(first::stop);
+        List<String> keys = awaitQueuedKeys(2);
+        assertEquals(2, keys.size());
+
+        // as if the app had been closed and opened again
+        OutageTransport up = new OutageTransport();
+        Outbox second = outbox(up);
+        onMain(() -> second.start(JWT));
+
+        assertTrue(awaitQueuedKeys(0).isEmpty());
+        assertEquals(Arrays.asList("chats/1", "chats/2"), up.mDeliveredPaths);
+        assertEquals(keys, up.mDeliveredKeys);
+        // the listeners went with the first outbox
+        assertTrue(mAnswered.isEmpty());
+    }
+
+    @Test
+    public void callTheWebServiceKeepsFailing_isDroppedAndTheRestAreSent() throws Exception {
+        OutageTransport transport = new OutageTransport();
+        transport.mFailingPath = "chats/bad";
+        Outbox outbox = outbox(transport);
+        onMain(() -> outbox.start(JWT));
+
+        CountDownLatch done = new CountDownLatch(2);
+        enqueue(outbox, "chats/bad", done);
+        enqueue(outbox, "chats/good", done);
+        // skip the back-off after each failure rather than waiting minutes for it
+        for (int i = 0; i < 2 * OutboxRetry.MAX_ATTEMPTS && mErrors.isEmpty(); i++) {
+            transport.awaitFailure();
+            onMain(outbox::retryNow);
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        assertEquals(OutboxRetry.MAX_ATTEMPTS, transport.mFailingPathAttempts);
+        assertEquals(1, mErrors.size());
+        assertTrue(mErrors.get(0) instanceof ServerError);
+        assertEquals(Collections.singletonList("chats/good"), mAnswered);
+        assertEquals(Collections.singletonList("chats/good"), transport.mDeliveredPaths);
+        assertTrue(awaitQueuedKeys(0).isEmpty());
+    }
+}
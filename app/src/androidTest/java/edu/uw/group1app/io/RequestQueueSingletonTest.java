@@ -0,0 +1,128 @@
+package edu.uw.group1app.io;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.android.volley.CacheDispatcher;
+import com.android.volley.NetworkDispatcher;
+import com.android.volley.Request;
+import com.android.volley.toolbox.StringRequest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented tests for the shared {@link RequestQueueSingleton}: its dispatcher threads
+ * do not grow with the number of requests, and shutdown() stops them without leaving a
+ * request unanswered.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RequestQueueSingletonTest {
+
+    private static final int REQUESTS = 1_000;
+
+    /**
+     * Nothing listens on the discard port, so every request fails fast without a network.
+     */
+    private static final String URL = "http://127.0.0.1:9/";
+
+    private Context mContext;
+
+    private final AtomicInteger mAnswered = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        mContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        shutdown();
+    }
+
+    @After
+    public void tearDown() {
+        shutdown();
+    }
+
+    private static void shutdown() {
+        InstrumentationRegistry.getInstrumentation()
+                .runOnMainSync(RequestQueueSingleton::shutdown);
+    }
+
+    private Request<String> request(final CountDownLatch done) {
+        return new StringRequest(Request.Method.GET, URL,
+                response -> {
+                    mAnswered.incrementAndGet();
+                    done.countDown();
+                },
+                error -> {
+                    mAnswered.incrementAndGet();
+                    done.countDown();
+                });
+    }
+
+    /**
+     * it returns the Volley dispatcher threads that are still alive
+     */
+    private static List<Thread> dispatchers() {
+        List<Thread> result = new ArrayList<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread instanceof NetworkDispatcher || thread instanceof CacheDispatcher) {
+                result.add(thread);
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void thousandRequests_keepTheDispatcherThreadCountFlat() throws Exception {
+        RequestQueueSingleton queue = RequestQueueSingleton.getInstance(mContext);
+        int before = dispatchers().size();
+        assertEquals(RequestQueueSingleton.NETWORK_THREAD_POOL_SIZE + 1, before);
+
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            RequestQueueSingleton.getInstance(mContext).addToRequestQueue(request(done));
+            if (i % 100 == 0) {
+                assertEquals(before, dispatchers().size());
+            }
+        }
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+
+        assertSame(queue, RequestQueueSingleton.getInstance(mContext));
+        assertEquals(before, dispatchers().size());
+        assertEquals(REQUESTS, mAnswered.get());
+    }
+
+    @Test
+    public void shutdown_stopsTheThreadsAndAnswersEveryRequest() throws Exception {
+        RequestQueueSingleton.getInstance(mContext);
+        List<Thread> started = dispatchers();
+
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            RequestQueueSingleton.getInstance(mContext).addToRequestQueue(request(done));
+        }
+        shutdown();
+
+        // each request hears back exactly once, whether it finished or was cut off
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        assertEquals(REQUESTS, mAnswered.get());
+
+        for (Thread thread : started) {
+            thread.join(5_000);
+            assertFalse(thread.isAlive());
+        }
+        assertTrue(dispatchers().isEmpty());
+    }
+}
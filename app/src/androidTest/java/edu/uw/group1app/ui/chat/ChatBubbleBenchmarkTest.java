@@ -0,0 +1,199 @@
+package edu.uw.group1app.ui.chat;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.util.Log;
+import android.view.ContextThemeWrapper;
+import android.view.Gravity;
+import android.view.View;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import androidx.core.graphics.ColorUtils;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.android.material.card.MaterialCardView;
+import com.google.android.material.shape.CornerFamily;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import edu.uw.group1app.R;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented benchmark for binding chat bubbles while scrolling a 5,000 message room.
+ * Holders are recycled the way a RecyclerView recycles them and every bind is measured and
+ * laid out. It compares styling the bubble on every bind, as MessageViewHolder used to,
+ * with the current bind that only sets text.
+ *
+ * A fast fling brings a few new rows on screen each frame, so binds are grouped into frames
+ * of ROWS_PER_FRAME and a frame over budget counts as janky. Results are written to logcat
+ * under the tag "ChatBubbleBenchmark".
+ */
+@RunWith(AndroidJUnit4.class)
+public class ChatBubbleBenchmarkTest {
+
+    private static final String TAG = "ChatBubbleBenchmark";
+
+    private static final String ME = "me@uw.edu";
+
+    private static final int MESSAGES = 5_000;
+
+    private static final int HOLDERS_PER_TYPE = 8;
+
+    private static final int ROWS_PER_FRAME = 4;
+
+    private static final long FRAME_BUDGET_NANOS = 16_666_667L;
+
+    private static final int WIDTH = 1080;
+
+    /**
+     * What scrolling through the room cost.
+     */
+    private static final class Result {
+        private long mBindNanos;
+        private int mFrames;
+        private int mJankyFrames;
+    }
+
+    @Test
+    public void scrolling5000Messages_restyledAndTextOnly() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            Context context = new ContextThemeWrapper(
+                    InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                    R.style.Theme_Group1App);
+            RecyclerView parent = new RecyclerView(context);
+            parent.setLayoutManager(new LinearLayoutManager(context));
+            ChatRecyclerViewAdapter adapter = new ChatRecyclerViewAdapter(ME);
+
+            List<ChatMessage> messages = new ArrayList<>(MESSAGES);
+            for (int i = 0; i < MESSAGES; i++) {
+                String sender = i % 3 == 0 ? ME : "user" + (i % 5) + "@uw.edu";
+                messages.add(new ChatMessage(i, "Message " + i + " in a long room",
+                        sender, "2020-11-20 10:00:00"));
+            }
+
+            // warm up both paths so neither pays for class loading or the JIT
+            scroll(context, parent, adapter, messages.subList(0, 500), true);
+            scroll(context, parent, adapter, messages.subList(0, 500), false);
+
+            Result restyled = scroll(context, parent, adapter, messages, true);
+            Result textOnly = scroll(context, parent, adapter, messages, false);
+
+            Log.i(TAG, describe("styled on every bind", restyled));
+            Log.i(TAG, describe("styled per view type", textOnly));
+        });
+    }
+
+    private static Result scroll(final Context context, final RecyclerView parent,
+                                 final ChatRecyclerViewAdapter adapter,
+                                 final List<ChatMessage> messages, final boolean restyle) {
+        List<ChatRecyclerViewAdapter.MessageViewHolder> mine = new ArrayList<>();
+        List<ChatRecyclerViewAdapter.MessageViewHolder> theirs = new ArrayList<>();
+        for (int i = 0; i < HOLDERS_PER_TYPE; i++) {
+            mine.add(adapter.onCreateViewHolder(parent, 0));
+            theirs.add(adapter.onCreateViewHolder(parent, 1));
+        }
+
+        Result result = new Result();
+        long frameNanos = 0;
+        for (int i = 0; i < messages.size(); i++) {
+            ChatMessage message = messages.get(i);
+            boolean isMine = ME.equals(message.getSender());
+            ChatRecyclerViewAdapter.MessageViewHolder holder =
+                    (isMine ? mine : theirs).get(i % HOLDERS_PER_TYPE);
+
+            long start = System.nanoTime();
+            if (restyle) {
+                style(context.getResources(), holder.itemView, isMine);
+            }
+            holder.setMessage(message);
+            holder.itemView.measure(
+                    View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+            holder.itemView.layout(0, 0, WIDTH, holder.itemView.getMeasuredHeight());
+            long spent = System.nanoTime() - start;
+
+            result.mBindNanos += spent;
+            frameNanos += spent;
+            if ((i + 1) % ROWS_PER_FRAME == 0 || i == messages.size() - 1) {
+                result.mFrames++;
+                if (frameNanos > FRAME_BUDGET_NANOS) {
+                    result.mJankyFrames++;
+                }
+                frameNanos = 0;
+            }
+        }
+
+        TextView last = lastBound(mine, theirs, messages).findViewById(R.id.text_message);
+        assertTrue(last.getText().toString().endsWith(
+                messages.get(messages.size() - 1).getMessage()));
+        return result;
+    }
+
+    private static View lastBound(final List<ChatRecyclerViewAdapter.MessageViewHolder> mine,
+                                  final List<ChatRecyclerViewAdapter.MessageViewHolder> theirs,
+                                  final List<ChatMessage> messages) {
+        int last = messages.size() - 1;
+        boolean isMine = ME.equals(messages.get(last).getSender());
+        return (isMine ? mine : theirs).get(last % HOLDERS_PER_TYPE).itemView;
+    }
+
+    /**
+     * The styling MessageViewHolder.setMessage used to redo on every bind.
+     */
+    private static void style(final Resources res, final View view, final boolean mine) {
+        MaterialCardView card = view.findViewById(R.id.card_root);
+        TextView text = view.findViewById(R.id.text_message);
+        int standard = (int) res.getDimension(R.dimen.chat_margin);
+        int extended = (int) res.getDimension(R.dimen.chat_margin_sided);
+        int color = res.getColor(mine
+                ? R.color.primaryLightColor
+                : R.color.secondaryLightColor, null);
+
+        FrameLayout.LayoutParams layoutParams =
+                (FrameLayout.LayoutParams) card.getLayoutParams();
+        if (mine) {
+            layoutParams.setMargins(extended, standard, standard, standard);
+            layoutParams.gravity = Gravity.END;
+        } else {
+            layoutParams.setMargins(standard, standard, extended, standard);
+            layoutParams.gravity = Gravity.START;
+        }
+        card.setCardBackgroundColor(ColorUtils.setAlphaComponent(color, 16));
+        text.setTextColor(res.getColor(R.color.secondaryTextColorFade, null));
+        card.setStrokeWidth(standard / 5);
+        card.setStrokeColor(ColorUtils.setAlphaComponent(color, 200));
+        if (mine) {
+            card.setShapeAppearanceModel(card.getShapeAppearanceModel().toBuilder()
+                    .setTopLeftCorner(CornerFamily.ROUNDED, standard * 2)
+                    .setBottomLeftCorner(CornerFamily.ROUNDED, standard * 2)
+                    .setBottomRightCornerSize(0)
+                    .setTopRightCornerSize(0)
+                    .build());
+        } else {
+            card.setShapeAppearanceModel(card.getShapeAppearanceModel().toBuilder()
+                    .setTopRightCorner(CornerFamily.ROUNDED, standard * 2)
+                    .setBottomRightCorner(CornerFamily.ROUNDED, standard * 2)
+                    .setBottomLeftCornerSize(0)
+                    .setTopLeftCornerSize(0)
+                    .build());
+        }
+        card.requestLayout();
+    }
+
+    private static String describe(final String name, final Result result) {
+        return String.format(Locale.US, "%s: %.1f us per bind, %d of %d frames janky",
+                name, result.mBindNanos / 1e3 / MESSAGES, result.mJankyFrames,
+                result.mFrames);
+    }
+}
@@ -0,0 +1,126 @@
+package edu.uw.group1app.ui.chat;
+
+import android.os.Debug;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented benchmark comparing {@link ChatPage#decode} with building a JSONObject tree
+ * and walking its rows, which is how chat history pages used to be decoded. Both run on
+ * the device's own android.util.JsonReader and org.json, so it cannot be a local test.
+ * Timings and bytes allocated are written to logcat under the tag "ChatPageBenchmark".
+ */
+@RunWith(AndroidJUnit4.class)
+public class ChatPageBenchmarkTest {
+
+    private static final String TAG = "ChatPageBenchmark";
+
+    private static final int ROWS = 5_000;
+
+    private static final int WARM_UP_RUNS = 5;
+
+    private static final int RUNS = 20;
+
+    private static byte[] page() throws JSONException {
+        JSONArray rows = new JSONArray();
+        for (int i = ROWS; i > 0; i--) {
+            JSONObject row = new JSONObject();
+            row.put("messageid", i);
+            row.put("message", "Message number " + i + " with a little more text in it");
+            row.put("email", "user" + (i % 7) + "@uw.edu");
+            row.put("timestamp", "2020-11-20 10:" + (i % 60) + ":00.000000+00");
+            row.put("username", "user" + (i % 7));
+            rows.put(row);
+        }
+        JSONObject page = new JSONObject();
+        page.put("chatId", 1);
+        page.put("rowCount", ROWS);
+        page.put("rows", rows);
+        return page.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<ChatMessage> streaming(final byte[] body)
+            throws IOException, JSONException {
+        return ChatPage.decode(new InputStreamReader(new ByteArrayInputStream(body),
+                StandardCharsets.UTF_8)).getMessages();
+    }
+
+    private static List<ChatMessage> tree(final byte[] body) throws JSONException {
+        JSONObject response = new JSONObject(new String(body, StandardCharsets.UTF_8));
+        JSONArray rows = response.getJSONArray("rows");
+        List<ChatMessage> messages = new ArrayList<>(rows.length());
+        for (int i = 0; i < rows.length(); i++) {
+            JSONObject row = rows.getJSONObject(i);
+            messages.add(new ChatMessage(row.getInt("messageid"),
+                    row.getString("message"),
+                    row.getString("email"),
+                    row.getString("timestamp")));
+        }
+        return messages;
+    }
+
+    private static long bytesAllocated() {
+        return Long.parseLong(Debug.getRuntimeStat("art.gc.bytes-allocated"));
+    }
+
+    @Test
+    public void streamingDecode_matchesTheTreeAndIsMeasured() throws Exception {
+        final byte[] body = page();
+
+        List<ChatMessage> streamed = streaming(body);
+        List<ChatMessage> walked = tree(body);
+        assertEquals(ROWS, streamed.size());
+        for (int i = 0; i < ROWS; i++) {
+            assertEquals(walked.get(i).getMessageId(), streamed.get(i).getMessageId());
+            assertEquals(walked.get(i).getMessage(), streamed.get(i).getMessage());
+            assertEquals(walked.get(i).getSender(), streamed.get(i).getSender());
+            assertEquals(walked.get(i).getTimeStamp(), streamed.get(i).getTimeStamp());
+        }
+
+        for (int i = 0; i < WARM_UP_RUNS; i++) {
+            streaming(body);
+            tree(body);
+        }
+
+        long streamNanos = 0;
+        long streamBytes = 0;
+        long treeNanos = 0;
+        long treeBytes = 0;
+        for (int i = 0; i < RUNS; i++) {
+            long bytes = bytesAllocated();
+            long start = System.nanoTime();
+            streaming(body);
+            streamNanos += System.nanoTime() - start;
+            streamBytes += bytesAllocated() - bytes;
+
+            bytes = bytesAllocated();
+            start = System.nanoTime();
+            tree(body);
+            treeNanos += System.nanoTime() - start;
+            treeBytes += bytesAllocated() - bytes;
+        }
+
+        Log.i(TAG, String.format(Locale.US,
+                "%d rows, %d KB body, per page: streaming %.1f ms %d KB, tree %.1f ms %d KB",
+                ROWS, body.length / 1024,
+                streamNanos / 1e6 / RUNS, streamBytes / 1024 / RUNS,
+                treeNanos / 1e6 / RUNS, treeBytes / 1024 / RUNS));
+    }
+}
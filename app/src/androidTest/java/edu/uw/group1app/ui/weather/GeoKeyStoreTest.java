@@ -0,0 +1,75 @@
+package edu.uw.group1app.ui.weather;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented tests for {@link GeoKeyStore}: cells survive a new store, and only the
+ * most recently used MAX_ENTRIES are kept.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GeoKeyStoreTest {
+
+    private Context mContext;
+
+    private GeoKeyStore mStore;
+
+    @Before
+    public void setUp() {
+        mContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        mContext.deleteDatabase(openStore().getDatabaseName());
+        mStore = openStore();
+    }
+
+    @After
+    public void tearDown() {
+        mStore.close();
+        mContext.deleteDatabase(mStore.getDatabaseName());
+    }
+
+    private GeoKeyStore openStore() {
+        return new GeoKeyStore(mContext);
+    }
+
+    private static WeatherLocation location(final int i) {
+        return new WeatherLocation("key" + i, "Town " + i);
+    }
+
+    @Test
+    public void put_isReadBackByANewStore() {
+        mStore.put("4724,-12244", new WeatherLocation("331423", "Tacoma"));
+        mStore.close();
+        mStore = openStore();
+
+        WeatherLocation read = mStore.get("4724,-12244");
+        assertEquals("331423", read.getKey());
+        assertEquals("Tacoma", read.getLocalizedName());
+        assertNull(mStore.get("0,0"));
+    }
+
+    @Test
+    public void put_pastTheCap_dropsTheLeastRecentlyUsed() {
+        for (int i = 0; i < GeoKeyStore.MAX_ENTRIES; i++) {
+            mStore.put("cell" + i, location(i));
+        }
+        // reading the oldest cell makes it the most recently used
+        assertNotNull(mStore.get("cell0"));
+        for (int i = GeoKeyStore.MAX_ENTRIES; i < GeoKeyStore.MAX_ENTRIES + 10; i++) {
+            mStore.put("cell" + i, location(i));
+        }
+
+        assertEquals(GeoKeyStore.MAX_ENTRIES, mStore.size());
+        assertNotNull(mStore.get("cell0"));
+        assertNull(mStore.get("cell1"));
+        assertNotNull(mStore.get("cell" + (GeoKeyStore.MAX_ENTRIES + 9)));
+    }
+}
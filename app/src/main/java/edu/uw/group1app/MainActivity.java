@@ -32,7 +32,6 @@ import android.widget.SearchView;
 
 import com.google.android.gms.location.FusedLocationProviderClient;
 import com.google.android.gms.location.LocationCallback;
-import com.google.android.gms.location.LocationRequest;
 import com.google.android.gms.location.LocationResult;
 import com.google.android.gms.location.LocationServices;
 import com.google.android.gms.tasks.OnSuccessListener;
@@ -41,13 +40,19 @@ import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.pusher.pushnotifications.PushNotifications;
 
 import edu.uw.group1app.databinding.ActivityMainBinding;
+import edu.uw.group1app.io.ApiClient;
+import edu.uw.group1app.io.Outbox;
+import edu.uw.group1app.io.RequestQueueSingleton;
 import edu.uw.group1app.model.NewMessageCountViewModel;
 import edu.uw.group1app.model.PushyTokenViewModel;
 import edu.uw.group1app.model.UserInfoViewModel;
 import edu.uw.group1app.services.PushReceiver;
 import edu.uw.group1app.ui.chat.ChatMessage;
+import edu.uw.group1app.ui.chat.ChatMessageStore;
 import edu.uw.group1app.ui.chat.ChatViewModel;
+import edu.uw.group1app.ui.contacts.ContactRepository;
 import edu.uw.group1app.ui.contacts.all.ContactListViewModel;
+import edu.uw.group1app.ui.weather.LocationScheduler;
 import edu.uw.group1app.ui.weather.LocationViewModel;
 
 /**
@@ -65,22 +70,11 @@ public class MainActivity extends AppCompatActivity {
 
     private ContactListViewModel mContactViewModel;
 
-    /**
-     * The desired interval for location updates. Inexact. Updates may be more or less frequent.
-     */
-    public static final long UPDATE_INTERVAL_IN_MILLISECONDS = 10000;
-
-    /**
-     * The fastest rate for active location updates. Exact. Updates will never be more frequent
-     * than this value.
-     */
-    public static final long FASTEST_UPDATE_INTERVAL_IN_MILLISECONDS =
-            UPDATE_INTERVAL_IN_MILLISECONDS / 2;
-
     // A constant int for the permissions request code. Must be a 16 bit number
     private static final int MY_PERMISSIONS_LOCATIONS = 8414;
 
-    private LocationRequest mLocationRequest;
+    // Decides how often, and how accurately, to request location updates
+    private LocationScheduler mLocationScheduler;
 
     //Use a FusedLocationProviderClient to request the location
     private FusedLocationProviderClient mFusedLocationClient;
@@ -164,7 +158,7 @@ public class MainActivity extends AppCompatActivity {
                     }
                 });
 
-        startLocationUpdates();
+        mLocationScheduler.setResumed(true);
     }
 
     @Override
@@ -174,9 +168,37 @@ public class MainActivity extends AppCompatActivity {
             unregisterReceiver(mPushMessageReceiver);
         }
 
-        stopLocationUpdates();
+        // Drop to the coarse request while paused; updates stop altogether in onStop().
+        mLocationScheduler.setResumed(false);
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        mLocationScheduler.setStarted(true);
     }
 
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // It is a good practice to remove location requests when the activity is stopped.
+        // Doing so helps battery performance.
+        mLocationScheduler.setStarted(false);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        Outbox outbox = ApiClient.getInstance(this).getOutbox();
+        if (outbox != null) {
+            //queued calls stay on disk until the next start
+            outbox.stop();
+        }
+        if (isFinishing()) {
+            //The user is leaving the app (or signed out). Release the shared network threads.
+            RequestQueueSingleton.shutdown();
+        }
+    }
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -188,6 +210,12 @@ public class MainActivity extends AppCompatActivity {
 
         MainActivityArgs args = MainActivityArgs.fromBundle(getIntent().getExtras());
 
+        //send anything left queued from last time, and whatever is queued while offline
+        Outbox outbox = ApiClient.getInstance(this).getOutbox();
+        if (outbox != null) {
+            outbox.start(args.getJwt());
+        }
+
         mContactViewModel = new ViewModelProvider(this).get(ContactListViewModel.class);
 
         mNewMessageModel = new ViewModelProvider(this).get(NewMessageCountViewModel.class);
@@ -200,6 +228,45 @@ public class MainActivity extends AppCompatActivity {
                         args.getUsername())
         ).get(UserInfoViewModel.class);
 
+        /**
+         * This section of OnCreate is used for weather location.
+         */
+        mLocationModel = new ViewModelProvider(this).get(LocationViewModel.class);
+        mFusedLocationClient = LocationServices.getFusedLocationProviderClient(this);
+
+        if (ActivityCompat.checkSelfPermission(this, android.Manifest.permission.ACCESS_FINE_LOCATION)
+                != PackageManager.PERMISSION_GRANTED
+                && ActivityCompat.checkSelfPermission(this, android.Manifest.permission.ACCESS_COARSE_LOCATION)
+                != PackageManager.PERMISSION_GRANTED) {
+
+            ActivityCompat.requestPermissions(this,
+                    new String[]{android.Manifest.permission.ACCESS_COARSE_LOCATION
+                            , Manifest.permission.ACCESS_FINE_LOCATION},
+                    MY_PERMISSIONS_LOCATIONS);
+        } else {
+            //The user has already allowed the use of Locations. Get the current location.
+            requestLocation();
+        }
+
+        mLocationCallback = new LocationCallback() {
+            @Override
+            public void onLocationResult(LocationResult locationResult) {
+                if (locationResult == null) {
+                    return;
+                }
+                for (Location location : locationResult.getLocations()) {
+                    // Update UI with location data
+                    // ...
+                   // Log.d("LOCATION UPDATE!", location.toString());
+                    mLocationModel.setLocation(location);
+                }
+            };
+        };
+
+        mLocationScheduler = new LocationScheduler(this, mFusedLocationClient, mLocationCallback);
+        //Only pay for location updates while a weather screen or the map uses them.
+        mLocationModel.addObservedObserver(this, mLocationScheduler::setObserved);
+
         BottomNavigationView navView = findViewById(R.id.nav_view);
         // Passing each menu ID as a set of Ids because each
         // menu should be considered as top level destinations
@@ -235,46 +302,6 @@ public class MainActivity extends AppCompatActivity {
                 badge.setVisible(false);
             }
         });
-
-        /**
-         * This section of OnCreate is used for weather location.
-         */
-        mFusedLocationClient = LocationServices.getFusedLocationProviderClient(this);
-
-        if (ActivityCompat.checkSelfPermission(this, android.Manifest.permission.ACCESS_FINE_LOCATION)
-                != PackageManager.PERMISSION_GRANTED
-                && ActivityCompat.checkSelfPermission(this, android.Manifest.permission.ACCESS_COARSE_LOCATION)
-                != PackageManager.PERMISSION_GRANTED) {
-
-            ActivityCompat.requestPermissions(this,
-                    new String[]{android.Manifest.permission.ACCESS_COARSE_LOCATION
-                            , Manifest.permission.ACCESS_FINE_LOCATION},
-                    MY_PERMISSIONS_LOCATIONS);
-        } else {
-            //The user has already allowed the use of Locations. Get the current location.
-            requestLocation();
-        }
-
-        mLocationCallback = new LocationCallback() {
-            @Override
-            public void onLocationResult(LocationResult locationResult) {
-                if (locationResult == null) {
-                    return;
-                }
-                for (Location location : locationResult.getLocations()) {
-                    // Update UI with location data
-                    // ...
-                   // Log.d("LOCATION UPDATE!", location.toString());
-                    if (mLocationModel == null) {
-                        mLocationModel = new ViewModelProvider(MainActivity.this)
-                                .get(LocationViewModel.class);
-                    }
-                    mLocationModel.setLocation(location);
-                }
-            };
-        };
-
-        createLocationRequest();
     }
 
     /**
@@ -313,6 +340,19 @@ public class MainActivity extends AppCompatActivity {
                         .getmJwt()
         );
         PushNotifications.clearAllState();
+
+        //the next user of this device must not see these chats
+        final ChatMessageStore store = ChatMessageStore.getInstance(this);
+        store.getDiskExecutor().execute(store::clear);
+
+        //nor these contacts
+        ContactRepository.getInstance(this).clear();
+
+        //nor send anything this user left queued
+        Outbox outbox = ApiClient.getInstance(this).getOutbox();
+        if (outbox != null) {
+            outbox.clear();
+        }
     }
 
     public void getUserSetting() {
@@ -341,25 +381,6 @@ public class MainActivity extends AppCompatActivity {
         getSupportActionBar().setTitle(title);
     }
 
-    private void startLocationUpdates() {
-        if (ActivityCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION)
-                == PackageManager.PERMISSION_GRANTED
-                && ActivityCompat.checkSelfPermission(this, Manifest.permission.ACCESS_COARSE_LOCATION)
-                == PackageManager.PERMISSION_GRANTED) {
-
-            mFusedLocationClient.requestLocationUpdates(mLocationRequest,
-                    mLocationCallback,
-                    null /* Looper */);
-        }
-    }
-
-    private void stopLocationUpdates() {
-        // It is a good practice to remove location requests when the activity is in a paused or
-        // stopped state. Doing so helps battery performance and is especially
-        // recommended in applications that request frequent location updates.
-        mFusedLocationClient.removeLocationUpdates(mLocationCallback);
-    }
-
     //This section of Main Activity is for weather
     @Override
     public void onRequestPermissionsResult(int requestCode,
@@ -373,6 +394,7 @@ public class MainActivity extends AppCompatActivity {
                     // permission was granted, yay! Do the
                     // locations-related task you need to do.
                     requestLocation();
+                    mLocationScheduler.refresh();
 
                 } else {
 
@@ -407,30 +429,10 @@ public class MainActivity extends AppCompatActivity {
                             // Got last known location. In some rare situations this can be null.
                             if (location != null) {
                                 Log.d("LOCATION", location.toString());
-                                if (mLocationModel == null) {
-                                    mLocationModel = new ViewModelProvider(MainActivity.this)
-                                            .get(LocationViewModel.class);
-                                }
                                 mLocationModel.setLocation(location);
                             }
                         }
                     });
         }
     }
-
-    private void createLocationRequest() {
-        mLocationRequest = LocationRequest.create();
-
-        // Sets the desired interval for active location updates. This interval is
-        // inexact. You may not receive updates at all if no location sources are available, or
-        // you may receive them slower than requested. You may also receive updates faster than
-        // requested if other applications are requesting location at a faster interval.
-        mLocationRequest.setInterval(UPDATE_INTERVAL_IN_MILLISECONDS);
-
-        // Sets the fastest rate for active location updates. This interval is exact, and your
-        // application will never receive updates faster than this value.
-        mLocationRequest.setFastestInterval(FASTEST_UPDATE_INTERVAL_IN_MILLISECONDS);
-
-        mLocationRequest.setPriority(LocationRequest.PRIORITY_HIGH_ACCURACY);
-    }
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+package edu.uw.group1app.io;
+
+import androidx.annotation.Nullable;
+
+import com.android.volley.Response;
+
+import org.json.JSONObject;
+
+import java.util.Map;
+
+/**
+ * A single request to the web service along with how to decode its response and who to
+ * tell about the result. Built by ApiClient and sent by a Transport.
+ *
+ * @param <T> the type the response is decoded into
+ */
+public final class ApiCall<T> {
+
+    private final int mMethod;
+    private final String mUrl;
+    private final JSONObject mBody;
+    private final Map<String, String> mHeaders;
+    private final ResponseDecoder<T> mDecoder;
+    private final Response.Listener<T> mListener;
+    private final Response.ErrorListener mErrorListener;
+    private final Object mTag;
+
+    /**
+     * Constructor for ApiCall
+     *
+     * @param method one of {@link com.android.volley.Request.Method}
+     * @param url the full url of the endpoint
+     * @param body the JSON body to send, or null for no body
+     * @param headers the headers to send with the request
+     * @param decoder decodes the response body
+     * @param listener receives the decoded response
+     * @param errorListener receives any network or decoding error
+     * @param tag groups calls so they can be cancelled together, or null for none
+     */
+    public ApiCall(final int method, final String url, @Nullable final JSONObject body,
+                   final Map<String, String> headers, final ResponseDecoder<T> decoder,
+                   final Response.Listener<T> listener,
+                   final Response.ErrorListener errorListener,
+                   @Nullable final Object tag) {
+        mMethod = method;
+        mUrl = url;
+        mBody = body;
+        mHeaders = headers;
+        mDecoder = decoder;
+        mListener = listener;
+        mErrorListener = errorListener;
+        mTag = tag;
+    }
+
+    public int getMethod() {
+        return mMethod;
+    }
+
+    public String getUrl() {
+        return mUrl;
+    }
+
+    @Nullable
+    public JSONObject getBody() {
+        return mBody;
+    }
+
+    public Map<String, String> getHeaders() {
+        return mHeaders;
+    }
+
+    public ResponseDecoder<T> getDecoder() {
+        return mDecoder;
+    }
+
+    public Response.Listener<T> getListener() {
+        return mListener;
+    }
+
+    public Response.ErrorListener getErrorListener() {
+        return mErrorListener;
+    }
+
+    @Nullable
+    public Object getTag() {
+        return mTag;
+    }
+}
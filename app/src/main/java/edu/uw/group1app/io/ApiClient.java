@@ -0,0 +1,500 @@
+package edu.uw.group1app.io;
+
+import android.content.Context;
+
+import androidx.annotation.Nullable;
+
+import com.android.volley.Request;
+import com.android.volley.Response;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.uw.group1app.R;
+import edu.uw.group1app.ui.chat.ChatPage;
+import edu.uw.group1app.ui.chat.ChatRoom;
+import edu.uw.group1app.ui.contacts.all.Contact;
+import edu.uw.group1app.ui.contacts.request.FriendRequest;
+
+/**
+ * Typed client for the group back-end. There is one method per endpoint; each builds the
+ * url and body, attaches the Authorization header and decodes the response into the
+ * domain object the caller needs before it is delivered.
+ */
+public class ApiClient {
+
+    private static ApiClient instance;
+
+    private final String mBaseUrl;
+    private final Transport mTransport;
+
+    /**
+     * Queue for the calls that change something, or null to send them straight away.
+     */
+    @Nullable
+    private Outbox mOutbox;
+
+    /**
+     * The JWT the cached header map was built for.
+     */
+    private String mJwt;
+
+    /**
+     * Authorization header map, built once per JWT and shared by every call.
+     */
+    private Map<String, String> mAuthHeaders;
+
+    /**
+     * Constructor for ApiClient
+     *
+     * @param baseUrl the web service base url, ending with a '/'
+     * @param transport sends the calls this client builds
+     */
+    public ApiClient(final String baseUrl, final Transport transport) {
+        mBaseUrl = baseUrl;
+        mTransport = transport;
+        mAuthHeaders = Collections.emptyMap();
+    }
+
+    /**
+     * Constructor for an ApiClient that queues the calls that change something in an
+     * {@link Outbox} kept on this device.
+     *
+     * @param context any context
+     * @param baseUrl the web service base url, ending with a '/'
+     * @param transport sends the calls this client builds
+     */
+    ApiClient(final Context context, final String baseUrl, final Transport transport) {
+        this(baseUrl, transport);
+        mOutbox = new Outbox(context, this);
+    }
+
+    /**
+     * Get the app wide client, which talks to R.string.base_url through Volley.
+     *
+     * @param context any context
+     * @return the shared client
+     */
+    public static synchronized ApiClient getInstance(final Context context) {
+        if (instance == null) {
+            instance = new ApiClient(context, context.getString(R.string.base_url),
+                    new VolleyTransport(context));
+        }
+        return instance;
+    }
+
+    /**
+     * Replace the app wide client, e.g. with one using a stand-in server transport.
+     *
+     * @param client the client every ViewModel should use from now on
+     */
+    public static synchronized void setInstance(final ApiClient client) {
+        instance = client;
+    }
+
+    /**
+     * Get the queue the calls that change something go through, so it can be started,
+     * stopped and cleared with the signed in user.
+     *
+     * @return the queue, or null if this client sends every call straight away
+     */
+    @Nullable
+    public Outbox getOutbox() {
+        return mOutbox;
+    }
+
+    // ---------------------------------------------------------------- contacts
+
+    /**
+     * Get the user's accepted contacts.
+     */
+    public void getContacts(final String jwt,
+                            final Response.Listener<List<Contact>> listener,
+                            final Response.ErrorListener errorListener) {
+        send(Request.Method.GET, "contact", null, jwt,
+                (data, charset) -> decodeContacts(text(data, charset), "verified"),
+                listener, errorListener);
+    }
+
+    /**
+     * Get the user's favorite contacts.
+     */
+    public void getFavorites(final String jwt,
+                             final Response.Listener<List<Contact>> listener,
+                             final Response.ErrorListener errorListener) {
+        send(Request.Method.GET, "contact/favorite", null, jwt,
+                (data, charset) -> decodeContacts(text(data, charset), "favorite"),
+                listener, errorListener);
+    }
+
+    /**
+     * Get every member the user can search for.
+     */
+    public void getAllContacts(final String jwt,
+                               final Response.Listener<List<Contact>> listener,
+                               final Response.ErrorListener errorListener) {
+        send(Request.Method.GET, "contact/all", null, jwt,
+                (data, charset) -> decodeContacts(text(data, charset), null),
+                listener, errorListener);
+    }
+
+    /**
+     * Get the friend requests waiting on the user.
+     */
+    public void getFriendRequests(final String jwt,
+                                  final Response.Listener<List<FriendRequest>> listener,
+                                  final Response.ErrorListener errorListener) {
+        send(Request.Method.GET, "contact/requestlist", null, jwt,
+                (data, charset) -> decodeFriendRequests(text(data, charset)),
+                listener, errorListener);
+    }
+
+    public void deleteContact(final String jwt, final int memberId,
+                              final Response.Listener<JSONObject> listener,
+                              final Response.ErrorListener errorListener) {
+        send(Request.Method.DELETE, "contact/contact/" + memberId, null, jwt,
+                ApiClient::decodeObject, listener, errorListener);
+    }
+
+    public void addFavorite(final String jwt, final int memberId,
+                            final Response.Listener<JSONObject> listener,
+                            final Response.ErrorListener errorListener) {
+        send(Request.Method.POST, "contact/favorite/" + memberId, null, jwt,
+                ApiClient::decodeObject, listener, errorListener);
+    }
+
+    public void unFavorite(final String jwt, final int memberId,
+                           final Response.Listener<JSONObject> listener,
+                           final Response.ErrorListener errorListener) {
+        send(Request.Method.POST, "contact/favorite/delete/" + memberId, null, jwt,
+                ApiClient::decodeObject, listener, errorListener);
+    }
+
+    public void acceptRequest(final String jwt, final int memberId,
+                              final Response.Listener<JSONObject> listener,
+                              final Response.ErrorListener errorListener) {
+        send(Request.Method.POST, "contact/request/" + memberId, null, jwt,
+                ApiClient::decodeObject, listener, errorListener);
+    }
+
+    public void declineRequest(final String jwt, final String username,
+                               final Response.Listener<JSONObject> listener,
+                               final Response.ErrorListener errorListener) {
+        send(Request.Method.POST, "contact/decline", body("userName", username), jwt,
+                ApiClient::decodeObject, listener, errorListener);
+    }
+
+    public void addFriend(final String jwt, final String username,
+                          final Response.Listener<JSONObject> listener,
+                          final Response.ErrorListener errorListener) {
+        queue(Request.Method.POST, "contact/add", body("userName", username), jwt,
+                ApiClient::decodeObject, listener, errorListener);
+    }
+
+    /**
+     * Add a contact to an existing chat room.
+     */
+    public void addContactToChat(final String jwt, final int chatId, final int memberId,
+                                 final Response.Listener<JSONObject> listener,
+                                 final Response.ErrorListener errorListener) {
+        queue(Request.Method.PUT, "addcontactmember/" + chatId + "/" + memberId,
+                body("memberid", memberId), jwt,
+                ApiClient::decodeObject, listener, errorListener);
+    }
+
+    // -------------------------------------------------------------------- chat
+
+    /**
+     * Get the chat rooms the user is a member of.
+     */
+    public void getChatRooms(final String jwt,
+                             final Response.Listener<List<ChatRoom>> listener,
+                             final Response.ErrorListener errorListener) {
+        send(Request.Method.GET, "chatrooms", null, jwt,
+                (data, charset) -> decodeChatRooms(text(data, charset)),
+                listener, errorListener);
+    }
+
+    /**
+     * Create a chat room.
+     *
+     * @param listener receives the id of the new room
+     */
+    public void addChat(final String jwt, final String name,
+                        final Response.Listener<Integer> listener,
+                        final Response.ErrorListener errorListener) {
+        queue(Request.Method.POST, "chats", body("name", name), jwt,
+                (data, charset) -> new JSONObject(text(data, charset)).getInt("chatID"),
+                listener, errorListener);
+    }
+
+    public void deleteChat(final String jwt, final int chatId, final String email,
+                           final Response.Listener<JSONObject> listener,
+                           final Response.ErrorListener errorListener) {
+        queue(Request.Method.DELETE, "chats/" + chatId + "/" + email, null, jwt,
+                ApiClient::decodeObject, listener, errorListener);
+    }
+
+    /**
+     * Add the user to a chat room.
+     */
+    public void putMembers(final String jwt, final int chatId,
+                           final Response.Listener<JSONObject> listener,
+                           final Response.ErrorListener errorListener) {
+        queue(Request.Method.PUT, "chats/" + chatId, body("chatid", chatId), jwt,
+                ApiClient::decodeObject, listener, errorListener);
+    }
+
+    public void sendMessage(final String jwt, final int chatId, final String message,
+                            final Response.Listener<JSONObject> listener,
+                            final Response.ErrorListener errorListener) {
+        JSONObject body = body("message", message);
+        try {
+            body.put("chatId", chatId);
+        } catch (JSONException e) {
+            e.printStackTrace();
+        }
+        queue(Request.Method.POST, "messages", body, jwt,
+                ApiClient::decodeObject, listener, errorListener);
+    }
+
+    /**
+     * Get a page of messages for a chat room.
+     *
+     * @param beforeMessageId only return messages older than this id, or null for the
+     *                        newest page
+     */
+    public void getMessages(final String jwt, final int chatId,
+                            @Nullable final Integer beforeMessageId,
+                            final Response.Listener<ChatPage> listener,
+                            final Response.ErrorListener errorListener) {
+        String path = "messages/" + chatId;
+        if (beforeMessageId != null) {
+            path += "/" + beforeMessageId;
+        }
+        send(Request.Method.GET, path, null, jwt,
+                (data, charset) -> ChatPage.decode(
+                        new InputStreamReader(new ByteArrayInputStream(data), charset)),
+                listener, errorListener);
+    }
+
+    // ----------------------------------------------------------------- weather
+
+    /**
+     * Get the current conditions. The caller chooses how the body is decoded, so it can
+     * keep the raw text as well as the parsed result.
+     */
+    public <T> void getCurrentWeather(final String locationKey,
+                                      @Nullable final Object tag,
+                                      final ResponseDecoder<T> decoder,
+                                      final Response.Listener<T> listener,
+                                      final Response.ErrorListener errorListener) {
+        send(Request.Method.POST, "weather", body("locationkey", locationKey), null,
+                decoder, listener, errorListener, tag);
+    }
+
+    /**
+     * Get the five day forecast, decoded by the caller.
+     */
+    public <T> void getFiveDayForecast(final String locationKey,
+                                       @Nullable final Object tag,
+                                       final ResponseDecoder<T> decoder,
+                                       final Response.Listener<T> listener,
+                                       final Response.ErrorListener errorListener) {
+        send(Request.Method.POST, "fiveday", body("locationkey", locationKey), null,
+                decoder, listener, errorListener, tag);
+    }
+
+    /**
+     * Get the twelve hour forecast, decoded by the caller.
+     */
+    public <T> void getTwelveHourForecast(final String locationKey,
+                                          @Nullable final Object tag,
+                                          final ResponseDecoder<T> decoder,
+                                          final Response.Listener<T> listener,
+                                          final Response.ErrorListener errorListener) {
+        send(Request.Method.POST, "twelvehour", body("locationkey", locationKey), null,
+                decoder, listener, errorListener, tag);
+    }
+
+    /**
+     * Look up the AccuWeather location for a coordinate.
+     */
+    public void getGeoposition(final String latitude, final String longitude,
+                               @Nullable final Object tag,
+                               final Response.Listener<JSONObject> listener,
+                               final Response.ErrorListener errorListener) {
+        JSONObject body = body("latitude", latitude);
+        try {
+            body.put("longitude", longitude);
+        } catch (JSONException e) {
+            e.printStackTrace();
+        }
+        send(Request.Method.POST, "geoposition", body, null,
+                ApiClient::decodeObject, listener, errorListener, tag);
+    }
+
+    /**
+     * Look up the AccuWeather location for a zip code.
+     */
+    public void getZipcode(final String zipCode,
+                           @Nullable final Object tag,
+                           final Response.Listener<JSONObject> listener,
+                           final Response.ErrorListener errorListener) {
+        send(Request.Method.POST, "zipcode", body("zipcode", zipCode), null,
+                ApiClient::decodeObject, listener, errorListener, tag);
+    }
+
+    /**
+     * Cancel every call made with a tag that has not been delivered yet. Neither listener
+     * of a cancelled call is told anything. Must be called on the main thread.
+     *
+     * @param tag the tag passed when the calls were made
+     */
+    public void cancelAll(final Object tag) {
+        mTransport.cancelAll(tag);
+    }
+
+    // ----------------------------------------------------------------- helpers
+
+    private <T> void send(final int method, final String path,
+                          @Nullable final JSONObject body, @Nullable final String jwt,
+                          final ResponseDecoder<T> decoder,
+                          final Response.Listener<T> listener,
+                          final Response.ErrorListener errorListener) {
+        send(method, path, body, jwt, decoder, listener, errorListener, null);
+    }
+
+    private <T> void send(final int method, final String path,
+                          @Nullable final JSONObject body, @Nullable final String jwt,
+                          final ResponseDecoder<T> decoder,
+                          final Response.Listener<T> listener,
+                          final Response.ErrorListener errorListener,
+                          @Nullable final Object tag) {
+        Map<String, String> headers = (jwt == null)
+                ? Collections.emptyMap()
+                : authHeaders(jwt);
+        mTransport.send(new ApiCall<>(method, mBaseUrl + path, body, headers, decoder,
+                listener, errorListener, tag));
+    }
+
+    /**
+     * Send a call through the outbox, so it is kept until the web service answers it.
+     */
+    private <T> void queue(final int method, final String path,
+                           @Nullable final JSONObject body, final String jwt,
+                           final ResponseDecoder<T> decoder,
+                           final Response.Listener<T> listener,
+                           final Response.ErrorListener errorListener) {
+        if (mOutbox == null) {
+            send(method, path, body, jwt, decoder, listener, errorListener);
+        } else {
+            mOutbox.enqueue(jwt, method, path, body, decoder, listener, errorListener);
+        }
+    }
+
+    /**
+     * Send a call taken off the outbox, with the key that marks retries of it.
+     */
+    <T> void sendQueued(final String jwt, final int method, final String path,
+                        @Nullable final JSONObject body, final String key,
+                        final ResponseDecoder<T> decoder,
+                        final Response.Listener<T> listener,
+                        final Response.ErrorListener errorListener) {
+        Map<String, String> headers = new HashMap<>(authHeaders(jwt));
+        headers.put(Outbox.IDEMPOTENCY_HEADER, key);
+        mTransport.send(new ApiCall<>(method, mBaseUrl + path, body, headers, decoder,
+                listener, errorListener, null));
+    }
+
+    /**
+     * Return the Authorization header map for a JWT, only building a new map when the
+     * JWT changes.
+     */
+    private synchronized Map<String, String> authHeaders(final String jwt) {
+        if (!jwt.equals(mJwt)) {
+            Map<String, String> headers = new HashMap<>();
+            headers.put("Authorization", jwt);
+            mAuthHeaders = Collections.unmodifiableMap(headers);
+            mJwt = jwt;
+        }
+        return mAuthHeaders;
+    }
+
+    private static JSONObject body(final String key, final Object value) {
+        JSONObject body = new JSONObject();
+        try {
+            body.put(key, value);
+        } catch (JSONException e) {
+            e.printStackTrace();
+        }
+        return body;
+    }
+
+    private static String text(final byte[] data, final String charset)
+            throws UnsupportedEncodingException {
+        return new String(data, charset);
+    }
+
+    private static JSONObject decodeObject(final byte[] data, final String charset)
+            throws UnsupportedEncodingException, JSONException {
+        return new JSONObject(text(data, charset));
+    }
+
+    /**
+     * Decode a contacts response. A malformed body fails the whole call rather than
+     * decoding into a partial list, so callers never mistake it for the real list.
+     *
+     * @param json the response body
+     * @param flag only keep contacts with this flag set to 1, or null to keep all
+     * @throws JSONException when the body is not a contacts response
+     */
+    private static List<Contact> decodeContacts(final String json, @Nullable final String flag)
+            throws JSONException {
+        JSONArray contacts = new JSONObject(json).getJSONArray("contacts");
+        ArrayList<Contact> temp = new ArrayList<>(contacts.length());
+        for (int i = 0; i < contacts.length(); i++) {
+            JSONObject contact = contacts.getJSONObject(i);
+            if (flag == null || contact.getInt(flag) == 1) {
+                temp.add(new Contact(contact.getString("email"),
+                        contact.getString("firstName"),
+                        contact.getString("lastName"),
+                        contact.getString("userName"),
+                        contact.getInt("memberId")));
+            }
+        }
+        return Collections.unmodifiableList(temp);
+    }
+
+    private static List<FriendRequest> decodeFriendRequests(final String json)
+            throws JSONException {
+        JSONArray requests = new JSONObject(json).getJSONArray("request");
+        ArrayList<FriendRequest> temp = new ArrayList<>(requests.length());
+        for (int i = 0; i < requests.length(); i++) {
+            JSONObject request = requests.getJSONObject(i);
+            temp.add(new FriendRequest(request.getString("username"),
+                    request.getInt("memberid")));
+        }
+        return Collections.unmodifiableList(temp);
+    }
+
+    private static List<ChatRoom> decodeChatRooms(final String json) throws JSONException {
+        JSONArray chats = new JSONObject(json).getJSONArray("chats");
+        ArrayList<ChatRoom> temp = new ArrayList<>(chats.length());
+        for (int i = 0; i < chats.length(); i++) {
+            JSONObject chat = chats.getJSONObject(i);
+            temp.add(new ChatRoom(chat.getInt("chat"), chat.getString("name")));
+        }
+        return Collections.unmodifiableList(temp);
+    }
+}
@@ -0,0 +1,56 @@
+package edu.uw.group1app.io;
+
+import com.android.volley.NetworkResponse;
+import com.android.volley.ParseError;
+import com.android.volley.Response;
+import com.android.volley.toolbox.HttpHeaderParser;
+import com.android.volley.toolbox.JsonRequest;
+
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Volley request for an {@link ApiCall}. The response is decoded in parseNetworkResponse,
+ * which Volley runs on a network dispatcher thread, so only the finished object is handed
+ * to the main thread.
+ *
+ * @param <T> the type the response is decoded into
+ */
+public class ApiRequest<T> extends JsonRequest<T> {
+
+    private final ApiCall<T> mCall;
+
+    /**
+     * Constructor for ApiRequest
+     *
+     * @param call the call to send
+     */
+    public ApiRequest(final ApiCall<T> call) {
+        super(call.getMethod(),
+                call.getUrl(),
+                (call.getBody() == null) ? null : call.getBody().toString(),
+                call.getListener(),
+                call.getErrorListener());
+        mCall = call;
+    }
+
+    @Override
+    public Map<String, String> getHeaders() {
+        return mCall.getHeaders();
+    }
+
+    @Override
+    protected Response<T> parseNetworkResponse(NetworkResponse response) {
+        try {
+            T result = mCall.getDecoder().decode(response.data,
+                    HttpHeaderParser.parseCharset(response.headers, PROTOCOL_CHARSET));
+            return Response.success(result, HttpHeaderParser.parseCacheHeaders(response));
+        } catch (IOException e) {
+            return Response.error(new ParseError(e));
+        } catch (JSONException je) {
+            return Response.error(new ParseError(je));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package edu.uw.group1app.io;
+
+/**
+ * Handle to a request that may still be running. Cancelling stops its listeners from
+ * hearing anything more, and stops the network call too when nobody else is waiting on it.
+ */
+public interface Cancellable {
+
+    /**
+     * Handle for a request that already finished, cancelling it does nothing.
+     */
+    Cancellable NONE = () -> { };
+
+    /**
+     * Stop listening. Safe to call more than once, and after the request has finished.
+     * Must be called on the main thread.
+     */
+    void cancel();
+}
@@ -0,0 +1,317 @@
+package edu.uw.group1app.io;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.android.volley.ParseError;
+import com.android.volley.Response;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Durable, ordered queue for the calls that change something on the web service, such as
+ * sending a message or creating a chat room. Every call is written to disk before it is
+ * sent, so a call made offline, or cut short by the app closing, is not lost.
+ *
+ * Queued calls are read a batch at a time and sent one at a time, oldest first, each with
+ * an idempotency key so the web service can tell a retry from a new call. When the web
+ * service cannot be reached the call stays queued, along with everything after it, and
+ * sending starts again when a network becomes available or after a back-off. The web
+ * service does not check the key yet, so a POST that may have reached it is not sent
+ * again; like a call the web service turns down, it is dropped and its error listener
+ * told, so the user can decide whether to try again. A call the web service keeps failing
+ * on is given up on the same way after OutboxRetry.MAX_ATTEMPTS, so the calls behind it
+ * are sent. See {@link OutboxRetry}.
+ *
+ * All methods must be called on the main thread, which is also where Volley delivers.
+ */
+public final class Outbox {
+
+    /**
+     * The header the idempotency key of a queued call is sent in.
+     */
+    static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
+
+    private static final int BATCH_SIZE = 20;
+
+    /**
+     * Whether the web service ignores a call whose idempotency key it has already seen.
+     * Until it does, only calls that are safe to repeat are sent again after an attempt
+     * that may have reached it.
+     */
+    private static final boolean SERVER_HONOURS_IDEMPOTENCY_KEY = false;
+
+    private final ApiClient mApi;
+
+    private final OutboxStore mStore;
+
+    private final ConnectivityManager mConnectivity;
+
+    /**
+     * Runs every read and write against mStore, in order, off the main thread.
+     */
+    private final ExecutorService mDiskExecutor;
+
+    private final Handler mMainHandler;
+
+    private final ConnectivityManager.NetworkCallback mNetworkCallback;
+
+    /**
+     * Who to tell about each queued call, by idempotency key. Calls queued before the app
+     * was last closed have nobody waiting on them.
+     */
+    private final Map<String, Callback<?>> mCallbacks;
+
+    private final Runnable mRetry;
+
+    /**
+     * The JWT queued calls are sent with, or null before start() or after clear().
+     */
+    private String mJwt;
+
+    private boolean mStarted;
+
+    /**
+     * Whether a batch is being sent.
+     */
+    private boolean mDraining;
+
+    private final OutboxRetry mBackOff = new OutboxRetry();
+
+    /**
+     * Bumped by clear, so a batch still being sent stops.
+     */
+    private int mGeneration;
+
+    /**
+     * How to decode the answer to a queued call, and who to tell about it.
+     *
+     * @param <T> the type the response is decoded into
+     */
+    private static final class Callback<T> {
+        private final ResponseDecoder<T> mDecoder;
+        private final Response.Listener<T> mListener;
+        private final Response.ErrorListener mErrorListener;
+
+        Callback(final ResponseDecoder<T> decoder,
+                 final Response.Listener<T> listener,
+                 final Response.ErrorListener errorListener) {
+            mDecoder = decoder;
+            mListener = listener;
+            mErrorListener = errorListener;
+        }
+    }
+
+    /**
+     * Used for calls queued before the app was last closed.
+     */
+    private static final Callback<byte[]> NOBODY = new Callback<>(
+            (data, charset) -> data,
+            response -> { },
+            error -> Log.e("OUTBOX", "Queued call dropped: " + error.getMessage()));
+
+    /**
+     * Constructor for Outbox
+     *
+     * @param context any context
+     * @param api the client to send queued calls through
+     */
+    Outbox(final Context context, final ApiClient api) {
+        mApi = api;
+        mStore = new OutboxStore(context);
+        mConnectivity = (ConnectivityManager) context.getApplicationContext()
+                .getSystemService(Context.CONNECTIVITY_SERVICE);
+        mDiskExecutor = Executors.newSingleThreadExecutor();
+        mMainHandler = new Handler(Looper.getMainLooper());
+        mCallbacks = new HashMap<>();
+        mRetry = this::drain;
+        mNetworkCallback = new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(@NonNull final Network network) {
+                mMainHandler.post(Outbox.this::retryNow);
+            }
+        };
+    }
+
+    /**
+     * Start sending queued calls, including any left from before the app was closed, and
+     * send again whenever a network becomes available.
+     *
+     * @param jwt the JWT to send queued calls with
+     */
+    @MainThread
+    public void start(final String jwt) {
+        mJwt = jwt;
+        if (!mStarted) {
+            mConnectivity.registerDefaultNetworkCallback(mNetworkCallback);
+            mStarted = true;
+        }
+        drain();
+    }
+
+    /**
+     * Stop watching the network. Calls already queued stay on disk for the next start().
+     */
+    @MainThread
+    public void stop() {
+        if (mStarted) {
+            mConnectivity.unregisterNetworkCallback(mNetworkCallback);
+            mStarted = false;
+        }
+        mMainHandler.removeCallbacks(mRetry);
+    }
+
+    /**
+     * Drop every queued call, e.g. when the user signs out.
+     */
+    @MainThread
+    public void clear() {
+        mGeneration++;
+        mDraining = false;
+        mJwt = null;
+        mCallbacks.clear();
+        mMainHandler.removeCallbacks(mRetry);
+        mDiskExecutor.execute(mStore::clear);
+    }
+
+    /**
+     * Queue a call and send it as soon as every call queued before it has been answered.
+     *
+     * @param jwt the JWT to send the call with
+     * @param method one of {@link com.android.volley.Request.Method}
+     * @param path the endpoint, relative to the web service base url
+     * @param body the JSON body to send, or null for no body
+     * @param decoder decodes the response body
+     * @param listener receives the decoded response
+     * @param errorListener receives the error if the web service turns the call down
+     * @param <T> the type the response is decoded into
+     */
+    @MainThread
+    <T> void enqueue(final String jwt, final int method, final String path,
+                     @Nullable final JSONObject body,
+                     final ResponseDecoder<T> decoder,
+                     final Response.Listener<T> listener,
+                     final Response.ErrorListener errorListener) {
+        mJwt = jwt;
+        final String key = UUID.randomUUID().toString();
+        final String text = body == null ? null : body.toString();
+        mCallbacks.put(key, new Callback<>(decoder, listener, errorListener));
+        mDiskExecutor.execute(() -> mStore.add(key, method, path, text));
+        drain();
+    }
+
+    /**
+     * Send again without waiting out the back-off, e.g. when a network becomes available.
+     */
+    @MainThread
+    void retryNow() {
+        mBackOff.reset();
+        drain();
+    }
+
+    /**
+     * Send the oldest queued calls, unless a batch is already being sent.
+     */
+    @MainThread
+    private void drain() {
+        mMainHandler.removeCallbacks(mRetry);
+        if (mDraining || mJwt == null) {
+            return;
+        }
+        mDraining = true;
+        final int generation = mGeneration;
+        mDiskExecutor.execute(() -> {
+            List<OutboxStore.Entry> batch = mStore.loadOldest(BATCH_SIZE);
+            mMainHandler.post(() -> {
+                if (generation == mGeneration) {
+                    sendBatch(batch, 0, generation);
+                }
+            });
+        });
+    }
+
+    private void sendBatch(final List<OutboxStore.Entry> batch, final int index,
+                           final int generation) {
+        if (index == batch.size()) {
+            mDraining = false;
+            if (!batch.isEmpty()) {
+                // there may be more queued behind this batch
+                drain();
+            }
+            return;
+        }
+        Callback<?> callback = mCallbacks.get(batch.get(index).getKey());
+        if (callback == null) {
+            callback = NOBODY;
+        }
+        send(batch.get(index), callback, generation,
+                () -> sendBatch(batch, index + 1, generation));
+    }
+
+    private <T> void send(final OutboxStore.Entry entry, final Callback<T> callback,
+                          final int generation, final Runnable next) {
+        JSONObject body = null;
+        if (entry.getBody() != null) {
+            try {
+                body = new JSONObject(entry.getBody());
+            } catch (JSONException e) {
+                finish(entry);
+                callback.mErrorListener.onErrorResponse(new ParseError(e));
+                next.run();
+                return;
+            }
+        }
+        mApi.sendQueued(mJwt, entry.getMethod(), entry.getPath(), body, entry.getKey(),
+                callback.mDecoder,
+                response -> {
+                    if (generation != mGeneration) {
+                        return;
+                    }
+                    mBackOff.reset();
+                    finish(entry);
+                    callback.mListener.onResponse(response);
+                    next.run();
+                },
+                error -> {
+                    if (generation != mGeneration) {
+                        return;
+                    }
+                    final boolean counts = OutboxRetry.countsAsAttempt(error);
+                    final int attempts = entry.getAttempts() + (counts ? 1 : 0);
+                    if (OutboxRetry.shouldRetry(entry.getMethod(), error,
+                            SERVER_HONOURS_IDEMPOTENCY_KEY, attempts)) {
+                        // keep this call, and everything after it, for the next attempt
+                        if (counts) {
+                            mDiskExecutor.execute(() -> mStore.addAttempt(entry.getId()));
+                        }
+                        mDraining = false;
+                        mMainHandler.postDelayed(mRetry, mBackOff.nextDelay());
+                        return;
+                    }
+                    finish(entry);
+                    callback.mErrorListener.onErrorResponse(error);
+                    next.run();
+                });
+    }
+
+    private void finish(final OutboxStore.Entry entry) {
+        mCallbacks.remove(entry.getKey());
+        mDiskExecutor.execute(() -> mStore.remove(entry.getId()));
+    }
+}
@@ -0,0 +1,114 @@
+package edu.uw.group1app.io;
+
+import com.android.volley.NetworkError;
+import com.android.volley.NoConnectionError;
+import com.android.volley.Request;
+import com.android.volley.TimeoutError;
+import com.android.volley.VolleyError;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+
+/**
+ * Decides whether a queued call that failed should stay queued and be sent again, and how
+ * long to wait before the next attempt.
+ *
+ * A call the web service may already have carried out is only sent again when doing so
+ * cannot repeat it: either its method is idempotent, or the web service checks the
+ * idempotency key. Otherwise it is only sent again when it never left the device.
+ *
+ * A call is only sent so many times once it may have reached the web service, so a call
+ * the web service keeps failing on does not hold up every call queued after it. Attempts
+ * that never left the device do not count; they fail the same way for every call.
+ */
+final class OutboxRetry {
+
+    static final long FIRST_DELAY_MILLIS = 15 * 1000L;
+
+    static final long MAX_DELAY_MILLIS = 5 * 60 * 1000L;
+
+    /**
+     * Most attempts that may have reached the web service before a call is given up on.
+     */
+    static final int MAX_ATTEMPTS = 5;
+
+    private long mDelayMillis = FIRST_DELAY_MILLIS;
+
+    /**
+     * it returns how long to wait before the next attempt, doubling the wait after that
+     */
+    long nextDelay() {
+        long delay = mDelayMillis;
+        mDelayMillis = Math.min(mDelayMillis * 2, MAX_DELAY_MILLIS);
+        return delay;
+    }
+
+    /**
+     * Go back to the shortest wait, e.g. after a call got through.
+     */
+    void reset() {
+        mDelayMillis = FIRST_DELAY_MILLIS;
+    }
+
+    /**
+     * Whether a call that failed should stay queued and be sent again later.
+     *
+     * @param method one of {@link Request.Method}
+     * @param error why the call failed
+     * @param honoursKey whether the web service ignores a repeat of an idempotency key
+     * @param attempts how many attempts, this one included, may have reached the web
+     *                 service, see {@link #countsAsAttempt}
+     */
+    static boolean shouldRetry(final int method, final VolleyError error,
+                               final boolean honoursKey, final int attempts) {
+        if (neverSent(error)) {
+            return true;
+        }
+        if (!isUnreachable(error) || attempts >= MAX_ATTEMPTS) {
+            return false;
+        }
+        return honoursKey || isIdempotent(method);
+    }
+
+    /**
+     * Whether a failed attempt counts towards MAX_ATTEMPTS, i.e. it may have reached the
+     * web service.
+     */
+    static boolean countsAsAttempt(final VolleyError error) {
+        return !neverSent(error);
+    }
+
+    /**
+     * Whether sending a call twice leaves the web service as sending it once would.
+     *
+     * @param method one of {@link Request.Method}
+     */
+    static boolean isIdempotent(final int method) {
+        return method != Request.Method.POST && method != Request.Method.PATCH;
+    }
+
+    /**
+     * Whether the call could not even be connected, so the web service never saw it.
+     */
+    private static boolean neverSent(final VolleyError error) {
+        if (!(error instanceof NoConnectionError)) {
+            return false;
+        }
+        Throwable cause = error.getCause();
+        return cause instanceof UnknownHostException
+                || cause instanceof ConnectException
+                || cause instanceof NoRouteToHostException;
+    }
+
+    /**
+     * Whether the call got no answer, or the web service was down, so it may or may not
+     * have been carried out.
+     */
+    private static boolean isUnreachable(final VolleyError error) {
+        if (error instanceof NetworkError || error instanceof TimeoutError) {
+            return true;
+        }
+        return error.networkResponse != null && error.networkResponse.statusCode >= 500;
+    }
+}
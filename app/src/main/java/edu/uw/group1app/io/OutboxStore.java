@@ -0,0 +1,188 @@
+package edu.uw.group1app.io;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * On-device queue of calls that change something on the web service, kept in the order
+ * they were made until the web service has answered them or they are given up on. Each
+ * call counts the attempts that may have reached the web service, see {@link OutboxRetry}.
+ *
+ * All methods touch the disk and must be called off the main thread.
+ */
+final class OutboxStore extends SQLiteOpenHelper {
+
+    private static final String DATABASE_NAME = "outbox.db";
+    private static final int DATABASE_VERSION = 2;
+
+    private static final String TABLE = "outbox";
+    private static final String COL_ID = "id";
+    private static final String COL_KEY = "idempotency_key";
+    private static final String COL_METHOD = "method";
+    private static final String COL_PATH = "path";
+    private static final String COL_BODY = "body";
+    private static final String COL_ATTEMPTS = "attempts";
+
+    private static final String[] COLUMNS = {COL_ID, COL_KEY, COL_METHOD, COL_PATH, COL_BODY,
+        COL_ATTEMPTS};
+
+    /**
+     * The columns version 1 had, which every later version carries over.
+     */
+    private static final String[] V1_COLUMNS = {COL_ID, COL_KEY, COL_METHOD, COL_PATH,
+        COL_BODY};
+
+    /**
+     * One queued call.
+     */
+    static final class Entry {
+        private final long mId;
+        private final String mKey;
+        private final int mMethod;
+        private final String mPath;
+        private final String mBody;
+        private final int mAttempts;
+
+        Entry(final long id, final String key, final int method, final String path,
+              @Nullable final String body, final int attempts) {
+            mId = id;
+            mKey = key;
+            mMethod = method;
+            mPath = path;
+            mBody = body;
+            mAttempts = attempts;
+        }
+
+        long getId() {
+            return mId;
+        }
+
+        /**
+         * it returns the key the web service can tell a retry of this call by
+         */
+        String getKey() {
+            return mKey;
+        }
+
+        int getMethod() {
+            return mMethod;
+        }
+
+        String getPath() {
+            return mPath;
+        }
+
+        @Nullable
+        String getBody() {
+            return mBody;
+        }
+
+        /**
+         * it returns how many earlier attempts at this call may have reached the web service
+         */
+        int getAttempts() {
+            return mAttempts;
+        }
+    }
+
+    OutboxStore(final Context context) {
+        super(context.getApplicationContext(), DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onCreate(final SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE + " ("
+                + COL_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + COL_KEY + " TEXT NOT NULL UNIQUE, "
+                + COL_METHOD + " INTEGER NOT NULL, "
+                + COL_PATH + " TEXT NOT NULL, "
+                + COL_BODY + " TEXT, "
+                + COL_ATTEMPTS + " INTEGER NOT NULL DEFAULT 0)");
+    }
+
+    @Override
+    public void onUpgrade(final SQLiteDatabase db, final int oldVersion, final int newVersion) {
+        // Unlike the caches these rows are the user's own unsent actions, so carry them over
+        // in order. A later version that adds a column should give it a default in
+        // onCreate, or fill it in here. This runs inside the upgrade transaction.
+        final String old = TABLE + "_old";
+        final String columns = String.join(", ", V1_COLUMNS);
+        db.execSQL("ALTER TABLE " + TABLE + " RENAME TO " + old);
+        onCreate(db);
+        db.execSQL("INSERT INTO " + TABLE + " (" + columns + ") SELECT " + columns
+                + " FROM " + old);
+        db.execSQL("DROP TABLE " + old);
+    }
+
+    /**
+     * Add a call to the end of the queue. A call whose key is already queued is ignored.
+     */
+    @WorkerThread
+    void add(final String key, final int method, final String path,
+             @Nullable final String body) {
+        ContentValues row = new ContentValues();
+        row.put(COL_KEY, key);
+        row.put(COL_METHOD, method);
+        row.put(COL_PATH, path);
+        row.put(COL_BODY, body);
+        getWritableDatabase().insertWithOnConflict(TABLE, null, row,
+                SQLiteDatabase.CONFLICT_IGNORE);
+    }
+
+    /**
+     * Load the oldest queued calls.
+     *
+     * @param limit the most calls to return
+     * @return the calls, oldest first
+     */
+    @WorkerThread
+    List<Entry> loadOldest(final int limit) {
+        List<Entry> result = new ArrayList<>();
+        try (Cursor cursor = getReadableDatabase().query(TABLE, COLUMNS, null, null,
+                null, null, COL_ID + " ASC", String.valueOf(limit))) {
+            while (cursor.moveToNext()) {
+                result.add(new Entry(cursor.getLong(0),
+                        cursor.getString(1),
+                        cursor.getInt(2),
+                        cursor.getString(3),
+                        cursor.isNull(4) ? null : cursor.getString(4),
+                        cursor.getInt(5)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Count one more attempt at a call that may have reached the web service.
+     */
+    @WorkerThread
+    void addAttempt(final long id) {
+        getWritableDatabase().execSQL("UPDATE " + TABLE + " SET " + COL_ATTEMPTS + " = "
+                + COL_ATTEMPTS + " + 1 WHERE " + COL_ID + " = ?", new Object[]{id});
+    }
+
+    /**
+     * Remove a call the web service has answered, or that has been given up on.
+     */
+    @WorkerThread
+    void remove(final long id) {
+        getWritableDatabase().delete(TABLE, COL_ID + " = ?", new String[]{String.valueOf(id)});
+    }
+
+    /**
+     * Remove every queued call, e.g. when the user signs out.
+     */
+    @WorkerThread
+    void clear() {
+        getWritableDatabase().delete(TABLE, null, null);
+    }
+}
@@ -5,12 +5,42 @@ import android.graphics.Bitmap;
 
 import androidx.collection.LruCache;
 
+import com.android.volley.NoConnectionError;
 import com.android.volley.Request;
 import com.android.volley.RequestQueue;
+import com.android.volley.toolbox.BasicNetwork;
+import com.android.volley.toolbox.DiskBasedCache;
+import com.android.volley.toolbox.HurlStack;
 import com.android.volley.toolbox.ImageLoader;
-import com.android.volley.toolbox.Volley;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Application scoped Volley client. Every ViewModel should add its requests through this
+ * class instead of calling Volley.newRequestQueue(), which starts a new set of dispatcher
+ * threads and a new disk cache on every call.
+ *
+ * The queue lives until the app closes, when shutdown() stops its threads. Requests still
+ * in flight then are failed rather than cancelled: a cancelled request reaches neither of
+ * its listeners, and the repositories and the outbox rely on one of them to clear their
+ * in-flight state.
+ */
 public class RequestQueueSingleton {
+
+    /**
+     * Number of network dispatcher threads shared by the whole app.
+     */
+    public static final int NETWORK_THREAD_POOL_SIZE = 4;
+
+    /**
+     * Max size of the shared response cache on disk.
+     */
+    private static final int DISK_CACHE_SIZE_BYTES = 5 * 1024 * 1024;
+
+    private static final String DISK_CACHE_DIR = "volley";
+
     private static RequestQueueSingleton instance;
     private static Context context;
 
@@ -18,7 +48,9 @@ public class RequestQueueSingleton {
     private ImageLoader mImageLoader;
 
     private RequestQueueSingleton(Context context) {
-        RequestQueueSingleton.context = context;
+        // getApplicationContext() is key, it keeps you from leaking the
+        // Activity or BroadcastReceiver if someone passes one in.
+        RequestQueueSingleton.context = context.getApplicationContext();
         mRequestQueue = getmRequestQueue();
 
         mImageLoader = new ImageLoader(mRequestQueue,
@@ -45,11 +77,50 @@ public class RequestQueueSingleton {
         return instance;
     }
 
+    /**
+     * Stop the dispatcher threads, e.g. when the app is closing. Every request still in
+     * flight is handed a NoConnectionError first, so whoever is waiting on it finishes as
+     * if the network had gone away. The next call to getInstance() builds a fresh queue.
+     * Must be called on the main thread, where Volley delivers.
+     */
+    public static synchronized void shutdown() {
+        if (instance == null) {
+            return;
+        }
+        final RequestQueue queue = instance.mRequestQueue;
+        instance = null;
+        if (queue == null) {
+            return;
+        }
+        final List<Request<?>> pending = new ArrayList<>();
+        // a filter that matches nothing, only to list what is in flight
+        queue.cancelAll(request -> {
+            pending.add(request);
+            return false;
+        });
+        // fail them before cancelling, since a cancelled request drops its listeners; a
+        // response already posted for one of them then sees it cancelled and is skipped
+        for (Request<?> request : pending) {
+            request.deliverError(new NoConnectionError());
+        }
+        queue.cancelAll(request -> true);
+        queue.stop();
+    }
+
     public RequestQueue getmRequestQueue() {
         if (mRequestQueue == null) {
-            // getApplicationContext() is key, it keeps you from leaking the
-            // Activity or BroadcastReceiver if someone passes one in.
-            mRequestQueue = Volley.newRequestQueue(context.getApplicationContext());
+            // HttpURLConnection keeps idle sockets alive and reuses them per host. Size the
+            // pool to match the dispatchers so every worker can hold a warm connection.
+            System.setProperty("http.keepAlive", "true");
+            System.setProperty("http.maxConnections",
+                    String.valueOf(NETWORK_THREAD_POOL_SIZE));
+
+            File cacheDir = new File(context.getCacheDir(), DISK_CACHE_DIR);
+            mRequestQueue = new RequestQueue(
+                    new DiskBasedCache(cacheDir, DISK_CACHE_SIZE_BYTES),
+                    new BasicNetwork(new HurlStack()),
+                    NETWORK_THREAD_POOL_SIZE);
+            mRequestQueue.start();
         }
         return mRequestQueue;
     }
@@ -0,0 +1,34 @@
+package edu.uw.group1app.io;
+
+import androidx.annotation.MainThread;
+
+/**
+ * One logical request a ViewModel makes, e.g. "the forecast for the location on screen".
+ * Starting a new request in the slot cancels the one before it, so a slow answer for
+ * something the user has moved on from is never delivered.
+ */
+public final class RequestSlot {
+
+    private Cancellable mCurrent = Cancellable.NONE;
+
+    /**
+     * Put a new request in the slot, cancelling the previous one.
+     *
+     * @param request the handle of the request just started
+     */
+    @MainThread
+    public void set(final Cancellable request) {
+        Cancellable previous = mCurrent;
+        mCurrent = request;
+        previous.cancel();
+    }
+
+    /**
+     * Cancel whatever is in the slot, e.g. from ViewModel.onCleared().
+     */
+    @MainThread
+    public void cancel() {
+        mCurrent.cancel();
+        mCurrent = Cancellable.NONE;
+    }
+}
@@ -0,0 +1,24 @@
+package edu.uw.group1app.io;
+
+import org.json.JSONException;
+
+import java.io.IOException;
+
+/**
+ * Turns the raw bytes of a web service response into a domain object.
+ *
+ * @param <T> the type the response is decoded into
+ */
+public interface ResponseDecoder<T> {
+
+    /**
+     * Decode a response body.
+     *
+     * @param data the response body
+     * @param charset the charset named by the response headers
+     * @return the decoded object
+     * @throws IOException when the body cannot be read in the given charset
+     * @throws JSONException when the body is not the JSON this decoder expects
+     */
+    T decode(byte[] data, String charset) throws IOException, JSONException;
+}
@@ -0,0 +1,25 @@
+package edu.uw.group1app.io;
+
+/**
+ * Sends an {@link ApiCall} to the web service and reports the decoded result back to the
+ * call's listeners. ApiClient only builds calls, so a different Transport can point the
+ * whole client at a local stand-in server or a benchmark harness.
+ */
+public interface Transport {
+
+    /**
+     * Send a call. The result must be delivered to exactly one of the call's listeners.
+     *
+     * @param call the call to send
+     * @param <T> the type the response is decoded into
+     */
+    <T> void send(ApiCall<T> call);
+
+    /**
+     * Cancel every call sent with a tag that has not been delivered yet. A cancelled call
+     * reports to neither of its listeners. Must be called on the main thread.
+     *
+     * @param tag the tag the calls were built with
+     */
+    void cancelAll(Object tag);
+}
@@ -0,0 +1,49 @@
+package edu.uw.group1app.io;
+
+import android.content.Context;
+
+import com.android.volley.DefaultRetryPolicy;
+
+/**
+ * Transport that sends calls through the shared {@link RequestQueueSingleton}.
+ */
+public class VolleyTransport implements Transport {
+
+    /**
+     * Socket timeout for every call to the web service.
+     */
+    private static final int TIMEOUT_MS = 10_000;
+
+    private final Context mContext;
+
+    /**
+     * Constructor for VolleyTransport
+     *
+     * @param context any context, only the application context is kept
+     */
+    public VolleyTransport(final Context context) {
+        mContext = context.getApplicationContext();
+    }
+
+    @Override
+    public <T> void send(final ApiCall<T> call) {
+        ApiRequest<T> request = new ApiRequest<>(call);
+        // Volley resends a call that timed out, which could carry out a POST twice
+        request.setRetryPolicy(new DefaultRetryPolicy(
+                TIMEOUT_MS,
+                OutboxRetry.isIdempotent(call.getMethod())
+                        ? DefaultRetryPolicy.DEFAULT_MAX_RETRIES : 0,
+                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
+        if (call.getTag() != null) {
+            request.setTag(call.getTag());
+        }
+        RequestQueueSingleton.getInstance(mContext).addToRequestQueue(request);
+    }
+
+    @Override
+    public void cancelAll(final Object tag) {
+        // Volley checks for cancellation on the main thread right before delivering, so
+        // nothing cancelled here can still reach a listener
+        RequestQueueSingleton.getInstance(mContext).getmRequestQueue().cancelAll(tag);
+    }
+}
@@ -7,10 +7,14 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.Navigation;
+import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+
+import java.util.ArrayList;
+
 import edu.uw.group1app.MainActivity;
 import edu.uw.group1app.R;
 import edu.uw.group1app.databinding.FragmentChatBinding;
@@ -24,6 +28,11 @@ import edu.uw.group1app.model.UserInfoViewModel;
  */
 
 public class ChatFragment extends Fragment {
+    /**
+     * how close to either end of the list, in rows, the next page is requested
+     */
+    private static final int PREFETCH_DISTANCE = 5;
+
     /**
      * a chat id
      */
@@ -87,38 +96,81 @@ public class ChatFragment extends Fragment {
         binding.swipeContainer.setRefreshing(true);
 
         final RecyclerView rv = binding.recyclerMessages;
-        //Set the Adapter to hold a reference to the list FOR THIS chat ID that the ViewModel
-        //holds.
-        rv.setAdapter(new ChatRecyclerViewAdapter(
-                mChatModel.getMessageListByChatId(mChatID),
-                mUserModel.getEmail()));
+        final ChatRecyclerViewAdapter adapter =
+                new ChatRecyclerViewAdapter(mUserModel.getEmail());
+        rv.setAdapter(adapter);
 
 
         //When the user scrolls to the top of the RV, the swiper list will "refresh"
         //The user is out of messages, go out to the service and get more
         binding.swipeContainer.setOnRefreshListener(() -> {
-            mChatModel.getNextMessages(mChatID, mUserModel.getmJwt());
+            if (!mChatModel.getNextMessages(mChatID, mUserModel.getmJwt())) {
+                //already loading, or there is nothing older
+                binding.swipeContainer.setRefreshing(false);
+            }
+        });
+
+        //Ask for the next page before the user actually reaches either end of the list
+        final LinearLayoutManager layoutManager = (LinearLayoutManager) rv.getLayoutManager();
+        rv.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy < 0 && layoutManager.findFirstVisibleItemPosition()
+                        <= PREFETCH_DISTANCE) {
+                    mChatModel.getNextMessages(mChatID, mUserModel.getmJwt());
+                } else if (dy > 0 && layoutManager.findLastVisibleItemPosition()
+                        >= adapter.getItemCount() - 1 - PREFETCH_DISTANCE) {
+                    mChatModel.getNewerMessages(mChatID);
+                }
+            }
         });
 
         mChatModel.addMessageObserver(mChatID, getViewLifecycleOwner(),
                 list -> {
-                    /*
-                     * This solution needs work on the scroll position. As a group,
-                     * you will need to come up with some solution to manage the
-                     * recyclerview scroll position. You also should consider a
-                     * solution for when the keyboard is on the screen.
-                     */
-                    //inform the RV that the underlying list has (possibly) changed
-                    rv.getAdapter().notifyDataSetChanged();
-                    rv.scrollToPosition(rv.getAdapter().getItemCount() - 1);
+                    //Only follow the conversation down when the user was at the bottom and
+                    //the last message changed, not when pages were added or dropped.
+                    //Pending messages have ids below zero, so compare ids for equality.
+                    final int count = adapter.getItemCount();
+                    final boolean newer = !list.isEmpty()
+                            && (count == 0
+                            || (layoutManager.findLastVisibleItemPosition() >= count - 1
+                            && adapter.getItemId(count - 1)
+                            != list.get(list.size() - 1).getMessageId()));
+                    //The ViewModel keeps changing its list, so hand the adapter a snapshot
+                    adapter.submitList(new ArrayList<>(list), () -> {
+                        if (newer) {
+                            rv.scrollToPosition(adapter.getItemCount() - 1);
+                        }
+                    });
                     binding.swipeContainer.setRefreshing(false);
                 });
 
-        //Send button was clicked. Send the message via the SendViewModel
+        //Send button was clicked. Send the message via the SendViewModel, which shows it as
+        //pending right away, so the edittext can be cleared without waiting on the server
         binding.buttonSend.setOnClickListener(button -> {
-            mSendModel.sendMessage(mChatID,
+            final String message = binding.editMessage.getText().toString();
+            if (message.trim().isEmpty()) {
+                return;
+            }
+            mSendModel.sendMessage(mChatModel,
+                    mChatID,
                     mUserModel.getmJwt(),
-                    binding.editMessage.getText().toString());
+                    mUserModel.getEmail(),
+                    message);
+            binding.editMessage.setText("");
+        });
+
+        //A message that may not have reached the server is not sent again on its own, so
+        //hand it back to the user to send again
+        mSendModel.addUnsentObserver(getViewLifecycleOwner(), unsent -> {
+            if (unsent == null) {
+                return;
+            }
+            if (binding.editMessage.getText().toString().isEmpty()) {
+                binding.editMessage.setText(unsent);
+            }
+            binding.editMessage.setError("Message not sent. Tap send to try again.");
+            mSendModel.clearUnsent();
         });
 
         binding.buttonAdd.setOnClickListener(button ->
@@ -126,10 +178,6 @@ public class ChatFragment extends Fragment {
                     ChatFragmentDirections.actionChatFragmentToContactListFragment(mChatID, true)
         ));
 
-        //when we get the response back from the server, clear the edittext
-        mSendModel.addResponseObserver(getViewLifecycleOwner(), response ->
-                binding.editMessage.setText(""));
-
     }
 
     /**
@@ -83,6 +83,16 @@ public class ChatListFragment extends Fragment {
         mChatListModel.addChatListObserver(getViewLifecycleOwner(), chatRoomList -> {
             chatListRecyclerViewAdapter.setChatRooms(chatRoomList);
         });
+
+        //a chat room that may not have been created is not asked for again on its own
+        mChatListModel.addNotCreatedObserver(getViewLifecycleOwner(), name -> {
+            if (name == null) {
+                return;
+            }
+            binding.textChatTitle.setText(name);
+            binding.textChatTitle.setError("Chat room not created. Please try again.");
+            mChatListModel.clearNotCreated();
+        });
     }
 
     /**
@@ -14,6 +14,7 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import org.json.JSONException;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import edu.uw.group1app.R;
@@ -37,7 +38,7 @@ public class ChatListRecyclerViewAdapter extends RecyclerView.Adapter<ChatListRe
      * Constructor that builds the recycler view adapter from
      */
     public ChatListRecyclerViewAdapter(List<ChatRoom> chats, ChatListFragment parent) {
-        this.mChatRooms = chats;
+        this.mChatRooms = new ArrayList<>(chats);
         this.mParent = parent;
     }
 
@@ -108,7 +109,8 @@ public class ChatListRecyclerViewAdapter extends RecyclerView.Adapter<ChatListRe
      * @param rooms representing list of chat rooms
      */
     public void setChatRooms(List<ChatRoom> rooms){
-        mChatRooms = rooms;
+        //the rooms handed in are read only, keep a copy deletChat() can remove from
+        mChatRooms = new ArrayList<>(rooms);
         notifyDataSetChanged();
     }
 }
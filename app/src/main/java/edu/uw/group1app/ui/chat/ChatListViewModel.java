@@ -9,23 +9,14 @@ import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Observer;
 
-import com.android.volley.DefaultRetryPolicy;
-import com.android.volley.Request;
 import com.android.volley.VolleyError;
-import com.android.volley.toolbox.JsonObjectRequest;
-import com.android.volley.toolbox.Volley;
 
-import org.json.JSONArray;
-import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
-import edu.uw.group1app.R;
-import edu.uw.group1app.io.RequestQueueSingleton;
+import edu.uw.group1app.io.ApiClient;
 import edu.uw.group1app.model.UserInfoViewModel;
 
 /**
@@ -38,6 +29,10 @@ public class ChatListViewModel extends AndroidViewModel {
 
     private MutableLiveData<List<ChatRoom>> mChatRoomList;
     private final MutableLiveData<JSONObject> mResponse;
+    /**
+     * The name of the last chat room that could not be created, or null once it is handled.
+     */
+    private final MutableLiveData<String> mNotCreated;
     private UserInfoViewModel userInfoViewModel;
 
     /**
@@ -50,6 +45,7 @@ public class ChatListViewModel extends AndroidViewModel {
         mChatRoomList = new MutableLiveData<>(new ArrayList<>());
         mResponse = new MutableLiveData<>();
         mResponse.setValue(new JSONObject());
+        mNotCreated = new MutableLiveData<>();
     }
 
     /**
@@ -72,56 +68,29 @@ public class ChatListViewModel extends AndroidViewModel {
     }
 
     /**
-     * connect to backend server to get current chat list of the user
+     * Observe the names of chat rooms that could not be created, so the user can try again.
+     * Call clearNotCreated once one has been shown.
      *
-     * @param jwt JWT Authorization Token
+     * @param owner    LifecycleOwner object.
+     * @param observer Observer object of type String.
      */
-    public void connectGet(String jwt) {
-        String url = "https://mobileapp-group-backend.herokuapp.com/chatrooms";
-        Request request = new JsonObjectRequest(
-                Request.Method.GET,
-                url,
-                null, // no body
-                this::handleSuccess,
-                this::handleError
-        ) {
-            @Override
-            public Map<String, String> getHeaders() {
-                Map<String, String> headers = new HashMap<>();
-                headers.put("Authorization", jwt);
-                return headers;
-            }
-        };
-        request.setRetryPolicy(new DefaultRetryPolicy(
-                10_000,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
-        //Instantiate the RequestQueue and add the request to the queue
-        Volley.newRequestQueue(getApplication().getApplicationContext())
-                .add(request);
+    public void addNotCreatedObserver(@NonNull LifecycleOwner owner,
+                                      @NonNull Observer<? super String> observer) {
+        mNotCreated.observe(owner, observer);
+    }
+
+    public void clearNotCreated() {
+        mNotCreated.setValue(null);
     }
 
     /**
-     * handle a success connection to the back-end
+     * connect to backend server to get current chat list of the user
      *
-     * @param result result
+     * @param jwt JWT Authorization Token
      */
-    private void handleSuccess(final JSONObject result) {
-        ArrayList<ChatRoom> temp = new ArrayList<>();
-        try {
-            JSONArray chats = result.getJSONArray("chats");
-            for (int i = 0; i < chats.length(); i++) {
-                JSONObject chat = chats.getJSONObject(i);
-                int chatid = chat.getInt("chat");
-                String chatTitle = chat.getString("name");
-                ChatRoom post = new ChatRoom(chatid, chatTitle);
-                temp.add(post);
-            }
-        } catch (JSONException e) {
-            Log.e("JSON PARSE ERROR", "Found in handle Success ChatViewModel");
-            Log.e("JSON PARSE ERROR", "Error: " + e.getMessage());
-        }
-        mChatRoomList.setValue(temp);
+    public void connectGet(String jwt) {
+        ApiClient.getInstance(getApplication())
+                .getChatRooms(jwt, mChatRoomList::setValue, this::handleError);
     }
 
     /**
@@ -130,28 +99,9 @@ public class ChatListViewModel extends AndroidViewModel {
      * @param chatId representing chat id
      */
     public void deleteChat(final int chatId) {
-        String url = "https://mobileapp-group-backend.herokuapp.com/chats/"
-                + chatId + "/" + userInfoViewModel.getEmail();
-
-        Request request = new JsonObjectRequest(
-                Request.Method.DELETE,
-                url,
-                null,
-                mResponse::setValue,
-                this::handleError) {
-            @Override
-            public Map<String, String> getHeaders() {
-                Map<String, String> headers = new HashMap<>();
-                headers.put("Authorization", userInfoViewModel.getmJwt());
-                return headers;
-            }
-        };
-        request.setRetryPolicy(new DefaultRetryPolicy(
-                10_000,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT
-        ));
-        Volley.newRequestQueue(getApplication().getApplicationContext()).add(request);
+        ApiClient.getInstance(getApplication())
+                .deleteChat(userInfoViewModel.getmJwt(), chatId, userInfoViewModel.getEmail(),
+                        mResponse::setValue, this::handleError);
     }
 
     /***
@@ -161,51 +111,22 @@ public class ChatListViewModel extends AndroidViewModel {
      * @param name representing user name
      */
     public void addChat(final String jwt, final String name) {
-        String url = getApplication().getResources().getString(R.string.base_url) + "chats";
-
-        JSONObject body = new JSONObject();
-        try {
-            body.put("name", name);
-        } catch (JSONException e) {
-            e.printStackTrace();
-        }
-        Request request = new JsonObjectRequest(
-                Request.Method.POST,
-                url,
-                body, //push token found in the JSONObject body
-                response -> handleAddChat(jwt, response),
-                this::handleError) {
-            @Override
-            public Map<String, String> getHeaders() {
-                Map<String, String> headers = new HashMap<>();
-                // add headers <key,value>
-                headers.put("Authorization", jwt);
-                return headers;
-            }
-        };
-        request.setRetryPolicy(new DefaultRetryPolicy(
-                10_000,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT
-        ));
-        Volley.newRequestQueue(getApplication().getApplicationContext()).add(request);
+        ApiClient.getInstance(getApplication())
+                .addChat(jwt, name, chatID -> handleAddChat(jwt, chatID), error -> {
+                    mNotCreated.setValue(name);
+                    handleError(error);
+                });
     }
 
     /**
-     * handle error add chat and updates chat list
+     * handle add chat and updates chat list
      *
      * @param jwt JWT Authorization Token
-     * @param response json response
+     * @param chatID the id of the new chat room
      */
-    private void handleAddChat(final String jwt, final JSONObject response) {
-        try {
-            int chatID = response.getInt("chatID");
-            putMembers(jwt, chatID);
-            connectGet(jwt);
-        } catch (JSONException e) {
-            Log.e("JSON PARSE ERROR", "Found in handle Success ChatViewModel");
-            Log.e("JSON PARSE ERROR", "Error: " + e.getMessage());
-        }
+    private void handleAddChat(final String jwt, final int chatID) {
+        putMembers(jwt, chatID);
+        connectGet(jwt);
     }
 
     /**
@@ -215,38 +136,8 @@ public class ChatListViewModel extends AndroidViewModel {
      * @param chatID representing chat id
      */
     public void putMembers(final String jwt, int chatID) {
-        String url = "https://mobileapp-group-backend.herokuapp.com/chats/" + chatID;
-        System.out.println("Adding Members");
-        JSONObject body = new JSONObject();
-        try {
-            body.put("chatid", chatID);
-        } catch (JSONException e) {
-            e.printStackTrace();
-        }
-        System.out.println(body.toString());
-
-        Request request = new JsonObjectRequest(
-                Request.Method.PUT,
-                url,
-                body, //push token found in the JSONObject body
-                mResponse::setValue,
-                this::handleError) {
-
-            @Override
-            public Map<String, String> getHeaders() {
-                Map<String, String> headers = new HashMap<>();
-                // add headers <key,value>
-                headers.put("Authorization", jwt);
-                return headers;
-            }
-        };
-
-        request.setRetryPolicy(new DefaultRetryPolicy(
-                10_000,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
-        RequestQueueSingleton.getInstance(getApplication().getApplicationContext())
-                .addToRequestQueue(request);
+        ApiClient.getInstance(getApplication())
+                .putMembers(jwt, chatID, mResponse::setValue, this::handleError);
     }
 
 
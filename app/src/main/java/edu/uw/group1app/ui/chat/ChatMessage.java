@@ -1,20 +1,15 @@
 package edu.uw.group1app.ui.chat;
 
-import android.os.Bundle;
+import android.util.JsonReader;
+import android.util.JsonToken;
 
 import androidx.annotation.Nullable;
-import androidx.fragment.app.Fragment;
-
-import android.view.LayoutInflater;
-import android.view.View;
-import android.view.ViewGroup;
 
 import org.json.JSONException;
-import org.json.JSONObject;
 
+import java.io.IOException;
 import java.io.Serializable;
-
-import edu.uw.group1app.R;
+import java.io.StringReader;
 
 /**
  * It provides message information.
@@ -69,11 +64,59 @@ public final class ChatMessage implements Serializable {
      * @throws JSONException when cmAsString cannot be parsed into a ChatMessage.
      */
     public static ChatMessage createFromJsonString(final String cmAsJson) throws JSONException {
-        final JSONObject msg = new JSONObject(cmAsJson);
-        return new ChatMessage(msg.getInt("messageid"),
-                msg.getString("message"),
-                msg.getString("email"),
-                msg.getString("timestamp"));
+        try (JsonReader reader = new JsonReader(new StringReader(cmAsJson))) {
+            return read(reader);
+        } catch (IOException | RuntimeException e) {
+            throw new JSONException("Could not parse ChatMessage: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Read the next JSON object from a pull parser as a ChatMessage. Unknown fields are
+     * skipped.
+     *
+     * @param reader a reader positioned at the start of a message object
+     * @return the message
+     * @throws IOException when the reader fails or a required field is missing
+     */
+    static ChatMessage read(final JsonReader reader) throws IOException {
+        int messageId = 0;
+        String message = null;
+        String sender = null;
+        String timeStamp = null;
+        boolean hasId = false;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "messageid":
+                    messageId = reader.nextInt();
+                    hasId = true;
+                    break;
+                case "message":
+                    message = reader.nextString();
+                    break;
+                case "email":
+                    sender = reader.nextString();
+                    break;
+                case "timestamp":
+                    timeStamp = reader.nextString();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (!hasId || message == null || sender == null || timeStamp == null) {
+            throw new IOException("ChatMessage is missing a required field");
+        }
+        return new ChatMessage(messageId, message, sender, timeStamp);
     }
 
     /**
@@ -112,6 +155,17 @@ public final class ChatMessage implements Serializable {
         return mMessageId;
     }
 
+    /**
+     * it returns whether the message was sent by this user and the web service has not
+     * confirmed it yet. Such messages carry an id below zero, which the web service
+     * never uses.
+     *
+     * @return true if the message is pending
+     */
+    public boolean isPending() {
+        return mMessageId < 0;
+    }
+
     /**
      * Provides equality solely based on MessageId.
      *
@@ -126,4 +180,14 @@ public final class ChatMessage implements Serializable {
         }
         return result;
     }
+
+    /**
+     * Hash code matching equals(), based solely on MessageId.
+     *
+     * @return the message id
+     */
+    @Override
+    public int hashCode() {
+        return mMessageId;
+    }
 }
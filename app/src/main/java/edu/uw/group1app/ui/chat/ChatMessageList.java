@@ -0,0 +1,270 @@
+package edu.uw.group1app.ui.chat;
+
+import androidx.annotation.Nullable;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The known messages of one chat room, kept in message id order (oldest first) with
+ * no duplicates. Lookups by message id go through a primitive int index instead of
+ * walking the list. Messages the user has sent that the web service has not confirmed yet
+ * come after them, in the order they were sent, until they are swapped for the sent copy.
+ *
+ * The list can be read like any other List, but can only be changed with insert(),
+ * insertAll(), the pending methods, the trim methods and clear(). Nothing here depends on
+ * the Android framework, so it runs in local unit tests.
+ */
+public final class ChatMessageList extends AbstractList<ChatMessage> implements RandomAccess {
+
+    private static final Comparator<ChatMessage> BY_MESSAGE_ID =
+            (a, b) -> Integer.compare(a.getMessageId(), b.getMessageId());
+
+    /**
+     * messages sorted by message id
+     */
+    private ArrayList<ChatMessage> mMessages;
+
+    /**
+     * the same messages keyed by message id
+     */
+    private final MessageIdIndex mById;
+
+    /**
+     * messages waiting on the web service, oldest first
+     */
+    private final ArrayList<ChatMessage> mPending;
+
+    /**
+     * Constructor for an empty ChatMessageList
+     */
+    public ChatMessageList() {
+        mMessages = new ArrayList<>();
+        mById = new MessageIdIndex();
+        mPending = new ArrayList<>();
+    }
+
+    @Override
+    public ChatMessage get(final int index) {
+        int sent = mMessages.size();
+        return index < sent ? mMessages.get(index) : mPending.get(index - sent);
+    }
+
+    @Override
+    public int size() {
+        return mMessages.size() + mPending.size();
+    }
+
+    /**
+     * it returns the oldest message the web service has confirmed
+     *
+     * @return the message, or null if the list holds none
+     */
+    @Nullable
+    public ChatMessage getOldestSent() {
+        return mMessages.isEmpty() ? null : mMessages.get(0);
+    }
+
+    /**
+     * it returns the newest message the web service has confirmed
+     *
+     * @return the message, or null if the list holds none
+     */
+    @Nullable
+    public ChatMessage getNewestSent() {
+        return mMessages.isEmpty() ? null : mMessages.get(mMessages.size() - 1);
+    }
+
+    @Override
+    public boolean contains(@Nullable final Object other) {
+        return other instanceof ChatMessage
+                && containsId(((ChatMessage) other).getMessageId());
+    }
+
+    /**
+     * it returns whether a message with this id is in the list
+     *
+     * @param messageId the message id
+     * @return true if the list holds the message
+     */
+    public boolean containsId(final int messageId) {
+        return mById.containsKey(messageId);
+    }
+
+    /**
+     * it returns the message with this id
+     *
+     * @param messageId the message id
+     * @return the message, or null if the list does not hold it
+     */
+    @Nullable
+    public ChatMessage findById(final int messageId) {
+        return mById.get(messageId);
+    }
+
+    /**
+     * Add one message at its place in message id order.
+     *
+     * @param message the message to add
+     * @return false if the list already held a message with the same id
+     */
+    public boolean insert(final ChatMessage message) {
+        return insertAll(Collections.singletonList(message)) > 0;
+    }
+
+    /**
+     * Add a batch of messages in any order. Messages already in the list are skipped.
+     * A batch that is all newer or all older than the list is added to that end in one
+     * step; otherwise the two sorted runs are merged.
+     *
+     * @param messages the messages to add
+     * @return how many messages were actually added
+     */
+    public int insertAll(final Collection<ChatMessage> messages) {
+        ArrayList<ChatMessage> fresh = new ArrayList<>(messages.size());
+        for (ChatMessage message : messages) {
+            if (mById.putIfAbsent(message.getMessageId(), message)) {
+                fresh.add(message);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return 0;
+        }
+        Collections.sort(fresh, BY_MESSAGE_ID);
+
+        if (mMessages.isEmpty() || first(fresh) > last(mMessages)) {
+            mMessages.addAll(fresh);
+        } else if (last(fresh) < first(mMessages)) {
+            mMessages.addAll(0, fresh);
+        } else {
+            mMessages = merge(mMessages, fresh);
+        }
+        modCount++;
+        return fresh.size();
+    }
+
+    /**
+     * Add a message the user has just sent, after every other message.
+     *
+     * @param message the message, with a pending id
+     */
+    public void addPending(final ChatMessage message) {
+        mPending.add(message);
+        modCount++;
+    }
+
+    /**
+     * Drop a pending message, e.g. once its sent copy is known.
+     *
+     * @param pendingId the pending id it was added with
+     * @return false if the list held no such message
+     */
+    public boolean removePending(final int pendingId) {
+        for (int i = 0; i < mPending.size(); i++) {
+            if (mPending.get(i).getMessageId() == pendingId) {
+                mPending.remove(i);
+                modCount++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drop the oldest pending message with this sender and text, e.g. when the copy the
+     * web service pushed back arrives before the answer to the send.
+     *
+     * @param sent the sent copy
+     * @return false if the list held no such message
+     */
+    public boolean removePendingCopyOf(final ChatMessage sent) {
+        for (int i = 0; i < mPending.size(); i++) {
+            ChatMessage pending = mPending.get(i);
+            if (pending.getSender().equals(sent.getSender())
+                    && pending.getMessage().equals(sent.getMessage())) {
+                mPending.remove(i);
+                modCount++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drop the newest messages until at most max are left. Pending messages are kept.
+     *
+     * @param max how many messages to keep
+     * @return how many messages were dropped
+     */
+    public int trimNewest(final int max) {
+        int extra = mMessages.size() - max;
+        if (extra <= 0) {
+            return 0;
+        }
+        List<ChatMessage> dropped = mMessages.subList(max, mMessages.size());
+        for (ChatMessage message : dropped) {
+            mById.remove(message.getMessageId());
+        }
+        dropped.clear();
+        modCount++;
+        return extra;
+    }
+
+    /**
+     * Drop the oldest messages until at most max are left. Pending messages are kept.
+     *
+     * @param max how many messages to keep
+     * @return how many messages were dropped
+     */
+    public int trimOldest(final int max) {
+        int extra = mMessages.size() - max;
+        if (extra <= 0) {
+            return 0;
+        }
+        List<ChatMessage> dropped = mMessages.subList(0, extra);
+        for (ChatMessage message : dropped) {
+            mById.remove(message.getMessageId());
+        }
+        dropped.clear();
+        modCount++;
+        return extra;
+    }
+
+    @Override
+    public void clear() {
+        mMessages.clear();
+        mById.clear();
+        mPending.clear();
+        modCount++;
+    }
+
+    private static ArrayList<ChatMessage> merge(final List<ChatMessage> a,
+                                                final List<ChatMessage> b) {
+        ArrayList<ChatMessage> result = new ArrayList<>(a.size() + b.size());
+        int i = 0;
+        int j = 0;
+        while (i < a.size() && j < b.size()) {
+            if (a.get(i).getMessageId() < b.get(j).getMessageId()) {
+                result.add(a.get(i++));
+            } else {
+                result.add(b.get(j++));
+            }
+        }
+        result.addAll(a.subList(i, a.size()));
+        result.addAll(b.subList(j, b.size()));
+        return result;
+    }
+
+    private static int first(final List<ChatMessage> list) {
+        return list.get(0).getMessageId();
+    }
+
+    private static int last(final List<ChatMessage> list) {
+        return list.get(list.size() - 1).getMessageId();
+    }
+}
@@ -0,0 +1,315 @@
+package edu.uw.group1app.ui.chat;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+import androidx.annotation.WorkerThread;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * On-device store of chat messages keyed by chat id and message id, so a chat room can be
+ * drawn from disk before the web service answers.
+ *
+ * Alongside the messages the store keeps the id ranges it holds in full, one row per run
+ * of history fetched page by page from the web service. A message saved on its own, such
+ * as one pushed to the device, is stored but covers no range, so the store never mistakes
+ * a hole below it for history it already has.
+ *
+ * All methods touch the disk and must be called off the main thread, on the executor from
+ * getDiskExecutor() so reads and writes from every caller happen in order.
+ */
+public final class ChatMessageStore extends SQLiteOpenHelper {
+
+    private static final String DATABASE_NAME = "chat_messages.db";
+    private static final int DATABASE_VERSION = 2;
+
+    private static final String TABLE = "messages";
+    private static final String COL_CHAT_ID = "chat_id";
+    private static final String COL_MESSAGE_ID = "message_id";
+    private static final String COL_MESSAGE = "message";
+    private static final String COL_SENDER = "sender";
+    private static final String COL_TIMESTAMP = "timestamp";
+
+    private static final String RANGE_TABLE = "synced_ranges";
+    private static final String COL_LOW = "low";
+    private static final String COL_HIGH = "high";
+
+    private static final String[] COLUMNS =
+            {COL_MESSAGE_ID, COL_MESSAGE, COL_SENDER, COL_TIMESTAMP};
+
+    private static ChatMessageStore instance;
+
+    /**
+     * Runs every read and write against this store, in order, off the main thread.
+     */
+    private final ExecutorService mDiskExecutor;
+
+    private ChatMessageStore(final Context context) {
+        super(context.getApplicationContext(), DATABASE_NAME, null, DATABASE_VERSION);
+        mDiskExecutor = Executors.newSingleThreadExecutor();
+    }
+
+    public static synchronized ChatMessageStore getInstance(final Context context) {
+        if (instance == null) {
+            instance = new ChatMessageStore(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Get the executor every read and write against this store should run on, so a clear
+     * on sign out cannot be overtaken by a write queued before it.
+     *
+     * @return the store's single disk thread
+     */
+    public Executor getDiskExecutor() {
+        return mDiskExecutor;
+    }
+
+    @Override
+    public void onCreate(final SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE + " ("
+                + COL_CHAT_ID + " INTEGER NOT NULL, "
+                + COL_MESSAGE_ID + " INTEGER NOT NULL, "
+                + COL_MESSAGE + " TEXT NOT NULL, "
+                + COL_SENDER + " TEXT NOT NULL, "
+                + COL_TIMESTAMP + " TEXT NOT NULL, "
+                + "PRIMARY KEY (" + COL_CHAT_ID + ", " + COL_MESSAGE_ID + "))");
+        db.execSQL("CREATE TABLE " + RANGE_TABLE + " ("
+                + COL_CHAT_ID + " INTEGER NOT NULL, "
+                + COL_LOW + " INTEGER NOT NULL, "
+                + COL_HIGH + " INTEGER NOT NULL, "
+                + "PRIMARY KEY (" + COL_CHAT_ID + ", " + COL_LOW + "))");
+    }
+
+    @Override
+    public void onUpgrade(final SQLiteDatabase db, final int oldVersion, final int newVersion) {
+        // The store is only a cache of the web service, so it is safe to rebuild it.
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE);
+        db.execSQL("DROP TABLE IF EXISTS " + RANGE_TABLE);
+        onCreate(db);
+    }
+
+    /**
+     * Save messages for a chat room without marking any range as held in full, e.g. a
+     * message pushed to the device. Messages already stored are replaced.
+     *
+     * @param chatId the chat room the messages belong to
+     * @param messages the messages to save
+     */
+    @WorkerThread
+    public void insert(final int chatId, final List<ChatMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            write(db, chatId, messages);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Save a page of history and record that the store now holds every message of the
+     * chat room with an id from low to high. The range is joined with any stored range it
+     * overlaps or touches.
+     *
+     * @param chatId the chat room the messages belong to
+     * @param messages the messages of the page
+     * @param low the lowest id the page is complete from
+     * @param high the highest id the page is complete to
+     * @return true if the store already held the messages right below low, i.e. the range
+     * joined history synced before it
+     */
+    @WorkerThread
+    public boolean insertSynced(final int chatId, final List<ChatMessage> messages,
+                                final int low, final int high) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            write(db, chatId, messages);
+            long joinedLow = low;
+            long joinedHigh = high;
+            // ranges that overlap [low, high] or sit right next to it
+            String where = COL_CHAT_ID + " = ? AND "
+                    + COL_LOW + " <= ? AND " + COL_HIGH + " >= ?";
+            String[] args = {String.valueOf(chatId),
+                    String.valueOf((long) high + 1),
+                    String.valueOf((long) low - 1)};
+            try (Cursor cursor = db.query(RANGE_TABLE, new String[]{COL_LOW, COL_HIGH},
+                    where, args, null, null, null)) {
+                while (cursor.moveToNext()) {
+                    joinedLow = Math.min(joinedLow, cursor.getLong(0));
+                    joinedHigh = Math.max(joinedHigh, cursor.getLong(1));
+                }
+            }
+            db.delete(RANGE_TABLE, where, args);
+            ContentValues range = new ContentValues();
+            range.put(COL_CHAT_ID, chatId);
+            range.put(COL_LOW, joinedLow);
+            range.put(COL_HIGH, joinedHigh);
+            db.insertOrThrow(RANGE_TABLE, null, range);
+            db.setTransactionSuccessful();
+            return joinedLow < low;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Load the newest messages of a chat room.
+     *
+     * @param chatId the chat room
+     * @param limit the most messages to return
+     * @return the messages, oldest first
+     */
+    @WorkerThread
+    public List<ChatMessage> loadLatest(final int chatId, final int limit) {
+        return query(COL_CHAT_ID + " = ?",
+                new String[]{String.valueOf(chatId)},
+                limit);
+    }
+
+    /**
+     * Load the messages of a chat room right before a given message. Only the range held in
+     * full that reaches up to the message is read, so nothing the store is missing is
+     * skipped over.
+     *
+     * @param chatId the chat room
+     * @param beforeMessageId only messages with a smaller id are returned
+     * @param limit the most messages to return
+     * @return the messages, oldest first, or an empty list if the store does not hold the
+     * messages right before this one
+     */
+    @WorkerThread
+    public List<ChatMessage> loadBefore(final int chatId, final int beforeMessageId,
+                                        final int limit) {
+        String below = String.valueOf((long) beforeMessageId - 1);
+        long low;
+        try (Cursor cursor = getReadableDatabase().query(RANGE_TABLE, new String[]{COL_LOW},
+                COL_CHAT_ID + " = ? AND " + COL_LOW + " <= ? AND " + COL_HIGH + " >= ?",
+                new String[]{String.valueOf(chatId), below, below},
+                null, null, null)) {
+            if (!cursor.moveToFirst()) {
+                return new ArrayList<>();
+            }
+            low = cursor.getLong(0);
+        }
+        return query(COL_CHAT_ID + " = ? AND " + COL_MESSAGE_ID + " >= ? AND "
+                        + COL_MESSAGE_ID + " < ?",
+                new String[]{String.valueOf(chatId), String.valueOf(low),
+                        String.valueOf(beforeMessageId)},
+                limit);
+    }
+
+    /**
+     * Load the messages of a chat room newer than a given message.
+     *
+     * @param chatId the chat room
+     * @param afterMessageId only messages with a larger id are returned
+     * @param limit the most messages to return
+     * @return the messages, oldest first
+     */
+    @WorkerThread
+    public List<ChatMessage> loadAfter(final int chatId, final int afterMessageId,
+                                       final int limit) {
+        List<ChatMessage> result = new ArrayList<>();
+        try (Cursor cursor = getReadableDatabase().query(TABLE, COLUMNS,
+                COL_CHAT_ID + " = ? AND " + COL_MESSAGE_ID + " > ?",
+                new String[]{String.valueOf(chatId), String.valueOf(afterMessageId)},
+                null, null, COL_MESSAGE_ID + " ASC", String.valueOf(limit))) {
+            while (cursor.moveToNext()) {
+                result.add(read(cursor));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get whether any history of a chat room has been synced page by page.
+     *
+     * @param chatId the chat room
+     * @return true if the store holds at least one range in full
+     */
+    @WorkerThread
+    public boolean hasSyncedRange(final int chatId) {
+        try (Cursor cursor = getReadableDatabase().query(RANGE_TABLE, new String[]{COL_LOW},
+                COL_CHAT_ID + " = ?", new String[]{String.valueOf(chatId)},
+                null, null, null, "1")) {
+            return cursor.moveToFirst();
+        }
+    }
+
+    /**
+     * Remove every stored message, e.g. when the user signs out.
+     */
+    @WorkerThread
+    public void clear() {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(TABLE, null, null);
+            db.delete(RANGE_TABLE, null, null);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static void write(final SQLiteDatabase db, final int chatId,
+                              final List<ChatMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        SQLiteStatement statement = db.compileStatement("INSERT OR REPLACE INTO " + TABLE
+                + " (" + COL_CHAT_ID + ", " + COL_MESSAGE_ID + ", " + COL_MESSAGE + ", "
+                + COL_SENDER + ", " + COL_TIMESTAMP + ") VALUES (?, ?, ?, ?, ?)");
+        try {
+            for (ChatMessage message : messages) {
+                statement.clearBindings();
+                statement.bindLong(1, chatId);
+                statement.bindLong(2, message.getMessageId());
+                statement.bindString(3, message.getMessage());
+                statement.bindString(4, message.getSender());
+                statement.bindString(5, message.getTimeStamp());
+                statement.executeInsert();
+            }
+        } finally {
+            statement.close();
+        }
+    }
+
+    private List<ChatMessage> query(final String selection, final String[] args,
+                                    final int limit) {
+        List<ChatMessage> result = new ArrayList<>();
+        try (Cursor cursor = getReadableDatabase().query(TABLE, COLUMNS, selection, args,
+                null, null, COL_MESSAGE_ID + " DESC", String.valueOf(limit))) {
+            while (cursor.moveToNext()) {
+                result.add(read(cursor));
+            }
+        }
+        // newest first from the query, the chat list is drawn oldest first
+        Collections.reverse(result);
+        return result;
+    }
+
+    private static ChatMessage read(final Cursor cursor) {
+        return new ChatMessage(cursor.getInt(0),
+                cursor.getString(1),
+                cursor.getString(2),
+                cursor.getString(3));
+    }
+}
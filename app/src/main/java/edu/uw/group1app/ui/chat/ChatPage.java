@@ -0,0 +1,99 @@
+package edu.uw.group1app.ui.chat;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of chat history as returned by the messages endpoint.
+ */
+public final class ChatPage {
+
+    /**
+     * chat id the page belongs to
+     */
+    private final int mChatId;
+
+    /**
+     * messages in the order the web service sent them (newest first)
+     */
+    private final List<ChatMessage> mMessages;
+
+    /**
+     * it is constructor.
+     *
+     * @param chatId representing chat id
+     * @param messages representing messages of the page
+     */
+    public ChatPage(final int chatId, final List<ChatMessage> messages) {
+        mChatId = chatId;
+        mMessages = Collections.unmodifiableList(messages);
+    }
+
+    /**
+     * Decode a page straight from the response body with a pull parser. Each row becomes a
+     * ChatMessage as it is read, so no intermediate JSONObject tree is built.
+     *
+     * @param in the response body
+     * @return the decoded page
+     * @throws IOException when the body cannot be read
+     * @throws JSONException when the body has no chatId
+     */
+    public static ChatPage decode(final Reader in) throws IOException, JSONException {
+        int chatId = -1;
+        boolean hasChatId = false;
+        List<ChatMessage> messages = new ArrayList<>();
+
+        try (JsonReader reader = new JsonReader(in)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("chatId".equals(name) && reader.peek() != JsonToken.NULL) {
+                    chatId = reader.nextInt();
+                    hasChatId = true;
+                } else if ("rows".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        messages.add(ChatMessage.read(reader));
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new JSONException("Unexpected response in ChatPage: " + e.getMessage());
+        }
+
+        if (!hasChatId) {
+            throw new JSONException("Unexpected response in ChatPage: no chatId");
+        }
+        return new ChatPage(chatId, messages);
+    }
+
+    /**
+     * it returns chat id
+     *
+     * @return chat id
+     */
+    public int getChatId() {
+        return mChatId;
+    }
+
+    /**
+     * it returns messages of the page, newest first
+     *
+     * @return messages
+     */
+    public List<ChatMessage> getMessages() {
+        return mMessages;
+    }
+}
@@ -9,138 +9,150 @@ import android.widget.FrameLayout;
 
 import androidx.annotation.NonNull;
 import androidx.core.graphics.ColorUtils;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.card.MaterialCardView;
 import com.google.android.material.shape.CornerFamily;
-
-import java.util.List;
+import com.google.android.material.shape.ShapeAppearanceModel;
 
 import edu.uw.group1app.R;
 import edu.uw.group1app.databinding.FragmentChatMessageBinding;
 
 /**
- * This is recylcer view adapter for chat
+ * This is recylcer view adapter for chat. Hand it snapshots of the message list with
+ * submitList(); the difference from the last snapshot is worked out off the main thread
+ * so only the rows that changed are bound again.
  *
  * @author Gyubeom Kim
  * @version 2.0
  */
 
-public class ChatRecyclerViewAdapter extends RecyclerView.Adapter<ChatRecyclerViewAdapter.MessageViewHolder> {
+public class ChatRecyclerViewAdapter
+        extends ListAdapter<ChatMessage, ChatRecyclerViewAdapter.MessageViewHolder> {
+
+    private static final DiffUtil.ItemCallback<ChatMessage> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<ChatMessage>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull ChatMessage oldItem,
+                                               @NonNull ChatMessage newItem) {
+                    return oldItem.getMessageId() == newItem.getMessageId();
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull ChatMessage oldItem,
+                                                  @NonNull ChatMessage newItem) {
+                    return oldItem.getMessage().equals(newItem.getMessage())
+                            && oldItem.getSender().equals(newItem.getSender())
+                            && oldItem.getTimeStamp().equals(newItem.getTimeStamp());
+                }
+            };
+
+    private static final int VIEW_TYPE_MINE = 0;
+    private static final int VIEW_TYPE_THEIRS = 1;
+
+    private static final float PENDING_ALPHA = 0.5f;
 
-    private final List<ChatMessage> mMessages;
     private final String mEmail;
-    public ChatRecyclerViewAdapter(List<ChatMessage> messages, String email) {
-        this.mMessages = messages;
+
+    public ChatRecyclerViewAdapter(String email) {
+        super(DIFF_CALLBACK);
         mEmail = email;
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getMessageId();
     }
 
 
+    @Override
+    public int getItemViewType(int position) {
+        return mEmail.equals(getItem(position).getSender()) ? VIEW_TYPE_MINE : VIEW_TYPE_THEIRS;
+    }
+
     @NonNull
     @Override
     public MessageViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         return new MessageViewHolder(LayoutInflater
                 .from(parent.getContext())
-                .inflate(R.layout.fragment_chat_message, parent, false));
+                .inflate(R.layout.fragment_chat_message, parent, false), viewType);
     }
 
     @Override
     public void onBindViewHolder(@NonNull MessageViewHolder holder, int position) {
-        holder.setMessage(mMessages.get(position));
-    }
-
-    @Override
-    public int getItemCount() {
-        return mMessages.size();
+        holder.setMessage(getItem(position));
     }
 
-    class MessageViewHolder extends RecyclerView.ViewHolder {
-        private final View mView;
-        private FragmentChatMessageBinding binding;
+    /**
+     * Holds one chat bubble. The bubble is styled once for its view type when the holder is
+     * created, so binding a message only has to set its text.
+     */
+    static class MessageViewHolder extends RecyclerView.ViewHolder {
+        private final FragmentChatMessageBinding binding;
+        private final boolean mMine;
 
-        public MessageViewHolder(@NonNull View view) {
+        MessageViewHolder(@NonNull View view, int viewType) {
             super(view);
-            mView = view;
             binding = FragmentChatMessageBinding.bind(view);
-        }
+            mMine = viewType == VIEW_TYPE_MINE;
 
-        void setMessage(final ChatMessage message) {
-            final Resources res = mView.getContext().getResources();
+            final Resources res = view.getContext().getResources();
             final MaterialCardView card = binding.cardRoot;
 
             int standard = (int) res.getDimension(R.dimen.chat_margin);
             int extended = (int) res.getDimension(R.dimen.chat_margin_sided);
+            int color = res.getColor(mMine
+                    ? R.color.primaryLightColor
+                    : R.color.secondaryLightColor, null);
+
+            FrameLayout.LayoutParams layoutParams =
+                    (FrameLayout.LayoutParams) card.getLayoutParams();
+            if (mMine) {
+                //This message is from the user. Set the left margin and
+                //set this View to the right (end) side
+                layoutParams.setMargins(extended, standard, standard, standard);
+                layoutParams.gravity = Gravity.END;
+            } else {
+                //This message is from another user. Set the right margin and
+                //set this View to the left (start) side
+                layoutParams.setMargins(standard, standard, extended, standard);
+                layoutParams.gravity = Gravity.START;
+            }
+            card.setLayoutParams(layoutParams);
+
+            card.setCardBackgroundColor(ColorUtils.setAlphaComponent(color, 16));
+            card.setStrokeWidth(standard / 5);
+            card.setStrokeColor(ColorUtils.setAlphaComponent(color, 200));
+            binding.textMessage.setTextColor(
+                    res.getColor(R.color.secondaryTextColorFade, null));
+
+            //Round the corners on the side away from the screen edge
+            ShapeAppearanceModel.Builder shape = card.getShapeAppearanceModel().toBuilder();
+            if (mMine) {
+                shape.setTopLeftCorner(CornerFamily.ROUNDED, standard * 2)
+                        .setBottomLeftCorner(CornerFamily.ROUNDED, standard * 2)
+                        .setBottomRightCornerSize(0)
+                        .setTopRightCornerSize(0);
+            } else {
+                shape.setTopRightCorner(CornerFamily.ROUNDED, standard * 2)
+                        .setBottomRightCorner(CornerFamily.ROUNDED, standard * 2)
+                        .setBottomLeftCornerSize(0)
+                        .setTopLeftCornerSize(0);
+            }
+            card.setShapeAppearanceModel(shape.build());
+        }
 
-            if (mEmail.equals(message.getSender())) {
-                //This message is from the user. Format it as such
+        void setMessage(final ChatMessage message) {
+            //Fade a message until the server has it
+            binding.cardRoot.setAlpha(message.isPending() ? PENDING_ALPHA : 1f);
+            if (mMine) {
                 binding.textMessage.setText(message.getMessage());
-                ViewGroup.MarginLayoutParams layoutParams =
-                        (ViewGroup.MarginLayoutParams) card.getLayoutParams();
-                //Set the left margin
-                layoutParams.setMargins(extended, standard, standard, standard);
-                // Set this View to the right (end) side
-                ((FrameLayout.LayoutParams) card.getLayoutParams()).gravity =
-                        Gravity.END;
-
-                card.setCardBackgroundColor(
-                        ColorUtils.setAlphaComponent(
-                                res.getColor(R.color.primaryLightColor, null),
-                                16));
-                binding.textMessage.setTextColor(
-                        res.getColor(R.color.secondaryTextColorFade, null));
-
-                card.setStrokeWidth(standard / 5);
-                card.setStrokeColor(ColorUtils.setAlphaComponent(
-                        res.getColor(R.color.primaryLightColor, null),
-                        200));
-
-                //Round the corners on the left side
-                card.setShapeAppearanceModel(
-                        card.getShapeAppearanceModel()
-                                .toBuilder()
-                                .setTopLeftCorner(CornerFamily.ROUNDED,standard * 2)
-                                .setBottomLeftCorner(CornerFamily.ROUNDED,standard * 2)
-                                .setBottomRightCornerSize(0)
-                                .setTopRightCornerSize(0)
-                                .build());
-
-                card.requestLayout();
             } else {
-                //This message is from another user. Format it as such
                 binding.textMessage.setText(message.getSender() +
                         ": " + message.getMessage());
-                ViewGroup.MarginLayoutParams layoutParams =
-                        (ViewGroup.MarginLayoutParams) card.getLayoutParams();
-
-                //Set the right margin
-                layoutParams.setMargins(standard, standard, extended, standard);
-                // Set this View to the left (start) side
-                ((FrameLayout.LayoutParams) card.getLayoutParams()).gravity =
-                        Gravity.START;
-
-                card.setCardBackgroundColor(
-                        ColorUtils.setAlphaComponent(
-                                res.getColor(R.color.secondaryLightColor, null),
-                                16));
-
-                card.setStrokeWidth(standard / 5);
-                card.setStrokeColor(ColorUtils.setAlphaComponent(
-                        res.getColor(R.color.secondaryLightColor, null),
-                        200));
-
-                binding.textMessage.setTextColor(
-                        res.getColor(R.color.secondaryTextColorFade, null));
-
-                //Round the corners on the right side
-                card.setShapeAppearanceModel(
-                        card.getShapeAppearanceModel()
-                                .toBuilder()
-                                .setTopRightCorner(CornerFamily.ROUNDED,standard * 2)
-                                .setBottomRightCorner(CornerFamily.ROUNDED,standard * 2)
-                                .setBottomLeftCornerSize(0)
-                                .setTopLeftCornerSize(0)
-                                .build());
-                card.requestLayout();
             }
         }
     }
@@ -4,26 +4,20 @@ import android.app.Application;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Observer;
 
-import com.android.volley.DefaultRetryPolicy;
-import com.android.volley.Request;
 import com.android.volley.VolleyError;
-import com.android.volley.toolbox.JsonObjectRequest;
 
-import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.nio.charset.Charset;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
 
-import edu.uw.group1app.R;
-import edu.uw.group1app.io.RequestQueueSingleton;
+import edu.uw.group1app.io.ApiClient;
 
 /**
  * This is chat send view model.
@@ -35,10 +29,16 @@ public class ChatSendViewModel extends AndroidViewModel {
 
     private final MutableLiveData<JSONObject> mResponse;
 
+    /**
+     * The text of the last message that could not be sent, or null once it is handled.
+     */
+    private final MutableLiveData<String> mUnsent;
+
     public ChatSendViewModel(@NonNull Application application) {
         super(application);
         mResponse = new MutableLiveData<>();
         mResponse.setValue(new JSONObject());
+        mUnsent = new MutableLiveData<>();
     }
 
     public void addResponseObserver(@NonNull LifecycleOwner owner,
@@ -46,43 +46,71 @@ public class ChatSendViewModel extends AndroidViewModel {
         mResponse.observe(owner, observer);
     }
 
-    public void sendMessage(final int chatId, final String jwt, final String message) {
-        String url = getApplication().getResources().getString(R.string.base_url) +
-                "messages";
+    /**
+     * Observe the text of messages that could not be sent, so the user can send them again.
+     * Call clearUnsent once one has been shown.
+     */
+    public void addUnsentObserver(@NonNull LifecycleOwner owner,
+                                  @NonNull Observer<? super String> observer) {
+        mUnsent.observe(owner, observer);
+    }
 
-        JSONObject body = new JSONObject();
-        try {
-            body.put("message", message);
-            body.put("chatId", chatId);
-        } catch (JSONException e) {
-            e.printStackTrace();
-        }
+    public void clearUnsent() {
+        mUnsent.setValue(null);
+    }
 
-        Request request = new JsonObjectRequest(
-                Request.Method.POST,
-                url,
-                body, //push token found in the JSONObject body
-                mResponse::setValue, // we get a response but do nothing with it
-                this::handleError) {
-
-            @Override
-            public Map<String, String> getHeaders() {
-                Map<String, String> headers = new HashMap<>();
-                // add headers <key,value>
-                headers.put("Authorization", jwt);
-                return headers;
-            }
-        };
-
-        request.setRetryPolicy(new DefaultRetryPolicy(
-                10_000,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
-        //Instantiate the RequestQueue and add the request to the queue
-        RequestQueueSingleton.getInstance(getApplication().getApplicationContext())
-                .addToRequestQueue(request);
+    /**
+     * Send a message. It is shown in the chat room as pending straight away, and swapped for
+     * the saved copy when the web service answers or pushes the message back, whichever
+     * comes first. If the web service turns the message down, or it may not have arrived,
+     * it is taken back out and handed to the unsent observers.
+     *
+     * @param chats the model holding the chat room's messages
+     * @param chatId the chatroom to send to
+     * @param jwt the users signed JWT
+     * @param sender the user's email
+     * @param message the text of the message
+     */
+    public void sendMessage(final ChatViewModel chats, final int chatId, final String jwt,
+                            final String sender, final String message) {
+        final ChatMessage pending = chats.addPendingMessage(chatId, sender, message);
+        ApiClient.getInstance(getApplication())
+                .sendMessage(jwt, chatId, message,
+                        response -> {
+                            ChatMessage sent = decodeSent(response, pending);
+                            if (sent != null) {
+                                chats.confirmMessage(chatId, pending.getMessageId(), sent);
+                            }
+                            // otherwise the pushed copy will replace it
+                            mResponse.setValue(response);
+                        },
+                        error -> {
+                            chats.dropPendingMessage(chatId, pending.getMessageId());
+                            mUnsent.setValue(message);
+                            handleError(error);
+                        });
     }
 
+    /**
+     * Read the saved copy of a message out of the answer to sending it.
+     *
+     * @return the saved copy, or null if the answer does not say which id it was given
+     */
+    @Nullable
+    private static ChatMessage decodeSent(final JSONObject response, final ChatMessage pending) {
+        JSONObject sent = response.optJSONObject("message");
+        if (sent == null) {
+            sent = response;
+        }
+        int messageId = sent.optInt("messageid", -1);
+        if (messageId < 0) {
+            return null;
+        }
+        return new ChatMessage(messageId,
+                pending.getMessage(),
+                pending.getSender(),
+                sent.optString("timestamp", pending.getTimeStamp()));
+    }
 
 
     private void handleError(final VolleyError error) {
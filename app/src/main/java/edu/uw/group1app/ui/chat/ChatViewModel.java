@@ -1,32 +1,29 @@
 package edu.uw.group1app.ui.chat;
 
 import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
+import android.util.SparseBooleanArray;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Observer;
 
-import com.android.volley.DefaultRetryPolicy;
-import com.android.volley.Request;
 import com.android.volley.VolleyError;
-import com.android.volley.toolbox.JsonObjectRequest;
-
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 import java.nio.charset.Charset;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 
-import edu.uw.group1app.R;
-import edu.uw.group1app.io.RequestQueueSingleton;
+import edu.uw.group1app.io.ApiClient;
 
 /**
  * This is chat view model.
@@ -41,11 +38,78 @@ public class ChatViewModel extends AndroidViewModel {
      * The Key represents the Chat ID
      * The value represents the List of (known) messages for that that room.
      */
-    private Map<Integer, MutableLiveData<List<ChatMessage>>> mMessages;
+    private Map<Integer, MutableLiveData<ChatMessageList>> mMessages;
+
+    /**
+     * How many messages are read from the local store at a time.
+     */
+    private static final int LOCAL_PAGE_SIZE = 20;
+
+    /**
+     * Most messages kept in memory per room. Pages past this are dropped from the end
+     * farthest from where the user is reading and read back from the local store later.
+     */
+    private static final int MAX_MESSAGES_IN_MEMORY = 10 * LOCAL_PAGE_SIZE;
+
+    /**
+     * Rooms with a page of older messages, or their first page, being loaded. Only one such
+     * page is loaded per room at a time, so the same page is never fetched twice at once.
+     */
+    private final SparseBooleanArray mLoadingOlder;
+
+    /**
+     * Rooms with a page of newer messages being read back from the local store.
+     */
+    private final SparseBooleanArray mLoadingNewer;
+
+    /**
+     * Rooms where the web service has no messages older than the oldest one in memory.
+     */
+    private final SparseBooleanArray mNoOlderHistory;
+
+    /**
+     * Rooms whose newest messages were dropped from memory to respect the page cap.
+     */
+    private final SparseBooleanArray mNewerTrimmed;
+
+    private final ChatMessageStore mStore;
+
+    /**
+     * Runs every read and write against mStore, in order, off the main thread. It is the
+     * store's own executor, shared with everything else that uses the store.
+     */
+    private final Executor mDiskExecutor;
+
+    /**
+     * Set once this ViewModel is cleared, after which nothing more is written to mStore.
+     */
+    private boolean mCleared;
+
+    private final Handler mMainHandler;
+
+    /**
+     * The id the next pending message is given. Counts down from -1 so it never meets an id
+     * the web service gave out.
+     */
+    private int mNextPendingId = -1;
+
+    /**
+     * Told whether a synced page reached history synced before it.
+     */
+    private interface SyncedListener {
+        void onSaved(boolean joined);
+    }
 
     public ChatViewModel(@NonNull Application application) {
         super(application);
         mMessages = new HashMap<>();
+        mStore = ChatMessageStore.getInstance(application);
+        mDiskExecutor = mStore.getDiskExecutor();
+        mMainHandler = new Handler(Looper.getMainLooper());
+        mLoadingOlder = new SparseBooleanArray();
+        mLoadingNewer = new SparseBooleanArray();
+        mNoOlderHistory = new SparseBooleanArray();
+        mNewerTrimmed = new SparseBooleanArray();
     }
 
     /**
@@ -71,149 +135,319 @@ public class ChatViewModel extends AndroidViewModel {
      * @param chatId the id of the chat room List to retrieve
      * @return a reference to the list of messages
      */
-    public List<ChatMessage> getMessageListByChatId(final int chatId) {
+    public ChatMessageList getMessageListByChatId(final int chatId) {
         return getOrCreateMapEntry(chatId).getValue();
     }
 
-    private MutableLiveData<List<ChatMessage>> getOrCreateMapEntry(final int chatId) {
+    private MutableLiveData<ChatMessageList> getOrCreateMapEntry(final int chatId) {
         if(!mMessages.containsKey(chatId)) {
-            mMessages.put(chatId, new MutableLiveData<>(new ArrayList<>()));
+            mMessages.put(chatId, new MutableLiveData<>(new ChatMessageList()));
         }
         return mMessages.get(chatId);
     }
 
     /**
-     * Makes a request to the web service to get the first batch of messages for a given Chat Room.
-     * Parses the response and adds the ChatMessage object to the List associated with the
-     * ChatRoom. Informs observers of the update.
+     * Shows the newest messages of a chat room saved on the device, then asks the web service
+     * for the newest page and keeps paging back until the pages reach history already synced.
+     * Informs observers of each update.
      *
-     * Subsequent requests to the web service for a given chat room should be made from
-     * getNextMessages()
+     * Subsequent requests for a given chat room should be made from getNextMessages()
+     *
+     * Nothing is requested while a page is already loading for the room.
      *
      * @param chatId the chatroom id to request messages of
      * @param jwt the users signed JWT
+     * @return true if the first page was requested
      */
-    public void getFirstMessages(final int chatId, final String jwt) {
-        String url = getApplication().getResources().getString(R.string.base_url) +
-                "messages/" + chatId;
-
-        Request request = new JsonObjectRequest(
-                Request.Method.GET,
-                url,
-                null, //no body for this get request
-                this::handelSuccess,
-                this::handleError) {
-
-            @Override
-            public Map<String, String> getHeaders() {
-                Map<String, String> headers = new HashMap<>();
-                // add headers <key,value>
-                headers.put("Authorization", jwt);
-                return headers;
-            }
-        };
-
-        request.setRetryPolicy(new DefaultRetryPolicy(
-                10_000,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
-        //Instantiate the RequestQueue and add the request to the queue
-        RequestQueueSingleton.getInstance(getApplication().getApplicationContext())
-                .addToRequestQueue(request);
-
-        //code here will run
+    public boolean getFirstMessages(final int chatId, final String jwt) {
+        if (mLoadingOlder.get(chatId)) {
+            return false;
+        }
+        mLoadingOlder.put(chatId, true);
+        if (mNewerTrimmed.get(chatId)) {
+            // start over at the newest messages rather than leave a hole in the list, keeping
+            // anything still being sent
+            getMessageListByChatId(chatId).trimNewest(0);
+            mNewerTrimmed.delete(chatId);
+            mNoOlderHistory.delete(chatId);
+        }
+        mDiskExecutor.execute(() -> {
+            List<ChatMessage> stored = mStore.loadLatest(chatId, LOCAL_PAGE_SIZE);
+            boolean synced = mStore.hasSyncedRange(chatId);
+            mMainHandler.post(() -> {
+                if (!stored.isEmpty()) {
+                    merge(chatId, stored);
+                }
+                ApiClient.getInstance(getApplication())
+                        .getMessages(jwt, chatId, null,
+                                page -> {
+                                    mLoadingOlder.delete(chatId);
+                                    handleSync(page, null, synced, jwt);
+                                },
+                                error -> {
+                                    mLoadingOlder.delete(chatId);
+                                    handleError(error);
+                                });
+            });
+        });
+        return true;
     }
 
     /**
-     * Makes a request to the web service to get the next batch of messages for a given Chat Room.
-     * This request uses the earliest known ChatMessage in the associated list and passes that
-     * messageId to the web service.
-     * Parses the response and adds the ChatMessage object to the List associated with the
-     * ChatRoom. Informs observers of the update.
+     * Gets the next page of earlier messages for a given Chat Room, keyed by the oldest
+     * message in memory. Messages saved on the device are used first; the web service is
+     * only asked once the saved history runs out. Adds the ChatMessage objects to the List
+     * associated with the ChatRoom and informs observers of the update.
      *
-     * Subsequent calls to this method receive earlier and earlier messages.
+     * Nothing is requested while a page is already loading for the room or once the web
+     * service has run out of messages, so it is safe to call this on every scroll.
      *
      * @param chatId the chatroom id to request messages of
      * @param jwt the users signed JWT
+     * @return true if a page was requested
      */
-    public void getNextMessages(final int chatId, final String jwt) {
-        String url = getApplication().getResources().getString(R.string.base_url) +
-                "messages/" +
-                chatId +
-                "/" +
-                mMessages.get(chatId).getValue().get(0).getMessageId();
-
-        Request request = new JsonObjectRequest(
-                Request.Method.GET,
-                url,
-                null, //no body for this get request
-                this::handelSuccess,
-                this::handleError) {
-
-            @Override
-            public Map<String, String> getHeaders() {
-                Map<String, String> headers = new HashMap<>();
-                // add headers <key,value>
-                headers.put("Authorization", jwt);
-                return headers;
-            }
-        };
-
-        request.setRetryPolicy(new DefaultRetryPolicy(
-                10_000,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
-        //Instantiate the RequestQueue and add the request to the queue
-        RequestQueueSingleton.getInstance(getApplication().getApplicationContext())
-                .addToRequestQueue(request);
+    public boolean getNextMessages(final int chatId, final String jwt) {
+        ChatMessage oldest = getMessageListByChatId(chatId).getOldestSent();
+        if (oldest == null) {
+            return getFirstMessages(chatId, jwt);
+        }
+        if (mLoadingOlder.get(chatId) || mNoOlderHistory.get(chatId)) {
+            return false;
+        }
+        mLoadingOlder.put(chatId, true);
+        final int oldestId = oldest.getMessageId();
+        mDiskExecutor.execute(() -> {
+            List<ChatMessage> stored = mStore.loadBefore(chatId, oldestId, LOCAL_PAGE_SIZE);
+            mMainHandler.post(() -> {
+                if (stored.isEmpty()) {
+                    ApiClient.getInstance(getApplication())
+                            .getMessages(jwt, chatId, oldestId,
+                                    page -> handleOlderPage(page, oldestId),
+                                    error -> {
+                                        mLoadingOlder.delete(chatId);
+                                        handleError(error);
+                                    });
+                } else {
+                    mLoadingOlder.delete(chatId);
+                    addOlder(chatId, stored);
+                }
+            });
+        });
+        return true;
+    }
 
-        //code here will run
+    /**
+     * Reads back the next page of newer messages for a room whose newest messages were
+     * dropped from memory. Does nothing if the room holds its newest messages already.
+     *
+     * @param chatId the chatroom id to read messages of
+     * @return true if a page was requested
+     */
+    public boolean getNewerMessages(final int chatId) {
+        ChatMessage newest = getMessageListByChatId(chatId).getNewestSent();
+        if (newest == null || !mNewerTrimmed.get(chatId) || mLoadingNewer.get(chatId)) {
+            return false;
+        }
+        mLoadingNewer.put(chatId, true);
+        final int newestId = newest.getMessageId();
+        mDiskExecutor.execute(() -> {
+            List<ChatMessage> stored = mStore.loadAfter(chatId, newestId, LOCAL_PAGE_SIZE);
+            mMainHandler.post(() -> {
+                mLoadingNewer.delete(chatId);
+                if (stored.size() < LOCAL_PAGE_SIZE) {
+                    mNewerTrimmed.delete(chatId);
+                }
+                ChatMessageList room = getMessageListByChatId(chatId);
+                room.insertAll(stored);
+                if (room.trimOldest(MAX_MESSAGES_IN_MEMORY) > 0) {
+                    // what was dropped is on disk, so it can be paged in again
+                    mNoOlderHistory.delete(chatId);
+                }
+                getOrCreateMapEntry(chatId).setValue(room);
+            });
+        });
+        return true;
     }
 
     /**
      * When a chat message is received externally to this ViewModel, add it
-     * with this method.
+     * with this method. If it is the copy of a message this user sent that is still
+     * pending, it takes the pending message's place instead of showing twice.
      * @param chatId
      * @param message
      */
     public void addMessage(final int chatId, final ChatMessage message) {
-        List<ChatMessage> list = getMessageListByChatId(chatId);
-        list.add(message);
+        ChatMessageList list = getMessageListByChatId(chatId);
+        if (list.containsId(message.getMessageId())) {
+            // already confirmed by the answer to the send
+            return;
+        }
+        list.removePendingCopyOf(message);
+        if (mNewerTrimmed.get(chatId)) {
+            // the user is reading back in history; it is shown when they page down to it
+            save(chatId, Collections.singletonList(message));
+        } else if (list.insert(message)) {
+            save(chatId, Collections.singletonList(message));
+        }
         getOrCreateMapEntry(chatId).setValue(list);
     }
 
-    private void handelSuccess(final JSONObject response) {
-        List<ChatMessage> list;
-        if (!response.has("chatId")) {
-            throw new IllegalStateException("Unexpected response in ChatViewModel: " + response);
-        }
-        try {
-            list = getMessageListByChatId(response.getInt("chatId"));
-            JSONArray messages = response.getJSONArray("rows");
-            for(int i = 0; i < messages.length(); i++) {
-                JSONObject message = messages.getJSONObject(i);
-                ChatMessage cMessage = new ChatMessage(
-                        message.getInt("messageid"),
-                        message.getString("message"),
-                        message.getString("email"),
-                        message.getString("timestamp")
-                );
-                if (!list.contains(cMessage)) {
-                    // don't add a duplicate
-                    list.add(0, cMessage);
-                } else {
-                    // this shouldn't happen but could with the asynchronous
-                    // nature of the application
-                    Log.wtf("Chat message already received",
-                            "Or duplicate id:" + cMessage.getMessageId());
-                }
+    /**
+     * Show a message the user is sending straight away, before the web service has it.
+     *
+     * @param chatId the chatroom the message is sent to
+     * @param sender the user's email
+     * @param message the text of the message
+     * @return the pending message, whose id is passed back to confirmMessage() or
+     * dropPendingMessage()
+     */
+    public ChatMessage addPendingMessage(final int chatId, final String sender,
+                                         final String message) {
+        ChatMessage pending = new ChatMessage(mNextPendingId--, message, sender, "");
+        ChatMessageList list = getMessageListByChatId(chatId);
+        list.addPending(pending);
+        getOrCreateMapEntry(chatId).setValue(list);
+        return pending;
+    }
+
+    /**
+     * Swap a pending message for the copy the web service saved.
+     *
+     * @param chatId the chatroom the message was sent to
+     * @param pendingId the id of the pending message
+     * @param sent the saved copy, with the id the web service gave it
+     */
+    public void confirmMessage(final int chatId, final int pendingId, final ChatMessage sent) {
+        ChatMessageList list = getMessageListByChatId(chatId);
+        list.removePending(pendingId);
+        if (mNewerTrimmed.get(chatId)) {
+            save(chatId, Collections.singletonList(sent));
+        } else if (list.insert(sent)) {
+            save(chatId, Collections.singletonList(sent));
+        }
+        getOrCreateMapEntry(chatId).setValue(list);
+    }
+
+    /**
+     * Take back a pending message the web service turned down.
+     *
+     * @param chatId the chatroom the message was sent to
+     * @param pendingId the id of the pending message
+     */
+    public void dropPendingMessage(final int chatId, final int pendingId) {
+        ChatMessageList list = getMessageListByChatId(chatId);
+        if (list.removePending(pendingId)) {
+            getOrCreateMapEntry(chatId).setValue(list);
+        }
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        mCleared = true;
+    }
+
+    private void handleOlderPage(final ChatPage page, final int beforeId) {
+        mLoadingOlder.delete(page.getChatId());
+        if (page.getMessages().isEmpty()) {
+            mNoOlderHistory.put(page.getChatId(), true);
+        }
+        saveSynced(page, beforeId, null);
+        addOlder(page.getChatId(), page.getMessages());
+    }
 
+    /**
+     * Adds a page of older messages, dropping the newest ones if the room goes over the
+     * page cap, then informs observers.
+     */
+    private void addOlder(final int chatId, final List<ChatMessage> messages) {
+        ChatMessageList list = getMessageListByChatId(chatId);
+        list.insertAll(messages);
+        if (list.trimNewest(MAX_MESSAGES_IN_MEMORY) > 0) {
+            mNewerTrimmed.put(chatId, true);
+        }
+        getOrCreateMapEntry(chatId).setValue(list);
+    }
+
+    /**
+     * Handles one page of a sync walk, starting at the newest page. If the page does not
+     * join history already synced, there may be a gap, so keep asking for the page before
+     * it until the gap is closed or the service runs out of messages. A room never synced
+     * before only gets its newest page; older ones are paged in as the user scrolls.
+     *
+     * Each page marks its own range as synced when it is saved, so a walk cut short by an
+     * error leaves the gap below it unmarked and the next sync or scroll fetches it.
+     *
+     * @param beforeId the id the page was fetched before, or null for the newest page
+     * @param synced whether the room had synced history when the walk started
+     */
+    private void handleSync(final ChatPage page, @Nullable final Integer beforeId,
+                            final boolean synced, final String jwt) {
+        merge(page.getChatId(), page.getMessages());
+        List<ChatMessage> rows = page.getMessages();
+        if (rows.isEmpty()) {
+            if (beforeId != null) {
+                saveSynced(page, beforeId, null);
             }
-            //inform observers of the change (setValue)
-            getOrCreateMapEntry(response.getInt("chatId")).setValue(list);
-        }catch (JSONException e) {
-            Log.e("JSON PARSE ERROR", "Found in handle Success ChatViewModel");
-            Log.e("JSON PARSE ERROR", "Error: " + e.getMessage());
+            return;
+        }
+        // rows are newest first
+        final int oldestInPage = rows.get(rows.size() - 1).getMessageId();
+        saveSynced(page, beforeId, joined -> {
+            if (synced && !joined) {
+                ApiClient.getInstance(getApplication())
+                        .getMessages(jwt, page.getChatId(), oldestInPage,
+                                next -> handleSync(next, oldestInPage, true, jwt),
+                                this::handleError);
+            }
+        });
+    }
+
+    /**
+     * Adds newer messages to the list for a chat room, skipping messages it already holds
+     * and dropping the oldest ones if the room goes over the page cap, then informs
+     * observers.
+     */
+    private void merge(final int chatId, final List<ChatMessage> messages) {
+        ChatMessageList list = getMessageListByChatId(chatId);
+        list.insertAll(messages);
+        if (list.trimOldest(MAX_MESSAGES_IN_MEMORY) > 0) {
+            // what was dropped is on disk, so it can be paged in again
+            mNoOlderHistory.delete(chatId);
+        }
+        //inform observers of the change (setValue)
+        getOrCreateMapEntry(chatId).setValue(list);
+    }
+
+    /**
+     * Save a page fetched from the web service and mark the range it covers as synced. A
+     * page fetched before an id covers everything below that id down to its oldest message,
+     * or everything below it if it is empty.
+     *
+     * @param beforeId the id the page was fetched before, or null for the newest page
+     * @param then told on the main thread whether the page reached history synced before
+     *             it, or null
+     */
+    private void saveSynced(final ChatPage page, @Nullable final Integer beforeId,
+                            @Nullable final SyncedListener then) {
+        List<ChatMessage> rows = page.getMessages();
+        if (mCleared || (rows.isEmpty() && beforeId == null)) {
+            return;
+        }
+        // rows are newest first
+        final int low = rows.isEmpty() ? 0 : rows.get(rows.size() - 1).getMessageId();
+        final int high = beforeId == null ? rows.get(0).getMessageId() : beforeId - 1;
+        mDiskExecutor.execute(() -> {
+            boolean joined = mStore.insertSynced(page.getChatId(), rows, low, high);
+            if (then != null) {
+                mMainHandler.post(() -> then.onSaved(joined));
+            }
+        });
+    }
+
+    private void save(final int chatId, final List<ChatMessage> messages) {
+        if (!messages.isEmpty() && !mCleared) {
+            mDiskExecutor.execute(() -> mStore.insert(chatId, messages));
         }
     }
 
@@ -0,0 +1,140 @@
+package edu.uw.group1app.ui.chat;
+
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Map from message id to message, keyed by the primitive int so no id is boxed. Ids are
+ * kept in an open-addressed table with linear probing; a removal shifts the entries after
+ * it back into place, so the table never fills up with deleted markers.
+ */
+final class MessageIdIndex {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] mKeys;
+
+    private ChatMessage[] mValues;
+
+    private int mSize;
+
+    /**
+     * Constructor for an empty MessageIdIndex
+     */
+    MessageIdIndex() {
+        mKeys = new int[MIN_CAPACITY];
+        mValues = new ChatMessage[MIN_CAPACITY];
+    }
+
+    /**
+     * it returns how many ids are in the index
+     */
+    int size() {
+        return mSize;
+    }
+
+    /**
+     * it returns whether the index holds this id
+     */
+    boolean containsKey(final int id) {
+        return mValues[slot(id)] != null;
+    }
+
+    /**
+     * it returns the message with this id, or null if the index does not hold it
+     */
+    @Nullable
+    ChatMessage get(final int id) {
+        return mValues[slot(id)];
+    }
+
+    /**
+     * Add a message under its id, unless the id is already in the index.
+     *
+     * @param id the message id
+     * @param message the message
+     * @return false if the index already held the id
+     */
+    boolean putIfAbsent(final int id, final ChatMessage message) {
+        int slot = slot(id);
+        if (mValues[slot] != null) {
+            return false;
+        }
+        mKeys[slot] = id;
+        mValues[slot] = message;
+        // keep the table at most half full so probe runs stay short
+        if (++mSize * 2 > mKeys.length) {
+            resize(mKeys.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * Remove an id from the index.
+     *
+     * @param id the message id
+     * @return false if the index did not hold the id
+     */
+    boolean remove(final int id) {
+        int hole = slot(id);
+        if (mValues[hole] == null) {
+            return false;
+        }
+        int mask = mKeys.length - 1;
+        // pull back any entry further along the run that may no longer reach its slot
+        for (int next = (hole + 1) & mask; mValues[next] != null; next = (next + 1) & mask) {
+            int home = hash(mKeys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                mKeys[hole] = mKeys[next];
+                mValues[hole] = mValues[next];
+                hole = next;
+            }
+        }
+        mValues[hole] = null;
+        mSize--;
+        return true;
+    }
+
+    /**
+     * Remove every id, keeping the table for reuse.
+     */
+    void clear() {
+        Arrays.fill(mValues, null);
+        mSize = 0;
+    }
+
+    /**
+     * it returns the slot holding id, or the empty slot where it would go
+     */
+    private int slot(final int id) {
+        int mask = mKeys.length - 1;
+        int slot = hash(id) & mask;
+        while (mValues[slot] != null && mKeys[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize(final int capacity) {
+        int[] keys = mKeys;
+        ChatMessage[] values = mValues;
+        mKeys = new int[capacity];
+        mValues = new ChatMessage[capacity];
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null) {
+                int slot = slot(keys[i]);
+                mKeys[slot] = keys[i];
+                mValues[slot] = values[i];
+            }
+        }
+    }
+
+    /**
+     * Spread ids, which mostly arrive in runs of consecutive numbers, over the table.
+     */
+    private static int hash(final int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
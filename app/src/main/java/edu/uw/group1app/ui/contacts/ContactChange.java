@@ -0,0 +1,32 @@
+package edu.uw.group1app.ui.contacts;
+
+/**
+ * A change the user can make to one member's place in the contact lists.
+ */
+enum ContactChange {
+
+    /**
+     * Put a contact on the favorite list.
+     */
+    FAVORITE,
+
+    /**
+     * Take a contact off the favorite list.
+     */
+    UNFAVORITE,
+
+    /**
+     * Take a contact off the contact and favorite lists.
+     */
+    DELETE,
+
+    /**
+     * Move a friend request onto the contact list.
+     */
+    ACCEPT,
+
+    /**
+     * Take a friend request off the request list.
+     */
+    DECLINE
+}
@@ -0,0 +1,592 @@
+package edu.uw.group1app.ui.contacts;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.android.volley.Response;
+import com.android.volley.VolleyError;
+
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import edu.uw.group1app.io.ApiClient;
+import edu.uw.group1app.ui.contacts.all.Contact;
+import edu.uw.group1app.ui.contacts.request.FriendRequest;
+
+/**
+ * Single entry point for the contacts tabs. Every list is read from the ContactStore, so a
+ * tab is drawn from disk straight away, even offline. The store is filled by one sync pass
+ * that fetches the contact, favorite, search and request lists together and saves them in
+ * one transaction; a pass only goes to the network when the last one is older than
+ * MAX_AGE_MILLIS.
+ *
+ * Changes the user makes are shown straight away, before the web service has answered.
+ * They are sent one at a time per member, taken back if the web service turns them down,
+ * and written to the store once it accepts them. An accepted change is kept on top of
+ * the synced lists until a sync started after it lands, so an older sync can never undo
+ * it on screen.
+ *
+ * All methods must be called on the main thread, which is also where Volley delivers.
+ */
+public final class ContactRepository {
+
+    /**
+     * How long a sync stays fresh. Tabs opened within this time of the last sync are only
+     * read from disk.
+     */
+    public static final long MAX_AGE_MILLIS = 5 * 60 * 1000L;
+
+    /**
+     * The number of lists fetched by one sync pass.
+     */
+    private static final int LIST_COUNT = 4;
+
+    private static ContactRepository instance;
+
+    private final ApiClient mApi;
+
+    private final ContactStore mStore;
+
+    /**
+     * Runs every read and write against mStore, in order, off the main thread.
+     */
+    private final ExecutorService mDiskExecutor;
+
+    private final Handler mMainHandler;
+
+    private final MutableLiveData<List<Contact>> mContacts;
+    private final MutableLiveData<List<Contact>> mFavorites;
+    private final MutableLiveData<List<Contact>> mMembers;
+    private final MutableLiveData<List<FriendRequest>> mRequests;
+
+    /**
+     * Whether the lists have been read from mStore since start up or the last clear.
+     */
+    private boolean mLoaded;
+
+    /**
+     * When the lists were last synced, in epoch milliseconds, or 0 if never.
+     */
+    private long mSyncedAt;
+
+    /**
+     * The sync pass still running, or null.
+     */
+    private Pass mPass;
+
+    /**
+     * The lists as the last sync, or disk read, left them.
+     */
+    private Lists mSynced = new Lists();
+
+    /**
+     * Changes not yet answered by the web service, in the order they were made.
+     */
+    private final List<Change> mQueued = new ArrayList<>();
+
+    /**
+     * Changes the web service has accepted that no sync has caught up with yet.
+     */
+    private final List<Change> mSettled = new ArrayList<>();
+
+    /**
+     * The four lists as read from, or written to, mStore.
+     */
+    private static final class Lists {
+        private List<Contact> mContacts = new ArrayList<>();
+        private List<Contact> mFavorites = new ArrayList<>();
+        private List<Contact> mMembers = new ArrayList<>();
+        private List<FriendRequest> mRequests = new ArrayList<>();
+        private long mSyncedAt;
+    }
+
+    /**
+     * Sends one change to the web service.
+     */
+    private interface Send {
+        void send(Response.Listener<JSONObject> listener, Response.ErrorListener errorListener);
+    }
+
+    /**
+     * One change the user has made to a member.
+     */
+    private static final class Change {
+        private final String mJwt;
+        private final int mMemberId;
+        private final ContactChange mChange;
+        private final Send mSend;
+        private final Response.Listener<JSONObject> mListener;
+        private final Response.ErrorListener mErrorListener;
+        private boolean mSent;
+
+        Change(final String jwt, final int memberId, final ContactChange change,
+               final Send send, final Response.Listener<JSONObject> listener,
+               final Response.ErrorListener errorListener) {
+            mJwt = jwt;
+            mMemberId = memberId;
+            mChange = change;
+            mSend = send;
+            mListener = listener;
+            mErrorListener = errorListener;
+        }
+    }
+
+    /**
+     * One sync pass. Its lists are filled in as their responses land.
+     */
+    private static final class Pass {
+        private final List<Response.ErrorListener> mErrorListeners = new ArrayList<>();
+        private final Lists mFetched = new Lists();
+        private int mPending = LIST_COUNT;
+
+        /**
+         * Whether a forced sync was asked for while this pass was running, so its answer
+         * may already be out of date.
+         */
+        private boolean mRepeat;
+
+        /**
+         * The accepted changes this pass's fetch started after, which it has caught up with.
+         */
+        private List<Change> mSettledBefore = new ArrayList<>();
+
+        void addErrorListener(@Nullable final Response.ErrorListener errorListener) {
+            if (errorListener != null) {
+                mErrorListeners.add(errorListener);
+            }
+        }
+    }
+
+    private ContactRepository(final Context context) {
+        mApi = ApiClient.getInstance(context);
+        mStore = ContactStore.getInstance(context);
+        mDiskExecutor = Executors.newSingleThreadExecutor();
+        mMainHandler = new Handler(Looper.getMainLooper());
+        mContacts = new MutableLiveData<>(new ArrayList<>());
+        mFavorites = new MutableLiveData<>(new ArrayList<>());
+        mMembers = new MutableLiveData<>(new ArrayList<>());
+        mRequests = new MutableLiveData<>(new ArrayList<>());
+    }
+
+    public static synchronized ContactRepository getInstance(final Context context) {
+        if (instance == null) {
+            instance = new ContactRepository(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * it returns the user's accepted contacts
+     */
+    public LiveData<List<Contact>> getContacts() {
+        return mContacts;
+    }
+
+    /**
+     * it returns the user's favorite contacts
+     */
+    public LiveData<List<Contact>> getFavorites() {
+        return mFavorites;
+    }
+
+    /**
+     * it returns every member the user can search for
+     */
+    public LiveData<List<Contact>> getMembers() {
+        return mMembers;
+    }
+
+    /**
+     * it returns the friend requests waiting on the user
+     */
+    public LiveData<List<FriendRequest>> getRequests() {
+        return mRequests;
+    }
+
+    /**
+     * Read the lists from disk if that has not been done yet, and sync them with the web
+     * service if the last sync is older than MAX_AGE_MILLIS.
+     *
+     * @param jwt authorization token
+     * @param errorListener gets any failure of the sync, may be null
+     */
+    @MainThread
+    public void sync(final String jwt, @Nullable final Response.ErrorListener errorListener) {
+        start(jwt, false, errorListener);
+    }
+
+    /**
+     * Sync the lists with the web service now, e.g. after a contact has been changed.
+     *
+     * @param jwt authorization token
+     * @param errorListener gets any failure of the sync, may be null
+     */
+    @MainThread
+    public void refresh(final String jwt, @Nullable final Response.ErrorListener errorListener) {
+        start(jwt, true, errorListener);
+    }
+
+    /**
+     * Put a contact on the favorite list.
+     *
+     * @param jwt authorization token
+     * @param memberId the contact
+     * @param listener gets the web service response once the change is accepted
+     * @param errorListener gets the failure if the change is turned down and taken back
+     */
+    @MainThread
+    public void favorite(final String jwt, final int memberId,
+                         final Response.Listener<JSONObject> listener,
+                         final Response.ErrorListener errorListener) {
+        change(new Change(jwt, memberId, ContactChange.FAVORITE,
+                (l, e) -> mApi.addFavorite(jwt, memberId, l, e), listener, errorListener));
+    }
+
+    /**
+     * Take a contact off the favorite list.
+     *
+     * @see #favorite
+     */
+    @MainThread
+    public void unfavorite(final String jwt, final int memberId,
+                           final Response.Listener<JSONObject> listener,
+                           final Response.ErrorListener errorListener) {
+        change(new Change(jwt, memberId, ContactChange.UNFAVORITE,
+                (l, e) -> mApi.unFavorite(jwt, memberId, l, e), listener, errorListener));
+    }
+
+    /**
+     * Delete a contact.
+     *
+     * @see #favorite
+     */
+    @MainThread
+    public void delete(final String jwt, final int memberId,
+                       final Response.Listener<JSONObject> listener,
+                       final Response.ErrorListener errorListener) {
+        change(new Change(jwt, memberId, ContactChange.DELETE,
+                (l, e) -> mApi.deleteContact(jwt, memberId, l, e), listener, errorListener));
+    }
+
+    /**
+     * Accept a friend request.
+     *
+     * @see #favorite
+     */
+    @MainThread
+    public void accept(final String jwt, final int memberId,
+                       final Response.Listener<JSONObject> listener,
+                       final Response.ErrorListener errorListener) {
+        change(new Change(jwt, memberId, ContactChange.ACCEPT,
+                (l, e) -> mApi.acceptRequest(jwt, memberId, l, e), listener, errorListener));
+    }
+
+    /**
+     * Decline a friend request.
+     *
+     * @param username the username of the member who sent it, which the web service wants
+     * @see #favorite
+     */
+    @MainThread
+    public void decline(final String jwt, final int memberId, final String username,
+                        final Response.Listener<JSONObject> listener,
+                        final Response.ErrorListener errorListener) {
+        change(new Change(jwt, memberId, ContactChange.DECLINE,
+                (l, e) -> mApi.declineRequest(jwt, username, l, e), listener, errorListener));
+    }
+
+    /**
+     * Forget every list, on disk and in memory, e.g. when the user signs out.
+     */
+    @MainThread
+    public void clear() {
+        // a pass or change still running is dropped when it lands
+        mPass = null;
+        mQueued.clear();
+        mSettled.clear();
+        mLoaded = false;
+        mSyncedAt = 0;
+        mSynced = new Lists();
+        show();
+        mDiskExecutor.execute(mStore::clear);
+    }
+
+    private void change(final Change change) {
+        mQueued.add(change);
+        show();
+        sendNext(change.mMemberId);
+    }
+
+    /**
+     * Send the oldest queued change for a member, unless it is already out.
+     */
+    private void sendNext(final int memberId) {
+        for (Change change : mQueued) {
+            if (change.mMemberId == memberId) {
+                if (!change.mSent) {
+                    change.mSent = true;
+                    change.mSend.send(response -> settle(change, response),
+                            error -> takeBack(change, error));
+                }
+                return;
+            }
+        }
+    }
+
+    private void settle(final Change change, final JSONObject response) {
+        if (!mQueued.remove(change)) {
+            return;
+        }
+        mSettled.add(change);
+        mDiskExecutor.execute(() -> mStore.apply(change.mMemberId, change.mChange));
+        show();
+        change.mListener.onResponse(response);
+        sendNext(change.mMemberId);
+
+        if (change.mChange == ContactChange.ACCEPT
+                && find(mSynced.mMembers, change.mMemberId) == null) {
+            // the request list only names the sender; the rest comes with a sync
+            refresh(change.mJwt, null);
+        }
+    }
+
+    private void takeBack(final Change change, final VolleyError error) {
+        if (!mQueued.remove(change)) {
+            return;
+        }
+        show();
+        change.mErrorListener.onErrorResponse(error);
+        sendNext(change.mMemberId);
+    }
+
+    private void start(final String jwt, final boolean force,
+                       @Nullable final Response.ErrorListener errorListener) {
+        if (mPass != null) {
+            mPass.addErrorListener(errorListener);
+            mPass.mRepeat |= force;
+            return;
+        }
+        final Pass pass = new Pass();
+        pass.addErrorListener(errorListener);
+        mPass = pass;
+
+        if (mLoaded) {
+            fetchIfStale(jwt, force, pass);
+            return;
+        }
+        mDiskExecutor.execute(() -> {
+            Lists stored = read();
+            mMainHandler.post(() -> {
+                if (pass != mPass) {
+                    return;
+                }
+                mLoaded = true;
+                publish(stored);
+                fetchIfStale(jwt, force, pass);
+            });
+        });
+    }
+
+    private void fetchIfStale(final String jwt, final boolean force, final Pass pass) {
+        if (!force && System.currentTimeMillis() - mSyncedAt < MAX_AGE_MILLIS) {
+            mPass = null;
+            return;
+        }
+        final long fetchedAt = System.currentTimeMillis();
+        pass.mSettledBefore = new ArrayList<>(mSettled);
+        final Response.ErrorListener onError = error -> fail(pass, error);
+        mApi.getContacts(jwt, contacts -> {
+            pass.mFetched.mContacts = contacts;
+            land(jwt, pass, fetchedAt);
+        }, onError);
+        mApi.getFavorites(jwt, favorites -> {
+            pass.mFetched.mFavorites = favorites;
+            land(jwt, pass, fetchedAt);
+        }, onError);
+        mApi.getAllContacts(jwt, members -> {
+            pass.mFetched.mMembers = members;
+            land(jwt, pass, fetchedAt);
+        }, onError);
+        mApi.getFriendRequests(jwt, requests -> {
+            pass.mFetched.mRequests = requests;
+            land(jwt, pass, fetchedAt);
+        }, onError);
+    }
+
+    private void land(final String jwt, final Pass pass, final long fetchedAt) {
+        if (pass != mPass || --pass.mPending > 0) {
+            return;
+        }
+        final Lists fetched = pass.mFetched;
+        // accepted after this pass started, so possibly missing from what it fetched
+        final List<Change> newer = new ArrayList<>(mSettled);
+        newer.removeAll(pass.mSettledBefore);
+        mDiskExecutor.execute(() -> {
+            mStore.replaceAll(fetched.mContacts, fetched.mFavorites, fetched.mMembers,
+                    fetched.mRequests, fetchedAt);
+            for (Change change : newer) {
+                mStore.apply(change.mMemberId, change.mChange);
+            }
+            Lists stored = read();
+            mMainHandler.post(() -> {
+                if (pass != mPass) {
+                    return;
+                }
+                mPass = null;
+                mSettled.removeAll(pass.mSettledBefore);
+                publish(stored);
+                if (pass.mRepeat) {
+                    start(jwt, true, null);
+                }
+            });
+        });
+    }
+
+    private void fail(final Pass pass, final VolleyError error) {
+        if (pass != mPass) {
+            return;
+        }
+        // the stored lists are kept as they are; the next sync tries again
+        mPass = null;
+        for (Response.ErrorListener listener : pass.mErrorListeners) {
+            listener.onErrorResponse(error);
+        }
+    }
+
+    @WorkerThread
+    private Lists read() {
+        Lists lists = new Lists();
+        lists.mContacts = mStore.loadContacts();
+        lists.mFavorites = mStore.loadFavorites();
+        lists.mMembers = mStore.loadMembers();
+        lists.mRequests = mStore.loadRequests();
+        lists.mSyncedAt = mStore.getSyncedAt();
+        return lists;
+    }
+
+    private void publish(final Lists lists) {
+        mSyncedAt = lists.mSyncedAt;
+        mSynced = lists;
+        show();
+    }
+
+    /**
+     * Show the synced lists with every accepted and queued change made on top.
+     */
+    private void show() {
+        Lists shown = new Lists();
+        shown.mContacts = new ArrayList<>(mSynced.mContacts);
+        shown.mFavorites = new ArrayList<>(mSynced.mFavorites);
+        shown.mMembers = new ArrayList<>(mSynced.mMembers);
+        shown.mRequests = new ArrayList<>(mSynced.mRequests);
+        for (Change change : mSettled) {
+            apply(shown, change);
+        }
+        for (Change change : mQueued) {
+            apply(shown, change);
+        }
+        mContacts.setValue(shown.mContacts);
+        mFavorites.setValue(shown.mFavorites);
+        mMembers.setValue(shown.mMembers);
+        mRequests.setValue(shown.mRequests);
+    }
+
+    private static void apply(final Lists lists, final Change change) {
+        final int id = change.mMemberId;
+        switch (change.mChange) {
+            case FAVORITE:
+                if (find(lists.mFavorites, id) == null) {
+                    Contact contact = find(lists.mContacts, id);
+                    if (contact != null) {
+                        insertByName(lists.mFavorites, contact);
+                    }
+                }
+                break;
+            case UNFAVORITE:
+                remove(lists.mFavorites, id);
+                break;
+            case DELETE:
+                remove(lists.mContacts, id);
+                remove(lists.mFavorites, id);
+                break;
+            case ACCEPT:
+                FriendRequest request = removeRequest(lists.mRequests, id);
+                if (find(lists.mContacts, id) == null) {
+                    Contact contact = find(lists.mMembers, id);
+                    if (contact == null && request != null) {
+                        contact = new Contact("", "", "", request.getUsername(), id);
+                    }
+                    if (contact != null) {
+                        insertByName(lists.mContacts, contact);
+                    }
+                }
+                break;
+            case DECLINE:
+                removeRequest(lists.mRequests, id);
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Nullable
+    private static Contact find(final List<Contact> contacts, final int memberId) {
+        for (Contact contact : contacts) {
+            if (contact.getMemberID() == memberId) {
+                return contact;
+            }
+        }
+        return null;
+    }
+
+    private static void remove(final List<Contact> contacts, final int memberId) {
+        Iterator<Contact> it = contacts.iterator();
+        while (it.hasNext()) {
+            if (it.next().getMemberID() == memberId) {
+                it.remove();
+            }
+        }
+    }
+
+    @Nullable
+    private static FriendRequest removeRequest(final List<FriendRequest> requests,
+                                               final int memberId) {
+        Iterator<FriendRequest> it = requests.iterator();
+        while (it.hasNext()) {
+            FriendRequest request = it.next();
+            if (request.getMemberID() == memberId) {
+                it.remove();
+                return request;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Insert a contact where the store's name ordering would put it.
+     */
+    private static void insertByName(final List<Contact> contacts, final Contact contact) {
+        int at = 0;
+        while (at < contacts.size() && compareNames(contacts.get(at), contact) <= 0) {
+            at++;
+        }
+        contacts.add(at, contact);
+    }
+
+    private static int compareNames(final Contact a, final Contact b) {
+        int first = a.getFirstName().compareTo(b.getFirstName());
+        return first != 0 ? first : a.getLastName().compareTo(b.getLastName());
+    }
+}
@@ -0,0 +1,285 @@
+package edu.uw.group1app.ui.contacts;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import androidx.annotation.WorkerThread;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.uw.group1app.ui.contacts.all.Contact;
+import edu.uw.group1app.ui.contacts.request.FriendRequest;
+
+/**
+ * On-device store of every member the contacts tabs show, one row per member id with a
+ * flag for each list the member is on. The contact, favorite, request and search lists
+ * are each an indexed query over the one table, so they are always read from the same
+ * sync and never disagree.
+ *
+ * All methods touch the disk and must be called off the main thread.
+ */
+public final class ContactStore extends SQLiteOpenHelper {
+
+    private static final String DATABASE_NAME = "contacts.db";
+    private static final int DATABASE_VERSION = 1;
+
+    private static final String TABLE = "contacts";
+    private static final String COL_MEMBER_ID = "member_id";
+    private static final String COL_EMAIL = "email";
+    private static final String COL_FIRST_NAME = "first_name";
+    private static final String COL_LAST_NAME = "last_name";
+    private static final String COL_USERNAME = "username";
+    private static final String COL_IS_CONTACT = "is_contact";
+    private static final String COL_IS_FAVORITE = "is_favorite";
+    private static final String COL_IS_REQUEST = "is_request";
+    private static final String COL_IS_MEMBER = "is_member";
+
+    private static final String SYNC_TABLE = "sync";
+    private static final String COL_SYNCED_AT = "synced_at";
+
+    private static final String[] COLUMNS =
+            {COL_EMAIL, COL_FIRST_NAME, COL_LAST_NAME, COL_USERNAME, COL_MEMBER_ID};
+
+    private static final String BY_NAME = COL_FIRST_NAME + ", " + COL_LAST_NAME;
+
+    private static ContactStore instance;
+
+    private ContactStore(final Context context) {
+        super(context.getApplicationContext(), DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    public static synchronized ContactStore getInstance(final Context context) {
+        if (instance == null) {
+            instance = new ContactStore(context);
+        }
+        return instance;
+    }
+
+    @Override
+    public void onCreate(final SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE + " ("
+                + COL_MEMBER_ID + " INTEGER PRIMARY KEY, "
+                + COL_EMAIL + " TEXT NOT NULL, "
+                + COL_FIRST_NAME + " TEXT NOT NULL, "
+                + COL_LAST_NAME + " TEXT NOT NULL, "
+                + COL_USERNAME + " TEXT NOT NULL, "
+                + COL_IS_CONTACT + " INTEGER NOT NULL DEFAULT 0, "
+                + COL_IS_FAVORITE + " INTEGER NOT NULL DEFAULT 0, "
+                + COL_IS_REQUEST + " INTEGER NOT NULL DEFAULT 0, "
+                + COL_IS_MEMBER + " INTEGER NOT NULL DEFAULT 0)");
+        // each list is read by its flag in name order, straight off one of these
+        db.execSQL("CREATE INDEX contacts_by_contact ON " + TABLE
+                + " (" + COL_IS_CONTACT + ", " + BY_NAME + ")");
+        db.execSQL("CREATE INDEX contacts_by_favorite ON " + TABLE
+                + " (" + COL_IS_FAVORITE + ", " + BY_NAME + ")");
+        db.execSQL("CREATE INDEX contacts_by_member ON " + TABLE
+                + " (" + COL_IS_MEMBER + ", " + BY_NAME + ")");
+        db.execSQL("CREATE INDEX contacts_by_request ON " + TABLE
+                + " (" + COL_IS_REQUEST + ", " + COL_USERNAME + ")");
+
+        db.execSQL("CREATE TABLE " + SYNC_TABLE + " ("
+                + COL_SYNCED_AT + " INTEGER NOT NULL)");
+    }
+
+    @Override
+    public void onUpgrade(final SQLiteDatabase db, final int oldVersion, final int newVersion) {
+        // The store is only a cache of the web service, so it is safe to rebuild it.
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE);
+        db.execSQL("DROP TABLE IF EXISTS " + SYNC_TABLE);
+        onCreate(db);
+    }
+
+    /**
+     * Replace everything stored with the result of one sync. A member on several lists is
+     * kept as one row with several flags set.
+     *
+     * @param contacts the accepted contacts
+     * @param favorites the favorite contacts
+     * @param members every member the user can search for
+     * @param requests the friend requests waiting on the user
+     * @param syncedAt when the lists were fetched, in epoch milliseconds
+     */
+    @WorkerThread
+    public void replaceAll(final List<Contact> contacts,
+                           final List<Contact> favorites,
+                           final List<Contact> members,
+                           final List<FriendRequest> requests,
+                           final long syncedAt) {
+        Map<Integer, ContentValues> rows = new LinkedHashMap<>();
+        merge(rows, members, COL_IS_MEMBER);
+        merge(rows, contacts, COL_IS_CONTACT);
+        merge(rows, favorites, COL_IS_FAVORITE);
+        for (FriendRequest request : requests) {
+            ContentValues row = rows.get(request.getMemberID());
+            if (row == null) {
+                // the request list only names the sender
+                row = values(new Contact("", "", "", request.getUsername(),
+                        request.getMemberID()));
+                rows.put(request.getMemberID(), row);
+            }
+            row.put(COL_IS_REQUEST, 1);
+        }
+
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(TABLE, null, null);
+            for (ContentValues row : rows.values()) {
+                db.insertOrThrow(TABLE, null, row);
+            }
+            ContentValues sync = new ContentValues();
+            sync.put(COL_SYNCED_AT, syncedAt);
+            db.delete(SYNC_TABLE, null, null);
+            db.insertOrThrow(SYNC_TABLE, null, sync);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Apply a change the web service has accepted to one stored member.
+     *
+     * @param memberId the member
+     * @param change the accepted change
+     */
+    @WorkerThread
+    void apply(final int memberId, final ContactChange change) {
+        ContentValues flags = new ContentValues();
+        switch (change) {
+            case FAVORITE:
+                flags.put(COL_IS_FAVORITE, 1);
+                break;
+            case UNFAVORITE:
+                flags.put(COL_IS_FAVORITE, 0);
+                break;
+            case DELETE:
+                flags.put(COL_IS_CONTACT, 0);
+                flags.put(COL_IS_FAVORITE, 0);
+                break;
+            case ACCEPT:
+                flags.put(COL_IS_REQUEST, 0);
+                flags.put(COL_IS_CONTACT, 1);
+                break;
+            case DECLINE:
+                flags.put(COL_IS_REQUEST, 0);
+                break;
+            default:
+                return;
+        }
+        getWritableDatabase().update(TABLE, flags, COL_MEMBER_ID + " = ?",
+                new String[]{String.valueOf(memberId)});
+    }
+
+    /**
+     * Get when the stored lists were last synced.
+     *
+     * @return the sync time in epoch milliseconds, or 0 if nothing has been synced
+     */
+    @WorkerThread
+    public long getSyncedAt() {
+        try (Cursor cursor = getReadableDatabase().query(SYNC_TABLE,
+                new String[]{COL_SYNCED_AT}, null, null, null, null, null)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    /**
+     * Load the user's accepted contacts, in name order.
+     */
+    @WorkerThread
+    public List<Contact> loadContacts() {
+        return queryContacts(COL_IS_CONTACT);
+    }
+
+    /**
+     * Load the user's favorite contacts, in name order.
+     */
+    @WorkerThread
+    public List<Contact> loadFavorites() {
+        return queryContacts(COL_IS_FAVORITE);
+    }
+
+    /**
+     * Load every member the user can search for, in name order.
+     */
+    @WorkerThread
+    public List<Contact> loadMembers() {
+        return queryContacts(COL_IS_MEMBER);
+    }
+
+    /**
+     * Load the friend requests waiting on the user, in username order.
+     */
+    @WorkerThread
+    public List<FriendRequest> loadRequests() {
+        List<FriendRequest> result = new ArrayList<>();
+        try (Cursor cursor = getReadableDatabase().query(TABLE,
+                new String[]{COL_USERNAME, COL_MEMBER_ID},
+                COL_IS_REQUEST + " = 1", null, null, null, COL_USERNAME)) {
+            while (cursor.moveToNext()) {
+                result.add(new FriendRequest(cursor.getString(0), cursor.getInt(1)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Remove everything stored, e.g. when the user signs out.
+     */
+    @WorkerThread
+    public void clear() {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(TABLE, null, null);
+            db.delete(SYNC_TABLE, null, null);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private List<Contact> queryContacts(final String flag) {
+        List<Contact> result = new ArrayList<>();
+        try (Cursor cursor = getReadableDatabase().query(TABLE, COLUMNS,
+                flag + " = 1", null, null, null, BY_NAME)) {
+            while (cursor.moveToNext()) {
+                result.add(new Contact(cursor.getString(0),
+                        cursor.getString(1),
+                        cursor.getString(2),
+                        cursor.getString(3),
+                        cursor.getInt(4)));
+            }
+        }
+        return result;
+    }
+
+    private static void merge(final Map<Integer, ContentValues> rows,
+                              final List<Contact> contacts, final String flag) {
+        for (Contact contact : contacts) {
+            ContentValues row = rows.get(contact.getMemberID());
+            if (row == null) {
+                row = values(contact);
+                rows.put(contact.getMemberID(), row);
+            }
+            row.put(flag, 1);
+        }
+    }
+
+    private static ContentValues values(final Contact contact) {
+        ContentValues row = new ContentValues();
+        row.put(COL_MEMBER_ID, contact.getMemberID());
+        row.put(COL_EMAIL, contact.getEmail());
+        row.put(COL_FIRST_NAME, contact.getFirstName());
+        row.put(COL_LAST_NAME, contact.getLastName());
+        row.put(COL_USERNAME, contact.getUsername());
+        return row;
+    }
+}
@@ -1,6 +1,6 @@
 package edu.uw.group1app.ui.contacts.all;
 
-import java.util.ArrayList;
+import java.util.Objects;
 
 
 /**
@@ -73,4 +73,29 @@ public class Contact {
         return mMemberID;
     }
 
+    /**
+     * Two contacts are equal when every field is, so a list can tell which contacts changed
+     * @param o the other object
+     * @return whether o is the same contact with the same details
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Contact)) {
+            return false;
+        }
+        Contact other = (Contact) o;
+        return mMemberID == other.mMemberID
+                && Objects.equals(mEmail, other.mEmail)
+                && Objects.equals(mFirstName, other.mFirstName)
+                && Objects.equals(mLastName, other.mLastName)
+                && Objects.equals(mUsername, other.mUsername);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(mMemberID, mEmail, mFirstName, mLastName, mUsername);
+    }
 }
@@ -37,8 +37,6 @@ public class ContactDetailDialog extends DialogFragment {
 
     private final UserInfoViewModel mUserModel;
 
-    private final ContactRecyclerViewAdapter.ContactViewHolder mUpdater;
-
     private int mChatID;
 
     private boolean throughChat;
@@ -48,14 +46,12 @@ public class ContactDetailDialog extends DialogFragment {
     public ContactDetailDialog(Contact contact, ContactListViewModel contactModel,
                                UserInfoViewModel infoModel,
                                int chatId,
-                               boolean throughChat,
-                               ContactRecyclerViewAdapter.ContactViewHolder updater) {
+                               boolean throughChat) {
         this.mContact = contact;
         this.mContactModel = contactModel;
         this.mUserModel = infoModel;
         this.mChatID = chatId;
         this.throughChat = throughChat;
-        mUpdater = updater;
     }
 
     @Override
@@ -93,7 +89,6 @@ public class ContactDetailDialog extends DialogFragment {
         Button deleteButton = view.findViewById(R.id.contact_detail_delete_button);
         deleteButton.setOnClickListener(v -> {
             mContactModel.deleteContact(mUserModel.getmJwt(), mContact.getMemberID());
-            mUpdater.deleteContact();
             dismiss();
         });
 
@@ -61,7 +61,7 @@ public class ContactListFragment extends Fragment  {
             mThroughChat = args.getThroughChat();
         }
 
-        mModel.connectGet(mInfoModel.getmJwt());
+        mModel.connectSync(mInfoModel.getmJwt());
 
         mModel.connectPusher(mInfoModel.getmJwt(), mInfoModel.getEmail());
     }
@@ -81,15 +81,14 @@ public class ContactListFragment extends Fragment  {
 
         FloatingActionButton fab = view.findViewById(R.id.contact_add_float_button);
 
-        mModel.addContactListObserver(getViewLifecycleOwner(), contactList -> {
-                binding.listRoot.setAdapter(
-                new ContactRecyclerViewAdapter(contactList, this.getContext(),
-                        getChildFragmentManager(), mInfoModel, mModel, mChatID, mThroughChat));
-                fab.setOnClickListener(v -> {
-                    ContactAddDialog dialog = new ContactAddDialog(mInfoModel, mModel);
-                    dialog.show(getChildFragmentManager(), "add");
-                });
-
+        ContactRecyclerViewAdapter adapter = new ContactRecyclerViewAdapter(this.getContext(),
+                getChildFragmentManager(), mInfoModel, mModel, mChatID, mThroughChat);
+        binding.listRoot.setAdapter(adapter);
+        fab.setOnClickListener(v -> {
+            ContactAddDialog dialog = new ContactAddDialog(mInfoModel, mModel);
+            dialog.show(getChildFragmentManager(), "add");
         });
+
+        mModel.addContactListObserver(getViewLifecycleOwner(), adapter::submitList);
     }
 }
\ No newline at end of file
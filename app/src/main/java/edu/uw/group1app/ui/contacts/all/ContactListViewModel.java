@@ -1,6 +1,8 @@
 package edu.uw.group1app.ui.contacts.all;
 
 import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
@@ -9,47 +11,76 @@ import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Observer;
 
-import com.android.volley.DefaultRetryPolicy;
-import com.android.volley.Request;
 import com.android.volley.VolleyError;
-import com.android.volley.toolbox.JsonObjectRequest;
-import com.android.volley.toolbox.Volley;
 import com.pusher.pushnotifications.BeamsCallback;
 import com.pusher.pushnotifications.PushNotifications;
 import com.pusher.pushnotifications.PusherCallbackError;
 import com.pusher.pushnotifications.auth.AuthData;
-import com.pusher.pushnotifications.auth.AuthDataGetter;
 import com.pusher.pushnotifications.auth.BeamsTokenProvider;
 
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.nio.charset.Charset;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
-import edu.uw.group1app.io.RequestQueueSingleton;
+import edu.uw.group1app.io.ApiClient;
+import edu.uw.group1app.ui.contacts.ContactRepository;
+import edu.uw.group1app.ui.contacts.search.ContactSearchIndex;
 
 /**
- * Contact List View Model that connect to the back-end to pull user contacts from server
- * if verified on the back-end contacts table is 1
- * user has accept the friend request hence should be in the contact list
+ * Contact List View Model for the contact, favorite and search tabs. The lists come from
+ * the ContactRepository, which keeps them on disk and syncs them with the back-end. Every
+ * change made here shows in the lists straight away and is taken back if the back-end
+ * turns it down.
+ *
+ * Searches run on a background thread once typing pauses; a query that has been typed
+ * past before its result lands is dropped.
  *
  * @author Ford Nguyen
  * @version 1.0
  */
 public class ContactListViewModel extends AndroidViewModel {
 
-    private MutableLiveData<List<Contact>> mContactList;
-    private MutableLiveData<List<Contact>> mContactListFull;
-    private MutableLiveData<List<Contact>> mFavoriteList;
+    /**
+     * How long typing has to pause before a search is run.
+     */
+    public static final long SEARCH_DELAY_MILLIS = 150;
+
+    private final ContactRepository mRepository;
     private final MutableLiveData<JSONObject> mResponse;
+    private final MutableLiveData<List<Contact>> mSearchResults;
 
+    private final ContactSearchIndex mSearchIndex;
+
+    /**
+     * Runs every update of and search against mSearchIndex, in order, off the main thread.
+     */
+    private final ExecutorService mSearchExecutor;
+
+    private final Handler mMainHandler;
+
+    /**
+     * Hands every new member list to mSearchIndex.
+     */
+    private final Observer<List<Contact>> mMemberObserver;
+
+    /**
+     * Runs mQuery, posted once typing pauses.
+     */
+    private final Runnable mPendingSearch;
+
+    private String mQuery = "";
+
+    /**
+     * Bumped by every new query or member list; a search started before that is dropped.
+     */
+    private volatile int mSearchGeneration;
 
     /**
      * Constructor for Contact List View Model
@@ -58,11 +89,20 @@ public class ContactListViewModel extends AndroidViewModel {
      */
     public ContactListViewModel(@NonNull Application application) {
         super(application);
-        mContactList = new MutableLiveData<>(new ArrayList<>());
-        mFavoriteList = new MutableLiveData<>(new ArrayList<>());
-        mContactListFull = new MutableLiveData<>(new ArrayList<>());
+        mRepository = ContactRepository.getInstance(application);
         mResponse = new MutableLiveData<>();
         mResponse.setValue(new JSONObject());
+        mSearchResults = new MutableLiveData<>(new ArrayList<>());
+
+        mSearchIndex = new ContactSearchIndex();
+        mSearchExecutor = Executors.newSingleThreadExecutor();
+        mMainHandler = new Handler(Looper.getMainLooper());
+        mPendingSearch = this::runSearch;
+        mMemberObserver = members -> {
+            mSearchExecutor.execute(() -> mSearchIndex.setContacts(members));
+            runSearch();
+        };
+        mRepository.getMembers().observeForever(mMemberObserver);
     }
 
     /**
@@ -73,20 +113,31 @@ public class ContactListViewModel extends AndroidViewModel {
      */
     public void addContactListObserver(@NonNull LifecycleOwner owner,
                                        @NonNull Observer<? super List<Contact>> observer) {
-        mContactList.observe(owner, observer);
+        mRepository.getContacts().observe(owner, observer);
     }
 
     public void addFavoriteListObserver(@NonNull LifecycleOwner owner,
                                         @NonNull Observer<? super List<Contact>> observer) {
-        mFavoriteList.observe(owner, observer);
+        mRepository.getFavorites().observe(owner, observer);
     }
 
     public void addContactListAllObserver(@NonNull LifecycleOwner owner,
                                           @NonNull Observer<? super List<Contact>> observer) {
-        mContactListFull.observe(owner, observer);
+        mRepository.getMembers().observe(owner, observer);
     }
 
 
+    /**
+     * search result observer.
+     *
+     * @param owner    life cycle owner
+     * @param observer observer
+     */
+    public void addSearchResultObserver(@NonNull LifecycleOwner owner,
+                                        @NonNull Observer<? super List<Contact>> observer) {
+        mSearchResults.observe(owner, observer);
+    }
+
     /**
      * webservice response observer.
      *
@@ -133,63 +184,30 @@ public class ContactListViewModel extends AndroidViewModel {
     }
 
     /**
-     * connect to the webservice and get contact list
+     * load the contact, favorite and search lists from disk, and sync them with the
+     * webservice if they are out of date
      *
      * @param jwt authorization token
      */
-    public void connectGet(String jwt) {
-        String url = "https://mobileapp-group-backend.herokuapp.com/contact";
-        Request request = new JsonObjectRequest(
-                Request.Method.GET,
-                url,
-                null, // no body
-                this::handleSuccess,
-                this::handleError
-        ) {
-            @Override
-            public Map<String, String> getHeaders() {
-                Map<String, String> headers = new HashMap<>();
-                headers.put("Authorization", jwt);
-                return headers;
-            }
-        };
-        request.setRetryPolicy(new DefaultRetryPolicy(
-                10_000,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
-        //Instantiate the RequestQueue and add the request to the queue
-        Volley.newRequestQueue(getApplication().getApplicationContext())
-                .add(request);
+    public void connectSync(String jwt) {
+        mRepository.sync(jwt, this::handleError);
     }
 
     /**
-     * connect to the webservice and get favorite list
+     * search the member list once typing pauses. A blank query lists every member straight
+     * away.
      *
-     * @param jwt authorization token
+     * @param query the text typed so far
      */
-    public void connectGetFavorite(String jwt) {
-        String url = "https://mobileapp-group-backend.herokuapp.com/contact/favorite";
-        Request request = new JsonObjectRequest(
-                Request.Method.GET,
-                url,
-                null, // no body
-                this::handleSuccessFavorite,
-                this::handleError
-        ) {
-            @Override
-            public Map<String, String> getHeaders() {
-                Map<String, String> headers = new HashMap<>();
-                headers.put("Authorization", jwt);
-                return headers;
-            }
-        };
-        request.setRetryPolicy(new DefaultRetryPolicy(
-                10_000,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
-        //Instantiate the RequestQueue and add the request to the queue
-        Volley.newRequestQueue(getApplication().getApplicationContext())
-                .add(request);
+    public void search(final String query) {
+        mQuery = query;
+        mSearchGeneration++;
+        mMainHandler.removeCallbacks(mPendingSearch);
+        if (query.trim().isEmpty()) {
+            runSearch();
+        } else {
+            mMainHandler.postDelayed(mPendingSearch, SEARCH_DELAY_MILLIS);
+        }
     }
 
     /**
@@ -199,26 +217,7 @@ public class ContactListViewModel extends AndroidViewModel {
      * @param memberID to be deleted
      */
     public void deleteContact(String jwt, final int memberID) {
-        String url = "https://mobileapp-group-backend.herokuapp.com/contact/contact/" + memberID;
-        Request request = new JsonObjectRequest(
-                Request.Method.DELETE,
-                url,
-                null,
-                mResponse::setValue,
-                this::handleError) {
-            @Override
-            public Map<String, String> getHeaders() {
-                Map<String, String> headers = new HashMap<>();
-                headers.put("Authorization", jwt);
-                return headers;
-            }
-        };
-        request.setRetryPolicy(new DefaultRetryPolicy(
-                10_000,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT
-        ));
-        Volley.newRequestQueue(getApplication().getApplicationContext()).add(request);
+        mRepository.delete(jwt, memberID, mResponse::setValue, this::handleError);
     }
 
     /**
@@ -228,30 +227,7 @@ public class ContactListViewModel extends AndroidViewModel {
      * @param memberID to be favorite
      */
     public void addFavorite(final String jwt, final int memberID) {
-        String url = "https://mobileapp-group-backend.herokuapp.com/contact/favorite/" + memberID;
-
-
-        Request request = new JsonObjectRequest(
-                Request.Method.POST,
-                url,
-                null,
-                mResponse::setValue,
-                this::handleError
-        ) {
-            @Override
-            public Map<String, String> getHeaders() {
-                Map<String, String> headers = new HashMap<>();
-                headers.put("Authorization", jwt);
-                return headers;
-            }
-        };
-        request.setRetryPolicy(new DefaultRetryPolicy(
-                10_000,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
-        //Instantiate the RequestQueue and add the request to the queue
-        Volley.newRequestQueue(getApplication().getApplicationContext())
-                .add(request);
+        mRepository.favorite(jwt, memberID, mResponse::setValue, this::handleError);
     }
 
     /**
@@ -261,30 +237,7 @@ public class ContactListViewModel extends AndroidViewModel {
      * @param memberID to be un-favorite
      */
     public void unFavorite(final String jwt, final int memberID) {
-        String url = "https://mobileapp-group-backend.herokuapp.com/contact/favorite/delete/"
-                + memberID;
-
-        Request request = new JsonObjectRequest(
-                Request.Method.POST,
-                url,
-                null,
-                mResponse::setValue,
-                this::handleError
-        ) {
-            @Override
-            public Map<String, String> getHeaders() {
-                Map<String, String> headers = new HashMap<>();
-                headers.put("Authorization", jwt);
-                return headers;
-            }
-        };
-        request.setRetryPolicy(new DefaultRetryPolicy(
-                10_000,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
-        //Instantiate the RequestQueue and add the request to the queue
-        Volley.newRequestQueue(getApplication().getApplicationContext())
-                .add(request);
+        mRepository.unfavorite(jwt, memberID, mResponse::setValue, this::handleError);
     }
 
     /**
@@ -294,62 +247,18 @@ public class ContactListViewModel extends AndroidViewModel {
      * @param memberID to accept
      */
     public void acceptRequest(final String jwt, final int memberID) {
-        String url = "https://mobileapp-group-backend.herokuapp.com/contact/request/" + memberID;
-
-        Request request = new JsonObjectRequest(
-                Request.Method.POST,
-                url,
-                null,
-                mResponse::setValue,
-                this::handleError
-        ) {
-            @Override
-            public Map<String, String> getHeaders() {
-                Map<String, String> headers = new HashMap<>();
-                headers.put("Authorization", jwt);
-                return headers;
-            }
-        };
-        request.setRetryPolicy(new DefaultRetryPolicy(
-                10_000,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
-        //Instantiate the RequestQueue and add the request to the queue
-        Volley.newRequestQueue(getApplication().getApplicationContext())
-                .add(request);
+        mRepository.accept(jwt, memberID, mResponse::setValue, this::handleError);
     }
 
-    public void declineRequest(final String jwt, final String username) {
-        String url = "https://mobileapp-group-backend.herokuapp.com/contact/decline";
-
-        JSONObject body = new JSONObject();
-        try {
-            body.put("userName", username);
-        } catch (JSONException e) {
-            e.printStackTrace();
-        }
-
-        Request request = new JsonObjectRequest(
-                Request.Method.POST,
-                url,
-                body,
-                mResponse::setValue,
-                this::handleError
-        ) {
-            @Override
-            public Map<String, String> getHeaders() {
-                Map<String, String> headers = new HashMap<>();
-                headers.put("Authorization", jwt);
-                return headers;
-            }
-        };
-        request.setRetryPolicy(new DefaultRetryPolicy(
-                10_000,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
-        //Instantiate the RequestQueue and add the request to the queue
-        Volley.newRequestQueue(getApplication().getApplicationContext())
-                .add(request);
+    /**
+     * Decline friend request
+     *
+     * @param jwt      JWT
+     * @param memberID to decline
+     * @param username of the member who sent the request
+     */
+    public void declineRequest(final String jwt, final int memberID, final String username) {
+        mRepository.decline(jwt, memberID, username, mResponse::setValue, this::handleError);
     }
 
 
@@ -360,186 +269,14 @@ public class ContactListViewModel extends AndroidViewModel {
      * @param username the username.
      */
     public void addFriend(final String jwt, final String username) {
-
-        String url = "https://mobileapp-group-backend.herokuapp.com/contact/add";
-
-        JSONObject body = new JSONObject();
-        try {
-            body.put("userName", username);
-        } catch (JSONException e) {
-            e.printStackTrace();
-        }
-
-        Request request = new JsonObjectRequest(
-                Request.Method.POST,
-                url,
-                body,
-                mResponse::setValue,
-                this::handleError
-        ) {
-            @Override
-            public Map<String, String> getHeaders() {
-                Map<String, String> headers = new HashMap<>();
-                headers.put("Authorization", jwt);
-                return headers;
-            }
-        };
-        request.setRetryPolicy(new DefaultRetryPolicy(
-                10_000,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
-        //Instantiate the RequestQueue and add the request to the queue
-        Volley.newRequestQueue(getApplication().getApplicationContext())
-                .add(request);
-
-    }
-
-    /**
-     * connect to the webservice and get contact list
-     *
-     * @param jwt authorization token
-     */
-    public void connectGetAll(String jwt) {
-        String url = "https://mobileapp-group-backend.herokuapp.com/contact/all";
-        Request request = new JsonObjectRequest(
-                Request.Method.GET,
-                url,
-                null, // no body
-                this::handleSuccessAll,
-                this::handleError
-        ) {
-            @Override
-            public Map<String, String> getHeaders() {
-                Map<String, String> headers = new HashMap<>();
-                headers.put("Authorization", jwt);
-                return headers;
-            }
-        };
-        request.setRetryPolicy(new DefaultRetryPolicy(
-                10_000,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
-        //Instantiate the RequestQueue and add the request to the queue
-        Volley.newRequestQueue(getApplication().getApplicationContext())
-                .add(request);
-    }
-
-    private void handleSuccessAll(JSONObject jsonObject) {
-        ArrayList<Contact> temp = new ArrayList<>();
-        try {
-            JSONArray contacts = jsonObject.getJSONArray("contacts");
-            for (int i = 0; i < contacts.length(); i++) {
-                JSONObject contact = contacts.getJSONObject(i);
-                String email = contact.getString("email");
-                String firstName = contact.getString("firstName");
-                String lastName = contact.getString("lastName");
-                String username = contact.getString("userName");
-                int memberID = contact.getInt("memberId");
-                Contact entry = new Contact(email, firstName, lastName, username, memberID);
-                temp.add(entry);
-            }
-        } catch (JSONException e) {
-            Log.e("JSON PARSE ERROR", "Found in handle Success ContactViewModel");
-            Log.e("JSON PARSE ERROR", "Error: " + e.getMessage());
-        }
-        mContactListFull.setValue(temp);
-    }
-
-
-    /**
-     * handle a success connection to the back-end
-     *
-     * @param result result
-     */
-    private void handleSuccess(final JSONObject result) {
-        ArrayList<Contact> temp = new ArrayList<>();
-        try {
-            JSONArray contacts = result.getJSONArray("contacts");
-            for (int i = 0; i < contacts.length(); i++) {
-                JSONObject contact = contacts.getJSONObject(i);
-                int verified = contact.getInt("verified");
-                if (verified == 1) {
-                    String email = contact.getString("email");
-                    String firstName = contact.getString("firstName");
-                    String lastName = contact.getString("lastName");
-                    String username = contact.getString("userName");
-                    int memberID = contact.getInt("memberId");
-
-                    Contact entry = new Contact(email, firstName, lastName, username, memberID);
-                    temp.add(entry);
-                }
-            }
-        } catch (JSONException e) {
-            Log.e("JSON PARSE ERROR", "Found in handle Success ContactViewModel");
-            Log.e("JSON PARSE ERROR", "Error: " + e.getMessage());
-        }
-        mContactList.setValue(temp);
-    }
-
-    /**
-     * handle a success connection to the back-end
-     *
-     * @param result result
-     */
-    private void handleSuccessFavorite(final JSONObject result) {
-        ArrayList<Contact> temp = new ArrayList<>();
-        try {
-            JSONArray contacts = result.getJSONArray("contacts");
-            for (int i = 0; i < contacts.length(); i++) {
-                JSONObject contact = contacts.getJSONObject(i);
-                int favorite = contact.getInt("favorite");
-                if (favorite == 1) {
-                    String email = contact.getString("email");
-                    String firstName = contact.getString("firstName");
-                    String lastName = contact.getString("lastName");
-                    String username = contact.getString("userName");
-                    int memberID = contact.getInt("memberId");
-
-                    Contact entry = new Contact(email, firstName, lastName, username, memberID);
-                    temp.add(entry);
-                }
-            }
-        } catch (JSONException e) {
-            Log.e("JSON PARSE ERROR", "Found in handle Success ContactViewModel");
-            Log.e("JSON PARSE ERROR", "Error: " + e.getMessage());
-        }
-        mFavoriteList.setValue(temp);
+        ApiClient.getInstance(getApplication())
+                .addFriend(jwt, username, mResponse::setValue, this::handleError);
     }
 
     public void putContactMembers(final String jwt, int chatID, int memberID) throws JSONException {
-        String url = "https://mobileapp-group-backend.herokuapp.com/addcontactmember/" + chatID  + "/" + memberID;
-        System.out.println("Adding Contact To Chat, Member ID: ");
-        JSONObject body = new JSONObject();
-        try {
-            body.put("memberid", memberID);
-        } catch (JSONException e) {
-            e.printStackTrace();
-        }
-        System.out.println(body.toString());
-
-        Request request = new JsonObjectRequest(
-                Request.Method.PUT,
-                url,
-                body, //push token found in the JSONObject body
-                mResponse::setValue,
-                this::handleChatError) {
-
-            @Override
-            public Map<String, String> getHeaders() {
-                Map<String, String> headers = new HashMap<>();
-                // add headers <key,value>
-                headers.put("Authorization", jwt);
-                return headers;
-            }
-        };
-
-        request.setRetryPolicy(new DefaultRetryPolicy(
-                10_000,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
-        //Instantiate the RequestQueue and add the request to the queue
-        RequestQueueSingleton.getInstance(getApplication().getApplicationContext())
-                .addToRequestQueue(request);
+        ApiClient.getInstance(getApplication())
+                .addContactToChat(jwt, chatID, memberID, mResponse::setValue,
+                        this::handleChatError);
     }
 
     /**
@@ -578,6 +315,31 @@ public class ContactListViewModel extends AndroidViewModel {
     }
 
     public List<Contact> getList() {
-        return this.mContactListFull.getValue();
+        return mRepository.getMembers().getValue();
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        mRepository.getMembers().removeObserver(mMemberObserver);
+        mMainHandler.removeCallbacks(mPendingSearch);
+        mSearchExecutor.shutdown();
+    }
+
+    private void runSearch() {
+        mMainHandler.removeCallbacks(mPendingSearch);
+        final int generation = ++mSearchGeneration;
+        final String query = mQuery;
+        mSearchExecutor.execute(() -> {
+            if (generation != mSearchGeneration) {
+                return;
+            }
+            List<Contact> result = mSearchIndex.search(query);
+            mMainHandler.post(() -> {
+                if (generation == mSearchGeneration) {
+                    mSearchResults.setValue(result);
+                }
+            });
+        });
     }
 }
\ No newline at end of file
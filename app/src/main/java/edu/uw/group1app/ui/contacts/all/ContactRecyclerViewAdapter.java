@@ -13,23 +13,43 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.annotation.RequiresApi;
 import androidx.fragment.app.FragmentManager;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import edu.uw.group1app.R;
 import edu.uw.group1app.model.UserInfoViewModel;
 
 /**
- * Contact List Fragment Recycle View Adapter
+ * Contact List Fragment Recycle View Adapter. Each new contact list is handed over with
+ * submitList(); the difference from the last one is worked out off the main thread and
+ * rows keep their member id as a stable id, so only the contacts that changed are bound
+ * again.
  * @author Ford Nguyen
- * @version 2.0
+ * @version 3.0
  */
 public class ContactRecyclerViewAdapter extends
-        RecyclerView.Adapter<ContactRecyclerViewAdapter.ContactViewHolder> {
+        ListAdapter<Contact, ContactRecyclerViewAdapter.ContactViewHolder> {
+
+    /**
+     * Matches rows by member id and rebinds one only when the contact's details changed.
+     * The favorite list uses it as well.
+     */
+    public static final DiffUtil.ItemCallback<Contact> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<Contact>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull Contact oldItem,
+                                               @NonNull Contact newItem) {
+                    return oldItem.getMemberID() == newItem.getMemberID();
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull Contact oldItem,
+                                                  @NonNull Contact newItem) {
+                    return oldItem.equals(newItem);
+                }
+            };
 
-    private final List<Contact> mContacts;
     private final Context mContext;
     private final FragmentManager mFragMan;
     private final UserInfoViewModel mUserModel;
@@ -38,18 +58,24 @@ public class ContactRecyclerViewAdapter extends
     private final boolean mThroughChat;
 
 
-    public ContactRecyclerViewAdapter(List<Contact> contacts, Context context, FragmentManager fm,
+    public ContactRecyclerViewAdapter(Context context, FragmentManager fm,
                                       UserInfoViewModel userModel,
                                       ContactListViewModel viewModel,
                                       int chatID,
                                       boolean throughChat) {
-        this.mContacts = contacts;
+        super(DIFF_CALLBACK);
         this.mContext = context;
         this.mFragMan = fm;
         this.mUserModel = userModel;
         this.mViewModel = viewModel;
         this.mChatID = chatID;
         this.mThroughChat = throughChat;
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getMemberID();
     }
 
     @NonNull
@@ -67,12 +93,7 @@ public class ContactRecyclerViewAdapter extends
     @RequiresApi(api = Build.VERSION_CODES.Q)
     @Override
     public void onBindViewHolder(@NonNull ContactViewHolder holder, int position) {
-        holder.setContact(mContacts.get(position));
-    }
-
-    @Override
-    public int getItemCount() {
-        return mContacts.size();
+        holder.setContact(getItem(position));
     }
 
     public class ContactViewHolder extends RecyclerView.ViewHolder  {
@@ -89,11 +110,8 @@ public class ContactRecyclerViewAdapter extends
 
             v.setOnClickListener(view -> {
                 ContactDetailDialog dialog = new ContactDetailDialog(mContact, mViewModel,
-                        mUserModel, mChatID, mThroughChat, this);
+                        mUserModel, mChatID, mThroughChat);
                 dialog.show(mFragMan, "detail");
-                if(!dialog.isVisible()) {
-                    notifyDataSetChanged();
-                }
             });
         }
 
@@ -118,7 +136,6 @@ public class ContactRecyclerViewAdapter extends
                 popupMenu.setOnMenuItemClickListener(item -> {
                     if (item.getItemId() == R.id.favorite_pop_menu) {
                         mViewModel.addFavorite(mUserModel.getmJwt(), mContact.getMemberID());
-                        notifyDataSetChanged();
                         return true;
                     }
                     return false;
@@ -126,10 +143,5 @@ public class ContactRecyclerViewAdapter extends
                 popupMenu.show();
             });
         }
-
-        public void deleteContact(){
-            mContacts.remove(mContact);
-            notifyDataSetChanged();
-        }
     }
 }
@@ -38,7 +38,7 @@ public class ContactFavoriteListFragment extends Fragment {
         mModel = new ViewModelProvider(getActivity()).get(ContactListViewModel.class);
 
         mUser = new ViewModelProvider(getActivity()).get(UserInfoViewModel.class);
-        mModel.connectGetFavorite(mUser.getmJwt());
+        mModel.connectSync(mUser.getmJwt());
     }
 
     @Override
@@ -47,10 +47,9 @@ public class ContactFavoriteListFragment extends Fragment {
         FragmentContactFavoriteListBinding binding = FragmentContactFavoriteListBinding
                 .bind(getView());
 
-        mModel.addFavoriteListObserver(getViewLifecycleOwner(), contactList ->
-                binding.listRoot.setAdapter(
-                    new ContactFavoriteRecyclerViewAdapter(contactList, this.getContext(),
-                            mUser, mModel)
-        ));
+        ContactFavoriteRecyclerViewAdapter adapter =
+                new ContactFavoriteRecyclerViewAdapter(this.getContext(), mUser, mModel);
+        binding.listRoot.setAdapter(adapter);
+        mModel.addFavoriteListObserver(getViewLifecycleOwner(), adapter::submitList);
     }
 }
\ No newline at end of file
@@ -12,36 +12,42 @@ import androidx.annotation.NonNull;
 import androidx.annotation.RequiresApi;
 import androidx.fragment.app.FragmentManager;
 import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import edu.uw.group1app.R;
 import edu.uw.group1app.model.UserInfoViewModel;
 import edu.uw.group1app.ui.contacts.all.Contact;
 import edu.uw.group1app.ui.contacts.all.ContactListViewModel;
+import edu.uw.group1app.ui.contacts.all.ContactRecyclerViewAdapter;
 
 /**
- * Contact List Fragment Recycle View Adapter
+ * Contact List Fragment Recycle View Adapter. Like the contact list, each new favorite
+ * list is handed over with submitList(), so favoriting or unfavoriting one contact only
+ * adds or removes its row.
  * @author Ford Nguyen
- * @version 1.0
+ * @version 2.0
  */
 public class ContactFavoriteRecyclerViewAdapter extends
-        RecyclerView.Adapter<ContactFavoriteRecyclerViewAdapter.ContactViewHolder> {
+        ListAdapter<Contact, ContactFavoriteRecyclerViewAdapter.ContactViewHolder> {
 
-    private List<Contact> mContacts;
     private Context mContext;
     private UserInfoViewModel mUserModel;
     private ContactListViewModel mContactModel;
 
-    public ContactFavoriteRecyclerViewAdapter(List<Contact> contacts, Context context,
+    public ContactFavoriteRecyclerViewAdapter(Context context,
                                               UserInfoViewModel userModel,
                                               ContactListViewModel viewModel) {
-        this.mContacts = contacts;
+        super(ContactRecyclerViewAdapter.DIFF_CALLBACK);
         this.mContext = context;
         this.mUserModel = userModel;
         this.mContactModel = viewModel;
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getMemberID();
     }
 
     @NonNull
@@ -58,12 +64,7 @@ public class ContactFavoriteRecyclerViewAdapter extends
     @RequiresApi(api = Build.VERSION_CODES.Q)
     @Override
     public void onBindViewHolder(@NonNull ContactViewHolder holder, int position) {
-        holder.setContact(mContacts.get(position));
-    }
-
-    @Override
-    public int getItemCount() {
-        return mContacts.size();
+        holder.setContact(getItem(position));
     }
 
     public class ContactViewHolder extends RecyclerView.ViewHolder {
@@ -99,14 +100,7 @@ public class ContactFavoriteRecyclerViewAdapter extends
 
             deleteButton.setOnClickListener(v -> {
                 mContactModel.unFavorite(mUserModel.getmJwt(), mContact.getMemberID());
-                mContacts.remove(mContact);
-                notifyDataSetChanged();
             });
         }
-
-        public void removeContact(final Contact contact) {
-            mContacts.remove(contact);
-            notifyDataSetChanged();
-        }
     }
 }
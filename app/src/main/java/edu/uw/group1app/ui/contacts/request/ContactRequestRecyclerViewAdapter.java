@@ -89,17 +89,11 @@ public class ContactRequestRecyclerViewAdapter extends
             acceptImageButton.setOnClickListener(v -> {
 
                 mViewModel.acceptRequest(mInfoModel.getmJwt(), mRequest.getMemberID());
-                // Notify change to data set
-                mFriendRequest.remove(mRequest);
-                notifyDataSetChanged();
             });
             //Decline button on click listener
             declineImageButton.setOnClickListener(v -> {
-                mViewModel.declineRequest(mInfoModel.getmJwt(),
-                        usernameTextView.getText().toString());
-                // Notify change to data set
-                mFriendRequest.remove(mRequest);
-                notifyDataSetChanged();
+                mViewModel.declineRequest(mInfoModel.getmJwt(), mRequest.getMemberID(),
+                        mRequest.getUsername());
             });
         }
     }
@@ -0,0 +1,255 @@
+package edu.uw.group1app.ui.contacts.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import edu.uw.group1app.ui.contacts.all.Contact;
+
+/**
+ * Search index over a contact list. Every contact's first name, last name, username and
+ * email are split into lower-case, accent-free words, kept in a sorted map so the words
+ * starting with what the user has typed can be found without scanning every contact.
+ *
+ * A contact matches a query when every word of the query starts one of its words, so
+ * "jo sm" finds John Smith and "jsmith@uw" finds him by email. When the query only extends
+ * the previous one, the previous matches are narrowed down instead of searching again.
+ *
+ * Safe to call from any thread; ContactListViewModel updates and searches it from its
+ * search thread.
+ */
+public final class ContactSearchIndex {
+
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern WORD_BREAK = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * One indexed contact and the words it is found by.
+     */
+    private static final class Entry {
+        private final String[] mWords;
+        private Contact mContact;
+
+        /**
+         * Where the contact is in the list given to setContacts, so matches keep its order.
+         */
+        private int mPosition;
+
+        Entry(final Contact contact, final String[] words) {
+            mContact = contact;
+            mWords = words;
+        }
+
+        boolean matches(final String[] terms) {
+            for (String term : terms) {
+                if (!startsAny(term)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean startsAny(final String term) {
+            for (String word : mWords) {
+                if (word.startsWith(term)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Every indexed contact, keyed by member id.
+     */
+    private Map<Integer, Entry> mEntries = new HashMap<>();
+
+    /**
+     * Every word in sorted order, and the contacts it belongs to.
+     */
+    private final TreeMap<String, Set<Entry>> mWords = new TreeMap<>();
+
+    /**
+     * Every indexed contact, by position.
+     */
+    private Entry[] mByPosition = new Entry[0];
+
+    /**
+     * The words of the last query and what it matched, to narrow down from.
+     */
+    private String[] mLastTerms;
+    private List<Entry> mLastMatches;
+
+    /**
+     * Index a new contact list. Only the contacts that were added or changed since the
+     * last list are split into words again.
+     *
+     * @param contacts the contacts to search, in the order matches should be listed
+     */
+    public synchronized void setContacts(final List<Contact> contacts) {
+        Map<Integer, Entry> entries = new HashMap<>(contacts.size() * 2);
+        Entry[] byPosition = new Entry[contacts.size()];
+        for (int i = 0; i < contacts.size(); i++) {
+            Contact contact = contacts.get(i);
+            Entry entry = mEntries.remove(contact.getMemberID());
+            if (entry != null && !entry.mContact.equals(contact)) {
+                unindex(entry);
+                entry = null;
+            }
+            if (entry == null) {
+                entry = new Entry(contact, words(contact));
+                index(entry);
+            }
+            entry.mContact = contact;
+            entry.mPosition = i;
+            entries.put(contact.getMemberID(), entry);
+            byPosition[i] = entry;
+        }
+        // whatever is left was not in the new list
+        for (Entry gone : mEntries.values()) {
+            unindex(gone);
+        }
+        mEntries = entries;
+        mByPosition = byPosition;
+        mLastTerms = null;
+        mLastMatches = null;
+    }
+
+    /**
+     * Find the contacts matching what the user has typed.
+     *
+     * @param query the text typed so far
+     * @return the matching contacts in list order, or every contact if the query is blank
+     */
+    public synchronized List<Contact> search(final CharSequence query) {
+        String[] terms = split(query == null ? "" : query.toString());
+        if (terms.length == 0) {
+            mLastTerms = null;
+            mLastMatches = null;
+            List<Contact> all = new ArrayList<>(mByPosition.length);
+            for (Entry entry : mByPosition) {
+                all.add(entry.mContact);
+            }
+            return all;
+        }
+
+        List<Entry> candidates = refines(mLastTerms, terms) ? mLastMatches : lookup(terms);
+        List<Entry> matches = new ArrayList<>();
+        for (Entry entry : candidates) {
+            if (entry.matches(terms)) {
+                matches.add(entry);
+            }
+        }
+        mLastTerms = terms;
+        mLastMatches = matches;
+
+        List<Contact> result = new ArrayList<>(matches.size());
+        for (Entry entry : matches) {
+            result.add(entry.mContact);
+        }
+        return result;
+    }
+
+    /**
+     * Find the contacts with a word starting the longest query term, the one likely to
+     * match the fewest, in list order.
+     */
+    private List<Entry> lookup(final String[] terms) {
+        String longest = terms[0];
+        for (String term : terms) {
+            if (term.length() > longest.length()) {
+                longest = term;
+            }
+        }
+        // marking positions drops duplicates and puts the candidates back in list order
+        BitSet positions = new BitSet(mByPosition.length);
+        // every word starting with longest sorts between longest and longest + MAX_VALUE
+        for (Set<Entry> owners
+                : mWords.subMap(longest, longest + Character.MAX_VALUE).values()) {
+            for (Entry owner : owners) {
+                positions.set(owner.mPosition);
+            }
+        }
+        List<Entry> candidates = new ArrayList<>(positions.cardinality());
+        for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+            candidates.add(mByPosition[i]);
+        }
+        return candidates;
+    }
+
+    /**
+     * Whether everything matching terms also matched previous, i.e. each previous term
+     * has only been typed further.
+     */
+    private static boolean refines(final String[] previous, final String[] terms) {
+        if (previous == null || terms.length < previous.length) {
+            return false;
+        }
+        for (int i = 0; i < previous.length; i++) {
+            if (!terms[i].startsWith(previous[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void index(final Entry entry) {
+        for (String word : entry.mWords) {
+            Set<Entry> owners = mWords.get(word);
+            if (owners == null) {
+                owners = new HashSet<>();
+                mWords.put(word, owners);
+            }
+            owners.add(entry);
+        }
+    }
+
+    private void unindex(final Entry entry) {
+        for (String word : entry.mWords) {
+            Set<Entry> owners = mWords.get(word);
+            if (owners != null) {
+                owners.remove(entry);
+                if (owners.isEmpty()) {
+                    mWords.remove(word);
+                }
+            }
+        }
+    }
+
+    private static String[] words(final Contact contact) {
+        Set<String> words = new LinkedHashSet<>();
+        Collections.addAll(words, split(contact.getFirstName()));
+        Collections.addAll(words, split(contact.getLastName()));
+        Collections.addAll(words, split(contact.getUsername()));
+        Collections.addAll(words, split(contact.getEmail()));
+        return words.toArray(new String[0]);
+    }
+
+    /**
+     * Split text into lower-case words without accents, so a name is found whether or not
+     * its accents are typed.
+     */
+    private static String[] split(final String text) {
+        String plain = ACCENTS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> words = new ArrayList<>();
+        for (String word : WORD_BREAK.split(plain)) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+}
@@ -11,13 +11,9 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import edu.uw.group1app.R;
 import edu.uw.group1app.databinding.FragmentSearchBinding;
 import edu.uw.group1app.model.UserInfoViewModel;
-import edu.uw.group1app.ui.contacts.all.Contact;
 import edu.uw.group1app.ui.contacts.all.ContactListViewModel;
 
 /**
@@ -36,7 +32,7 @@ public class SearchFragment extends Fragment {
         mModel = new ViewModelProvider(getActivity()).get(ContactListViewModel.class);
         mUser = new ViewModelProvider(getActivity()).get(UserInfoViewModel.class);
 
-        mModel.connectGetAll(mUser.getmJwt());
+        mModel.connectSync(mUser.getmJwt());
 
     }
 
@@ -52,24 +48,22 @@ public class SearchFragment extends Fragment {
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
         FragmentSearchBinding binding = FragmentSearchBinding.bind(getView());
-        mModel.addContactListAllObserver(getViewLifecycleOwner(), contactList -> {
-            SearchRecyclerViewAdapter adapter = new SearchRecyclerViewAdapter(contactList, mUser, mModel);
-            binding.listRoot.setAdapter(adapter);
-            binding.searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
-                @Override
-                public boolean onQueryTextSubmit(String query) {
-                    return false;
-                }
-
-                @Override
-                public boolean onQueryTextChange(String newText) {
-                    adapter.getFilter().filter(newText);
-                    return false;
-                }
-            });
+        SearchRecyclerViewAdapter adapter = new SearchRecyclerViewAdapter(mUser, mModel);
+        binding.listRoot.setAdapter(adapter);
+        binding.searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+            @Override
+            public boolean onQueryTextSubmit(String query) {
+                return false;
             }
 
-        );
+            @Override
+            public boolean onQueryTextChange(String newText) {
+                mModel.search(newText);
+                return false;
+            }
+        });
+        mModel.search(binding.searchView.getQuery().toString());
+        mModel.addSearchResultObserver(getViewLifecycleOwner(), adapter::submitList);
     }
 
-}
\ No newline at end of file
+}
@@ -2,46 +2,59 @@ package edu.uw.group1app.ui.contacts.search;
 
 import android.content.Context;
 import android.view.LayoutInflater;
-import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.Filter;
-import android.widget.Filterable;
 import android.widget.ImageButton;
-import android.widget.SearchView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import edu.uw.group1app.R;
 import edu.uw.group1app.model.UserInfoViewModel;
 import edu.uw.group1app.ui.contacts.all.Contact;
 import edu.uw.group1app.ui.contacts.all.ContactListViewModel;
 
-public class SearchRecyclerViewAdapter  extends
-        RecyclerView.Adapter<SearchRecyclerViewAdapter.SearchViewHolder> implements Filterable{
+/**
+ * Adapter for the search results. Each new result list is handed over with submitList();
+ * the difference from the last one is worked out off the main thread so only the rows
+ * that changed are bound again.
+ *
+ * @author Ford Nguyen
+ * @version 2.0
+ */
+public class SearchRecyclerViewAdapter
+        extends ListAdapter<Contact, SearchRecyclerViewAdapter.SearchViewHolder> {
+
+    private static final DiffUtil.ItemCallback<Contact> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<Contact>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull Contact oldItem,
+                                               @NonNull Contact newItem) {
+                    return oldItem.getMemberID() == newItem.getMemberID();
+                }
 
-    private List<Contact> mContacts;
-    private List<Contact> mContactsFull;
-    private UserInfoViewModel mUserModel;
-    private ContactListViewModel mViewModel;
+                @Override
+                public boolean areContentsTheSame(@NonNull Contact oldItem,
+                                                  @NonNull Contact newItem) {
+                    return oldItem.equals(newItem);
+                }
+            };
 
+    private final UserInfoViewModel mUserModel;
+    private final ContactListViewModel mViewModel;
 
-    public SearchRecyclerViewAdapter(List<Contact> contacts, UserInfoViewModel userModel,
+    public SearchRecyclerViewAdapter(UserInfoViewModel userModel,
                                      ContactListViewModel viewModel) {
-        this.mContacts = contacts;
-        this.mContactsFull = new ArrayList<>(contacts);
+        super(DIFF_CALLBACK);
         this.mUserModel = userModel;
         this.mViewModel = viewModel;
     }
 
-
-
-
+    @NonNull
+    @Override
     public SearchViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         Context context = parent.getContext();
         LayoutInflater inflater = LayoutInflater.from(context);
@@ -53,29 +66,21 @@ public class SearchRecyclerViewAdapter  extends
 
     @Override
     public void onBindViewHolder(@NonNull SearchViewHolder holder, int position) {
-        Contact currentItem = mContacts.get(position);
+        Contact currentItem = getItem(position);
         holder.usernameTextView.setText(currentItem.getEmail());
         holder.nameTextView.setText(currentItem.getFirstName() + " " + currentItem.getLastName());
+        // the holder may have been used for a contact already sent a request
+        holder.addButton.setVisibility(View.VISIBLE);
         holder.addButton.setOnClickListener(v -> {
             holder.addButton.setVisibility(View.GONE);
-            //holder.addButton.setClickable(false);
-            mViewModel.addFriend(mUserModel.getmJwt(), mContacts.get(position).getUsername());
+            mViewModel.addFriend(mUserModel.getmJwt(), currentItem.getUsername());
         });
     }
 
-    @Override
-    public int getItemCount() {
-        return mContacts.size();
-    }
-
-
-
-
     public class SearchViewHolder extends RecyclerView.ViewHolder {
         private final TextView nameTextView;
         private final TextView usernameTextView;
         private final ImageButton addButton;
-        private Contact mContact;
 
         public SearchViewHolder(View view) {
             super(view);
@@ -84,41 +89,4 @@ public class SearchRecyclerViewAdapter  extends
             addButton = view.findViewById(R.id.contact_search_button);
         }
     }
-
-    @Override
-    public Filter getFilter() {
-        return searchFilter;
-    }
-
-    private Filter searchFilter = new Filter() {
-
-        @Override
-        protected FilterResults performFiltering(CharSequence constraint) {
-            List<Contact> filteredList = new ArrayList<>();
-
-            if (constraint == null || constraint.length() == 0) {
-                filteredList.addAll(mContactsFull);
-            } else {
-                String filterPattern = constraint.toString().toLowerCase().trim();
-                for (Contact contact : mContactsFull) {
-                    if (contact.getFirstName().toLowerCase().contains(filterPattern) ||
-                    contact.getLastName().toLowerCase().contains(filterPattern)) {
-                        filteredList.add(contact);
-                    }
-                }
-            }
-            FilterResults results = new FilterResults();
-            results.values = filteredList;
-            return results;
-        }
-
-        @Override
-        protected void publishResults(CharSequence constraint, FilterResults results) {
-            mContacts.clear();
-            mContacts.addAll((List<Contact>) results.values);
-            notifyDataSetChanged();
-        }
-    };
 }
-
-
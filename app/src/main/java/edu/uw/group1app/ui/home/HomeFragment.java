@@ -15,9 +15,6 @@ import android.view.ViewGroup;
 
 import com.pusher.pushnotifications.PushNotifications;
 
-import org.json.JSONException;
-import org.json.JSONObject;
-
 import edu.uw.group1app.R;
 import edu.uw.group1app.databinding.FragmentHomeBinding;
 import edu.uw.group1app.model.PushyTokenViewModel;
@@ -64,31 +61,15 @@ public class HomeFragment extends Fragment {
 
 
 
-        mZipModel.addResponseObserver(getViewLifecycleOwner(), response ->{
-            try {
-
-                //mWeatherModel.connect(response.getString("Key"));
+        mZipModel.addResponseObserver(getViewLifecycleOwner(), location ->
                 FragmentHomeBinding.bind(getView()).textViewHomeWeatherCity.setText(
-                        response.getString("LocalizedName")
-                );
-            } catch (JSONException e) {
-                e.printStackTrace();
-            }
-        });
-
-        mWeatherModel.addResponseObserver(getViewLifecycleOwner(), response ->{
-            try {
-                FragmentHomeBinding.bind(getView()).textViewHomeWeatherCond.setText(
-                        response.getString("WeatherText"));
-                JSONObject temp = response.getJSONObject("Temperature");
-                JSONObject type = temp.getJSONObject("Imperial");
-                FragmentHomeBinding.bind(getView()).textViewHomeWeatherTemp.setText(
-                        type.getString("Value"));
-                FragmentHomeBinding.bind(getView()).textViewHomeWeatherUnit.setText("F");
-            } catch (JSONException e) {
-                e.printStackTrace();
-            }
+                        location.getLocalizedName()));
 
+        mWeatherModel.addResponseObserver(getViewLifecycleOwner(), current -> {
+            FragmentHomeBinding binding = FragmentHomeBinding.bind(getView());
+            binding.textViewHomeWeatherCond.setText(current.getConditionText());
+            binding.textViewHomeWeatherTemp.setText(current.getTempText());
+            binding.textViewHomeWeatherUnit.setText(current.getUnit().getSymbol());
         });
     }
 
@@ -0,0 +1,82 @@
+package edu.uw.group1app.ui.weather;
+
+/**
+ * The current conditions at a location, in the same shape as DayPost and HourPost.
+ */
+public class CurrentPost {
+
+    private final long mEpochSeconds;
+    private final float mTemp;
+    private final TemperatureUnit mUnit;
+    private final WeatherCondition mCondition;
+
+    private final String mTempText;
+    private final String mConditionText;
+
+    public static class Builder{
+        private final long mEpochSeconds;
+        private final float mTemp;
+        private final TemperatureUnit mUnit;
+        private WeatherCondition mCondition = WeatherCondition.UNKNOWN;
+        private String mConditionText = "";
+
+        /**
+         * @param epochSeconds when the conditions were observed, in seconds since the epoch
+         * @param temp the temperature
+         * @param unit the unit temp is in
+         */
+        public Builder(long epochSeconds, float temp, TemperatureUnit unit){
+            this.mEpochSeconds = epochSeconds;
+            this.mTemp = temp;
+            this.mUnit = unit;
+        }
+
+        public Builder addCondition(WeatherCondition condition, String text){
+            this.mCondition = condition;
+            this.mConditionText = text;
+            return this;
+        }
+
+        public CurrentPost build(){
+            return new CurrentPost(this);
+        }
+    }
+
+    private CurrentPost(final Builder builder){
+        this.mEpochSeconds = builder.mEpochSeconds;
+        this.mTemp = builder.mTemp;
+        this.mUnit = builder.mUnit;
+        this.mCondition = builder.mCondition;
+        this.mConditionText = builder.mConditionText;
+        this.mTempText = mUnit.format(mTemp, mUnit);
+    }
+
+    public long getEpochSeconds(){
+        return mEpochSeconds;
+    }
+
+    public TemperatureUnit getUnit(){
+        return mUnit;
+    }
+
+    public float getTemp(final TemperatureUnit unit){
+        return unit.convert(mTemp, mUnit);
+    }
+
+    public String getTempText(){
+        return mTempText;
+    }
+
+    public String getTempText(final TemperatureUnit unit){
+        return unit == mUnit ? mTempText : unit.format(mTemp, mUnit);
+    }
+
+    public WeatherCondition getCondition(){
+        return mCondition;
+    }
+
+    public String getConditionText(){
+        return mConditionText;
+    }
+
+}
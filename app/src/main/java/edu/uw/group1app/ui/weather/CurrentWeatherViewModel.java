@@ -10,20 +10,10 @@ import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Observer;
 
 
-import com.android.volley.DefaultRetryPolicy;
-import com.android.volley.Request;
 import com.android.volley.VolleyError;
-import com.android.volley.toolbox.JsonArrayRequest;
-import com.android.volley.toolbox.JsonObjectRequest;
-import com.android.volley.toolbox.Volley;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
+import edu.uw.group1app.io.RequestSlot;
 
-import java.util.function.IntFunction;
-
-import edu.uw.group1app.R;
 
 /** A view model to get the current weather information from the server
  * @author Ivan Mendez
@@ -31,17 +21,19 @@ import edu.uw.group1app.R;
 public class CurrentWeatherViewModel extends AndroidViewModel {
 
 
-    private MutableLiveData<JSONObject> mDetails;
+    private MutableLiveData<CurrentPost> mDetails;
+
+    private RequestSlot mRequest;
 
     public CurrentWeatherViewModel(@NonNull Application application) {
         super(application);
 
-        mDetails = new MutableLiveData<JSONObject>();
-        mDetails.setValue(new JSONObject());
+        mDetails = new MutableLiveData<>();
+        mRequest = new RequestSlot();
     }
 
     public void addResponseObserver(@NonNull LifecycleOwner owner,
-                                    @NonNull Observer<? super JSONObject> observer) {
+                                    @NonNull Observer<? super CurrentPost> observer) {
 
         mDetails.observe(owner, observer);
     }
@@ -58,31 +50,13 @@ public class CurrentWeatherViewModel extends AndroidViewModel {
 
 
     public void connect(final String locationKey){
-        String url = "https://mobileapp-group-backend.herokuapp.com/weather";
-
-        JSONObject body = new JSONObject();
-        try{
-            body.put("locationkey", locationKey);
-        } catch (JSONException e){
-            e.printStackTrace();
-        }
-
-        Request request = new JsonObjectRequest(
-                Request.Method.POST,
-                url,
-                body,
-                mDetails::setValue,
-                this::handleError
-        );
-
-        request.setRetryPolicy(new DefaultRetryPolicy(
-                10_000,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
-        //Instantiate the RequestQueue and add the request to the queue
-        Volley.newRequestQueue(getApplication().getApplicationContext())
-                .add(request);
+        mRequest.set(WeatherRepository.getInstance(getApplication())
+                .getCurrentWeather(locationKey, mDetails::setValue, this::handleError));
     }
-}
-
 
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        mRequest.cancel();
+    }
+}
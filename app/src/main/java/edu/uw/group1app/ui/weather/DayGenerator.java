@@ -12,8 +12,9 @@ public class DayGenerator {
         DAYS = new DayPost[COUNT];
         for (int i = 0; i < DAYS.length; i++) {
             DAYS[i] = new DayPost
-                    .Builder("Wednesday", "45", "25",
-                    "Sunny","Windy")
+                    .Builder(0, "Wed", 45, 25, TemperatureUnit.FAHRENHEIT)
+                    .addDayCondition(WeatherCondition.CLEAR, "Sunny")
+                    .addNightCondition(WeatherCondition.WINDY, "Windy")
 
                     .build();
         }
@@ -1,28 +1,63 @@
 package edu.uw.group1app.ui.weather;
 
+/**
+ * One day of the five day forecast. Temperatures are kept as numbers in the unit the
+ * web service answered in, and the text to show is worked out once when the day is built
+ * so binding a row never has to format anything.
+ */
 public class DayPost {
 
-    private final String mHiTemp;
-    private final String mLoTemp;
-    private final String mDayCondition;
+    private final long mEpochSeconds;
+    private final float mHiTemp;
+    private final float mLoTemp;
+    private final TemperatureUnit mUnit;
+    private final WeatherCondition mDayCondition;
+    private final WeatherCondition mNightCondition;
+
     private final String mDay;
-    private final String mNightCondition;
+    private final String mHiTempText;
+    private final String mLoTempText;
+    private final String mDayConditionText;
+    private final String mNightConditionText;
 
     public static class Builder{
 
-        private final String mHiTemp;
-        private final String mLoTemp;
-        private final String mDayCondition;
+        private final long mEpochSeconds;
         private final String mDay;
-        private final String mNightCondition;
+        private final float mHiTemp;
+        private final float mLoTemp;
+        private final TemperatureUnit mUnit;
+        private WeatherCondition mDayCondition = WeatherCondition.UNKNOWN;
+        private String mDayConditionText = "";
+        private WeatherCondition mNightCondition = WeatherCondition.UNKNOWN;
+        private String mNightConditionText = "";
 
-        public Builder(String day, String hiTemp, String loTemp,
-                       String dayCond, String nightCond){
+        /**
+         * @param epochSeconds the start of the day, in seconds since the epoch
+         * @param day the day to show, e.g. "Mon"
+         * @param hiTemp the high temperature
+         * @param loTemp the low temperature
+         * @param unit the unit hiTemp and loTemp are in
+         */
+        public Builder(long epochSeconds, String day, float hiTemp, float loTemp,
+                       TemperatureUnit unit){
+            this.mEpochSeconds = epochSeconds;
             this.mDay = day;
             this.mHiTemp = hiTemp;
             this.mLoTemp = loTemp;
-            this.mDayCondition = dayCond;
-            this.mNightCondition= nightCond;
+            this.mUnit = unit;
+        }
+
+        public Builder addDayCondition(WeatherCondition condition, String text){
+            this.mDayCondition = condition;
+            this.mDayConditionText = text;
+            return this;
+        }
+
+        public Builder addNightCondition(WeatherCondition condition, String text){
+            this.mNightCondition = condition;
+            this.mNightConditionText = text;
+            return this;
         }
 
         public DayPost build(){
@@ -31,32 +66,69 @@ public class DayPost {
     }
 
     private DayPost(final Builder builder){
+        this.mEpochSeconds = builder.mEpochSeconds;
         this.mDay = builder.mDay;
         this.mHiTemp = builder.mHiTemp;
         this.mLoTemp = builder.mLoTemp;
+        this.mUnit = builder.mUnit;
         this.mDayCondition = builder.mDayCondition;
-        this.mNightCondition= builder.mNightCondition;
+        this.mDayConditionText = builder.mDayConditionText;
+        this.mNightCondition = builder.mNightCondition;
+        this.mNightConditionText = builder.mNightConditionText;
+        this.mHiTempText = mUnit.format(mHiTemp, mUnit);
+        this.mLoTempText = mUnit.format(mLoTemp, mUnit);
+    }
+
+    public long getEpochSeconds(){
+        return mEpochSeconds;
     }
 
     public String getDay(){
         return mDay;
     }
 
-    public String getHiTemp(){
-        return mHiTemp;
+    public TemperatureUnit getUnit(){
+        return mUnit;
+    }
+
+    public float getHiTemp(final TemperatureUnit unit){
+        return unit.convert(mHiTemp, mUnit);
+    }
+
+    public float getLoTemp(final TemperatureUnit unit){
+        return unit.convert(mLoTemp, mUnit);
+    }
+
+    public String getHiTempText(){
+        return mHiTempText;
+    }
+
+    public String getLoTempText(){
+        return mLoTempText;
     }
 
-    public String getLoTemp(){
-        return mLoTemp;
+    public String getHiTempText(final TemperatureUnit unit){
+        return unit == mUnit ? mHiTempText : unit.format(mHiTemp, mUnit);
     }
 
-    public String getDayCondition(){
+    public String getLoTempText(final TemperatureUnit unit){
+        return unit == mUnit ? mLoTempText : unit.format(mLoTemp, mUnit);
+    }
 
+    public WeatherCondition getDayCondition(){
         return mDayCondition;
     }
 
-    public String getNightCondition(){
+    public String getDayConditionText(){
+        return mDayConditionText;
+    }
+
+    public WeatherCondition getNightCondition(){
         return mNightCondition;
     }
 
+    public String getNightConditionText(){
+        return mNightConditionText;
+    }
+
 }
@@ -40,10 +40,6 @@ public class DayRecyclerViewAdapter extends RecyclerView.Adapter<DayRecyclerView
         return mDays.size();
     }
 
-    public void removeAllContents(){
-        mDays.clear();
-    }
-
     public class DayViewHolder extends RecyclerView.ViewHolder {
         public final View mView;
         public FragmentDayPostBinding binding;
@@ -59,10 +55,10 @@ public class DayRecyclerViewAdapter extends RecyclerView.Adapter<DayRecyclerView
         void setDay(final DayPost day){
             mDay = day;
             binding.textViewDay.setText(day.getDay());
-            binding.textViewHiTemp.setText(day.getHiTemp());
-            binding.textViewLoTemp.setText(day.getLoTemp());
-            binding.textViewDayCond.setText(day.getDayCondition());
-            binding.textViewNightCond.setText(day.getNightCondition());
+            binding.textViewHiTemp.setText(day.getHiTempText());
+            binding.textViewLoTemp.setText(day.getLoTempText());
+            binding.textViewDayCond.setText(day.getDayConditionText());
+            binding.textViewNightCond.setText(day.getNightConditionText());
 
         }
     }
@@ -46,10 +46,10 @@ public class FiveDayListFragment extends Fragment {
 
         FragmentFiveDayListBinding binding = FragmentFiveDayListBinding.bind(getView());
 
-        mModel.addResponseObserver(getViewLifecycleOwner(), dayList ->{
+        mModel.addResponseObserver(getViewLifecycleOwner(), snapshot ->{
 
                 binding.listRoot.setAdapter(
-                        new DayRecyclerViewAdapter(dayList));
+                        new DayRecyclerViewAdapter(snapshot.getItems()));
 
         });
 
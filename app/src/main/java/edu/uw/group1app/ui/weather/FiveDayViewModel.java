@@ -6,36 +6,25 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LifecycleOwner;
-import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Observer;
 
-import com.android.volley.DefaultRetryPolicy;
-import com.android.volley.Request;
 import com.android.volley.VolleyError;
-import com.android.volley.toolbox.JsonObjectRequest;
-import com.android.volley.toolbox.Volley;
-
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-import edu.uw.group1app.R;
-
-import java.util.ArrayList;
-import java.util.List;
-import java.util.function.IntFunction;
 
+import edu.uw.group1app.io.RequestSlot;
 
 public class FiveDayViewModel extends AndroidViewModel {
 
-    private MutableLiveData<List<DayPost>> mDayList;
+    private ForecastLiveData<DayPost> mDayList;
+
+    private RequestSlot mRequest;
     public FiveDayViewModel(@NonNull Application application) {
         super(application);
-        mDayList = new MutableLiveData<>();
-        mDayList.setValue(new ArrayList<>());
+        mDayList = new ForecastLiveData<>();
+        mRequest = new RequestSlot();
     }
 
     public void addResponseObserver(@NonNull LifecycleOwner owner,
-                                    @NonNull Observer<? super List<DayPost>> observer) {
+            @NonNull Observer<? super ForecastSnapshot<DayPost>> observer) {
         mDayList.observe(owner, observer);
     }
 
@@ -49,79 +38,21 @@ public class FiveDayViewModel extends AndroidViewModel {
         //throw new IllegalStateException(error.getMessage());
     }
 
-    private void handleResult(final JSONObject result){
-        IntFunction<String> getString =
-                getApplication().getResources()::getString;
-        Log.d("fivedayviewmodel handleResult result ", result.toString());
-         try{
-            JSONArray data = result.getJSONArray("DailyForecasts");
-             Log.d("fivedayviewmodel handleResult dailyforecast ", data.toString());
-
-            for(int i=0; i <data.length();i++){
-                JSONObject jsonDay = data.getJSONObject(i);
-                JSONObject temp = jsonDay.getJSONObject("Temperature");
-                JSONObject max = temp.getJSONObject("Maximum");
-                JSONObject min = temp.getJSONObject("Minimum");
-                JSONObject day = jsonDay.getJSONObject("Day");
-                JSONObject night = jsonDay.getJSONObject("Night");
-                Log.d("fivedayviewmodel handleResult data ", jsonDay.toString());
-
-                DayPost post = new DayPost.Builder(
-                        //TODO:
-                        jsonDay.getString(
-                                getString.apply(
-                                        R.string.keys_json_weather_date)),
-                        max.getString(
-                                getString.apply(
-                                        R.string.keys_json_weather_value)),
-                        min.getString(
-                                getString.apply(
-                                        R.string.keys_json_weather_value)),
-                        day.getString(
-                                getString.apply(
-                                        R.string.keys_json_weather_condition)),
-                        night.getString(
-                                getString.apply(
-                                        R.string.keys_json_weather_condition)))
-                                .build();
-                if(!mDayList.getValue().contains(post)){
-                    mDayList.getValue().add(post);
-                }
-
-            }
-        } catch(JSONException e){
-            e.printStackTrace();
-            Log.e("ERROR!", e.getMessage());
-        }
-
-
-        mDayList.setValue(mDayList.getValue());
-    }
-
+    /**
+     * Connect to the web service for the five day forecast. The days are parsed off the
+     * main thread and published as one read-only snapshot, which the home screen card and
+     * the five day list both observe. An answer that arrives after connect has been called
+     * again for another location is dropped.
+     * @param locationKey the AccuWeather location key
+     */
     public void connect(final String locationKey){
-        String url = "https://mobileapp-group-backend.herokuapp.com/fiveday";
-
-        JSONObject body = new JSONObject();
-        try{
-            body.put("locationkey", locationKey);
-        } catch (JSONException e){
-            e.printStackTrace();
-        }
-
-        Request request = new JsonObjectRequest(
-                Request.Method.POST,
-                url,
-                body,
-                this::handleResult,
-                this::handleError
-        );
+        mRequest.set(WeatherRepository.getInstance(getApplication())
+                .getFiveDay(locationKey, mDayList.expect(locationKey), this::handleError));
+    }
 
-        request.setRetryPolicy(new DefaultRetryPolicy(
-                10_000,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
-        //Instantiate the RequestQueue and add the request to the queue
-        Volley.newRequestQueue(getApplication().getApplicationContext())
-                .add(request);
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        mRequest.cancel();
     }
 }
@@ -0,0 +1,50 @@
+package edu.uw.group1app.ui.weather;
+
+import androidx.annotation.MainThread;
+import androidx.lifecycle.MutableLiveData;
+
+import com.android.volley.Response;
+
+/**
+ * Holds the forecast snapshot a screen shows, and only lets through answers for the
+ * location most recently asked for. A slow answer for a location the user has already
+ * moved away from, or an older copy arriving after a newer one, is dropped.
+ *
+ * @param <T> the forecast rows, DayPost or HourPost
+ */
+final class ForecastLiveData<T> extends MutableLiveData<ForecastSnapshot<T>> {
+
+    /**
+     * Bumped on every request, so listeners from earlier requests can tell they are stale.
+     */
+    private int mGeneration;
+
+    ForecastLiveData() {
+        super(ForecastSnapshot.empty());
+    }
+
+    /**
+     * Start expecting a forecast for a location, dropping anything still on its way for the
+     * previous one.
+     *
+     * @param locationKey the AccuWeather location key being asked for
+     * @return the listener to hand the repository
+     */
+    @MainThread
+    Response.Listener<ForecastSnapshot<T>> expect(final String locationKey) {
+        final int generation = ++mGeneration;
+        return snapshot -> {
+            if (generation != mGeneration || !locationKey.equals(snapshot.getLocationKey())) {
+                // a newer request has been made since this one
+                return;
+            }
+            ForecastSnapshot<T> shown = getValue();
+            if (shown != null && locationKey.equals(shown.getLocationKey())
+                    && shown.getFetchedAt() > snapshot.getFetchedAt()) {
+                // already showing a newer copy of this location
+                return;
+            }
+            setValue(snapshot);
+        };
+    }
+}
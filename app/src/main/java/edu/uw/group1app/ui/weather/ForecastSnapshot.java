@@ -0,0 +1,60 @@
+package edu.uw.group1app.ui.weather;
+
+import androidx.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A whole forecast for one location as it was at one fetch. Never changes once built, so
+ * the same snapshot can be cached and handed to every screen that asks for it.
+ *
+ * @param <T> the forecast rows, DayPost or HourPost
+ */
+public final class ForecastSnapshot<T> {
+
+    private static final ForecastSnapshot<?> EMPTY =
+            new ForecastSnapshot<>(null, 0, Collections.emptyList());
+
+    private final String mLocationKey;
+    private final long mFetchedAt;
+    private final List<T> mItems;
+
+    /**
+     * Constructor for ForecastSnapshot
+     *
+     * @param locationKey the AccuWeather location key the forecast is for
+     * @param fetchedAt when the forecast came from the web service, in milliseconds
+     * @param items the rows, which must not be changed afterwards
+     */
+    ForecastSnapshot(@Nullable final String locationKey, final long fetchedAt,
+                     final List<T> items) {
+        mLocationKey = locationKey;
+        mFetchedAt = fetchedAt;
+        mItems = items;
+    }
+
+    /**
+     * it returns a snapshot with no location and no rows, for before anything has loaded
+     */
+    @SuppressWarnings("unchecked")
+    static <T> ForecastSnapshot<T> empty() {
+        return (ForecastSnapshot<T>) EMPTY;
+    }
+
+    /**
+     * it returns the location key, or null for the empty snapshot
+     */
+    @Nullable
+    public String getLocationKey() {
+        return mLocationKey;
+    }
+
+    public long getFetchedAt() {
+        return mFetchedAt;
+    }
+
+    public List<T> getItems() {
+        return mItems;
+    }
+}
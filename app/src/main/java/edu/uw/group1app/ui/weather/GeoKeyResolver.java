@@ -0,0 +1,193 @@
+package edu.uw.group1app.ui.weather;
+
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.collection.LruCache;
+
+import com.android.volley.ParseError;
+import com.android.volley.Response;
+
+import org.json.JSONException;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import edu.uw.group1app.io.ApiClient;
+import edu.uw.group1app.io.Cancellable;
+
+/**
+ * Turns a coordinate into an AccuWeather location. Coordinates are snapped to a grid and
+ * every cell that has been looked up is remembered, so GPS jitter inside a cell never
+ * reaches the network. Recent cells are kept in memory and a capped number on disk; the
+ * disk is only touched on the disk executor.
+ *
+ * All methods must be called on the main thread.
+ */
+final class GeoKeyResolver {
+
+    /**
+     * Where looked up cells are kept between runs of the app.
+     */
+    interface Disk {
+
+        /**
+         * it returns the location a cell gave, or null if the cell is not kept
+         */
+        @WorkerThread
+        @Nullable
+        WeatherLocation get(String cell);
+
+        /**
+         * Keep the location a cell gave.
+         */
+        @WorkerThread
+        void put(String cell, WeatherLocation location);
+    }
+
+    /**
+     * Default cell size in degrees, about 1.1 km north to south. An AccuWeather location
+     * covers a whole town, so this is well below what changes the answer.
+     */
+    static final double DEFAULT_GRID_DEGREES = 0.01;
+
+    private static final int MEMORY_ENTRIES = 64;
+
+    private final ApiClient mApi;
+    private final double mGridDegrees;
+    private final LruCache<String, WeatherLocation> mMemory;
+    private final Disk mDisk;
+    private final Executor mDiskExecutor;
+    private final Executor mMainExecutor;
+
+    /**
+     * Lookups waiting on the disk or the web service, keyed by cell.
+     */
+    private final Map<String, SharedRequest<WeatherLocation>> mInFlight;
+
+    /**
+     * Constructor for GeoKeyResolver
+     *
+     * @param api the client to look up cells not seen before
+     * @param gridDegrees the cell size in degrees
+     * @param disk where cells are kept between runs
+     * @param diskExecutor the thread disk is read and written on
+     * @param mainExecutor posts back to the main thread
+     */
+    GeoKeyResolver(final ApiClient api, final double gridDegrees, final Disk disk,
+                   final Executor diskExecutor, final Executor mainExecutor) {
+        mApi = api;
+        mGridDegrees = gridDegrees;
+        mMemory = new LruCache<>(MEMORY_ENTRIES);
+        mDisk = disk;
+        mDiskExecutor = diskExecutor;
+        mMainExecutor = mainExecutor;
+        mInFlight = new HashMap<>();
+    }
+
+    /**
+     * Find the AccuWeather location for a coordinate.
+     *
+     * @param latitude the latitude
+     * @param longitude the longitude
+     * @param listener gets the location
+     * @param errorListener gets any lookup failure
+     * @return the handle to stop listening with
+     */
+    @MainThread
+    Cancellable resolve(final double latitude, final double longitude,
+                        final Response.Listener<WeatherLocation> listener,
+                        final Response.ErrorListener errorListener) {
+        final long row = snap(latitude, mGridDegrees);
+        final long column = snap(longitude, mGridDegrees);
+        final String cell = cellKey(row, column);
+
+        WeatherLocation known = mMemory.get(cell);
+        if (known != null) {
+            listener.onResponse(known);
+            return Cancellable.NONE;
+        }
+
+        SharedRequest<WeatherLocation> waiting = mInFlight.get(cell);
+        if (waiting != null) {
+            return waiting.join(listener, errorListener);
+        }
+        final Object tag = new Object();
+        final SharedRequest<WeatherLocation> lookup = new SharedRequest<>(() -> {
+            mInFlight.remove(cell);
+            mApi.cancelAll(tag);
+        });
+        mInFlight.put(cell, lookup);
+        Cancellable waiter = lookup.join(listener, errorListener);
+
+        mDiskExecutor.execute(() -> {
+            WeatherLocation stored = mDisk.get(cell);
+            mMainExecutor.execute(() -> {
+                if (stored != null) {
+                    mMemory.put(cell, stored);
+                }
+                if (mInFlight.get(cell) != lookup) {
+                    // every waiter gave up while the disk was read
+                    return;
+                }
+                if (stored != null) {
+                    mInFlight.remove(cell);
+                    lookup.deliver(stored);
+                } else {
+                    lookUp(cell, row, column, tag, lookup);
+                }
+            });
+        });
+        return waiter;
+    }
+
+    private void lookUp(final String cell, final long row, final long column, final Object tag,
+                        final SharedRequest<WeatherLocation> lookup) {
+        // ask about the middle of the cell so every point in it gets the same answer
+        mApi.getGeoposition(format(row * mGridDegrees), format(column * mGridDegrees), tag,
+                response -> {
+                    mInFlight.remove(cell);
+                    WeatherLocation location;
+                    try {
+                        location = WeatherLocation.fromLookup(response);
+                    } catch (JSONException e) {
+                        Log.e("JSON Parse Error", e.getMessage());
+                        lookup.fail(new ParseError(e));
+                        return;
+                    }
+                    mMemory.put(cell, location);
+                    mDiskExecutor.execute(() -> mDisk.put(cell, location));
+                    lookup.deliver(location);
+                },
+                error -> {
+                    mInFlight.remove(cell);
+                    lookup.fail(error);
+                });
+    }
+
+    /**
+     * it returns the row or column of the grid cell a latitude or longitude falls in
+     *
+     * @param degrees the latitude or longitude
+     * @param gridDegrees the cell size in degrees
+     * @return the index of the nearest cell centre
+     */
+    static long snap(final double degrees, final double gridDegrees) {
+        return Math.round(degrees / gridDegrees);
+    }
+
+    /**
+     * it returns the key a grid cell is cached under
+     */
+    static String cellKey(final long row, final long column) {
+        return row + "," + column;
+    }
+
+    private static String format(final double degrees) {
+        return String.format(Locale.US, "%.6f", degrees);
+    }
+}
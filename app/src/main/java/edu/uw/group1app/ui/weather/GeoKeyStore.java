@@ -0,0 +1,131 @@
+package edu.uw.group1app.ui.weather;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import edu.uw.group1app.R;
+
+/**
+ * On-device copy of the grid cells {@link GeoKeyResolver} has looked up, so a cell is not
+ * looked up again after the app is closed. Only the most recently used cells are kept, up
+ * to a cap, so the table stays small however far the user travels.
+ *
+ * All methods touch the disk and must be called off the main thread.
+ */
+final class GeoKeyStore extends SQLiteOpenHelper implements GeoKeyResolver.Disk {
+
+    /**
+     * Most cells kept. A cell is about a square kilometre, so this covers a lot of
+     * commuting.
+     */
+    static final int MAX_ENTRIES = 256;
+
+    private static final String DATABASE_NAME = "geo_keys.db";
+    private static final int DATABASE_VERSION = 1;
+
+    private static final String TABLE = "geo_keys";
+    private static final String COL_CELL = "cell";
+    private static final String COL_KEY = "location_key";
+    private static final String COL_NAME = "localized_name";
+    /**
+     * Counts up on every read and write, so the lowest numbers are the least recently used.
+     * A clock would give ties when cells are written within the same millisecond.
+     */
+    private static final String COL_USED = "used";
+
+    private static final String NEXT_USE = "(SELECT IFNULL(MAX(" + COL_USED + "), 0) + 1 FROM "
+            + TABLE + ")";
+
+    private final Context mContext;
+
+    /**
+     * Constructor for GeoKeyStore
+     *
+     * @param context any context
+     */
+    GeoKeyStore(final Context context) {
+        super(context.getApplicationContext(), DATABASE_NAME, null, DATABASE_VERSION);
+        mContext = context.getApplicationContext();
+    }
+
+    @Override
+    public void onCreate(final SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE + " ("
+                + COL_CELL + " TEXT PRIMARY KEY, "
+                + COL_KEY + " TEXT NOT NULL, "
+                + COL_NAME + " TEXT NOT NULL, "
+                + COL_USED + " INTEGER NOT NULL)");
+        db.execSQL("CREATE INDEX " + TABLE + "_" + COL_USED
+                + " ON " + TABLE + " (" + COL_USED + ")");
+        // cells used to be kept, without a cap, in shared preferences
+        mContext.deleteSharedPreferences(
+                mContext.getString(R.string.keys_shared_prefs_geo_keys));
+    }
+
+    @Override
+    public void onUpgrade(final SQLiteDatabase db, final int oldVersion, final int newVersion) {
+        // only a cache, so start over
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE);
+        onCreate(db);
+    }
+
+    /**
+     * it returns the location a cell gave, marking the cell as just used
+     *
+     * @param cell the cell key
+     * @return the location, or null if the cell is not stored
+     */
+    @Override
+    @WorkerThread
+    @Nullable
+    public WeatherLocation get(final String cell) {
+        SQLiteDatabase db = getWritableDatabase();
+        WeatherLocation location = null;
+        try (Cursor cursor = db.query(TABLE, new String[]{COL_KEY, COL_NAME},
+                COL_CELL + " = ?", new String[]{cell}, null, null, null)) {
+            if (cursor.moveToFirst()) {
+                location = new WeatherLocation(cursor.getString(0), cursor.getString(1));
+            }
+        }
+        if (location != null) {
+            db.execSQL("UPDATE " + TABLE + " SET " + COL_USED + " = " + NEXT_USE
+                    + " WHERE " + COL_CELL + " = ?", new Object[]{cell});
+        }
+        return location;
+    }
+
+    /**
+     * Store the location a cell gave, then drop the least recently used cells past
+     * MAX_ENTRIES.
+     *
+     * @param cell the cell key
+     * @param location the location
+     */
+    @Override
+    @WorkerThread
+    public void put(final String cell, final WeatherLocation location) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.execSQL("INSERT OR REPLACE INTO " + TABLE + " (" + COL_CELL + ", " + COL_KEY + ", "
+                + COL_NAME + ", " + COL_USED + ") VALUES (?, ?, ?, " + NEXT_USE + ")",
+                new Object[]{cell, location.getKey(), location.getLocalizedName()});
+        db.execSQL("DELETE FROM " + TABLE + " WHERE " + COL_CELL + " NOT IN (SELECT "
+                + COL_CELL + " FROM " + TABLE + " ORDER BY " + COL_USED + " DESC LIMIT "
+                + MAX_ENTRIES + ")");
+    }
+
+    /**
+     * it returns how many cells are stored
+     */
+    @WorkerThread
+    int size() {
+        try (Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT COUNT(*) FROM " + TABLE, null)) {
+            return cursor.moveToFirst() ? cursor.getInt(0) : 0;
+        }
+    }
+}
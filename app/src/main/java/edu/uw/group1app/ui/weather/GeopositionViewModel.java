@@ -9,27 +9,24 @@ import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Observer;
 
-import com.android.volley.DefaultRetryPolicy;
-import com.android.volley.Request;
 import com.android.volley.VolleyError;
-import com.android.volley.toolbox.JsonObjectRequest;
-import com.android.volley.toolbox.Volley;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import edu.uw.group1app.io.RequestSlot;
 
 public class GeopositionViewModel extends AndroidViewModel {
 
-    private MutableLiveData<JSONObject> mDetails;
+    private MutableLiveData<WeatherLocation> mDetails;
+
+    private RequestSlot mRequest;
 
     public GeopositionViewModel(@NonNull Application application) {
         super(application);
         mDetails = new MutableLiveData<>();
-        mDetails.setValue(new JSONObject());
+        mRequest = new RequestSlot();
     }
 
     public void addResponseObserver(@NonNull LifecycleOwner owner,
-                                    @NonNull Observer<? super JSONObject> observer) {
+                                    @NonNull Observer<? super WeatherLocation> observer) {
         mDetails.observe(owner, observer);
     }
 
@@ -41,31 +38,20 @@ public class GeopositionViewModel extends AndroidViewModel {
         //throw new IllegalStateException(error.getMessage());
     }
 
-    public void connect(final String latitude, final String longitude){
-        String url = "https://mobileapp-group-backend.herokuapp.com/geoposition";
-
-        JSONObject body = new JSONObject();
-        try{
-            body.put("latitude", latitude);
-            body.put("longitude", longitude);
-        } catch (JSONException e){
-            e.printStackTrace();
-        }
-
-        Request request = new JsonObjectRequest(
-                Request.Method.POST,
-                url,
-                body,
-                mDetails::setValue,
-                this::handleError
-        );
+    /**
+     * Find the AccuWeather location for a coordinate. Nearby coordinates that were looked
+     * up before are answered without a network call.
+     * @param latitude the latitude
+     * @param longitude the longitude
+     */
+    public void connect(final double latitude, final double longitude){
+        mRequest.set(WeatherRepository.getInstance(getApplication())
+                .getGeoposition(latitude, longitude, mDetails::setValue, this::handleError));
+    }
 
-        request.setRetryPolicy(new DefaultRetryPolicy(
-                10_000,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
-        //Instantiate the RequestQueue and add the request to the queue
-        Volley.newRequestQueue(getApplication().getApplicationContext())
-                .add(request);
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        mRequest.cancel();
     }
 }
@@ -12,7 +12,8 @@ public class HourGenerator {
         HOURS = new HourPost[COUNT];
         for (int i = 0; i < HOURS.length; i++) {
             HOURS[i] = new HourPost
-                    .Builder("12 PM", "45", "windy")
+                    .Builder(0, "12 PM", 45, TemperatureUnit.FAHRENHEIT)
+                    .addCondition(WeatherCondition.WINDY, "windy")
 
                     .build();
         }
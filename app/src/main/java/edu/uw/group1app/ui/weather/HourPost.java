@@ -1,20 +1,45 @@
 package edu.uw.group1app.ui.weather;
 
+/**
+ * One hour of the twelve hour forecast. Like DayPost, the temperature is kept as a number
+ * and the text to show is worked out once when the hour is built.
+ */
 public class HourPost {
 
-    private final String mTemp;
-    private final String mCondition;
+    private final long mEpochSeconds;
+    private final float mTemp;
+    private final TemperatureUnit mUnit;
+    private final WeatherCondition mCondition;
+
     private final String mHour;
+    private final String mTempText;
+    private final String mConditionText;
 
     public static class Builder{
-        private final String mTemp;
-        private final String mCondtiion;
+        private final long mEpochSeconds;
         private final String mHour;
+        private final float mTemp;
+        private final TemperatureUnit mUnit;
+        private WeatherCondition mCondition = WeatherCondition.UNKNOWN;
+        private String mConditionText = "";
 
-        public Builder(String hour, String temp, String condition){
+        /**
+         * @param epochSeconds the start of the hour, in seconds since the epoch
+         * @param hour the hour to show, e.g. "3 PM"
+         * @param temp the temperature
+         * @param unit the unit temp is in
+         */
+        public Builder(long epochSeconds, String hour, float temp, TemperatureUnit unit){
+            this.mEpochSeconds = epochSeconds;
             this.mHour = hour;
             this.mTemp = temp;
-            this.mCondtiion = condition;
+            this.mUnit = unit;
+        }
+
+        public Builder addCondition(WeatherCondition condition, String text){
+            this.mCondition = condition;
+            this.mConditionText = text;
+            return this;
         }
 
         public HourPost build(){
@@ -23,21 +48,45 @@ public class HourPost {
     }
 
     private HourPost(final Builder builder){
+        this.mEpochSeconds = builder.mEpochSeconds;
         this.mHour = builder.mHour;
         this.mTemp = builder.mTemp;
-        this.mCondition = builder.mCondtiion;
+        this.mUnit = builder.mUnit;
+        this.mCondition = builder.mCondition;
+        this.mConditionText = builder.mConditionText;
+        this.mTempText = mUnit.format(mTemp, mUnit);
+    }
+
+    public long getEpochSeconds(){
+        return mEpochSeconds;
     }
 
     public String getHour(){
         return mHour;
     }
 
-    public String getTemp(){
-        return mTemp;
+    public TemperatureUnit getUnit(){
+        return mUnit;
+    }
+
+    public float getTemp(final TemperatureUnit unit){
+        return unit.convert(mTemp, mUnit);
     }
 
-    public String getCondition(){
+    public String getTempText(){
+        return mTempText;
+    }
+
+    public String getTempText(final TemperatureUnit unit){
+        return unit == mUnit ? mTempText : unit.format(mTemp, mUnit);
+    }
+
+    public WeatherCondition getCondition(){
         return mCondition;
     }
 
+    public String getConditionText(){
+        return mConditionText;
+    }
+
 }
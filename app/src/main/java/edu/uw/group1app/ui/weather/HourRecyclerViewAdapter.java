@@ -55,8 +55,8 @@ public class HourRecyclerViewAdapter extends RecyclerView.Adapter<HourRecyclerVi
         void setHour(final HourPost hour){
             mHour = hour;
             binding.textViewHour.setText(hour.getHour());
-            binding.textViewTemp.setText(hour.getTemp());
-            binding.textViewCondition.setText(hour.getCondition());
+            binding.textViewTemp.setText(hour.getTempText());
+            binding.textViewCondition.setText(hour.getConditionText());
 
         }
     }
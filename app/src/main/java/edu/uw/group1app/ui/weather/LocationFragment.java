@@ -22,8 +22,6 @@ import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
 
-import org.json.JSONException;
-
 import edu.uw.group1app.R;
 import edu.uw.group1app.databinding.FragmentLocationBinding;
 
@@ -35,14 +33,16 @@ public class LocationFragment extends Fragment implements OnMapReadyCallback, Go
 
     private LocationViewModel mModel;
     private GeopositionViewModel mGeoModel;
-    private CurrentWeatherViewModel mWeatherModel;
-    private FiveDayHomeViewModel mFiveModel;
-    private TwelveHourHomeViewModel mTwelveModel;
-    private TwelveHourViewModel mTwelveListModel;
-    private FiveDayViewModel mFiveListModel;
 
     private GoogleMap mMap;
 
+    /**
+     * The point the user last tapped, or null before the first tap.
+     */
+    private LatLng mSelected;
+
+    private Marker mMarker;
+
     public LocationFragment() {
         // Required empty public constructor
     }
@@ -63,13 +63,19 @@ public class LocationFragment extends Fragment implements OnMapReadyCallback, Go
         mModel = new ViewModelProvider(getActivity())
                 .get(LocationViewModel.class);
         mGeoModel = new ViewModelProvider(getActivity()).get(GeopositionViewModel.class);
-        mFiveModel = new ViewModelProvider(getActivity()).get(FiveDayHomeViewModel.class);
-        mTwelveModel = new ViewModelProvider(getActivity()).get(TwelveHourHomeViewModel.class);
-        mTwelveListModel = new ViewModelProvider(getActivity()).get(TwelveHourViewModel.class);
-        mFiveListModel = new ViewModelProvider(getActivity()).get(FiveDayViewModel.class);
         mModel.addLocationObserver(getViewLifecycleOwner(), location ->
                 binding.textLatLong.setText(location.toString()));
 
+        // One lookup per press. WeatherFragment observes mGeoModel and loads the forecasts
+        // for the answer when it is shown again.
+        binding.button.setOnClickListener(v -> {
+            if (mSelected == null) {
+                return;
+            }
+            mGeoModel.connect(mSelected.latitude, mSelected.longitude);
+            Navigation.findNavController(getView()).popBackStack();
+        });
+
         // Obtain the SupportMapFragment and get notified when the map is ready to be used.
         SupportMapFragment mapFragment =
                 (SupportMapFragment) getChildFragmentManager().findFragmentById(R.id.map);
@@ -107,25 +113,12 @@ public class LocationFragment extends Fragment implements OnMapReadyCallback, Go
 
         FragmentLocationBinding binding = FragmentLocationBinding.bind(getView());
         binding.textLatLong.setText("Latitude: " + lat + ", Longitude: " +lng );
+        mSelected = latLng;
 
-        binding.button.setOnClickListener(v-> {
-            mModel.addLocationObserver(getViewLifecycleOwner(), response ->
-                    mGeoModel.connect(lat, lng));
-            mGeoModel.addResponseObserver(getViewLifecycleOwner(),response ->{
-                try {
-                    mFiveModel.connect(response.getString("Key"));
-                    mTwelveModel.connect(response.getString("Key"));
-                    mTwelveListModel.connect(response.getString("Key"));
-                    mFiveListModel.connect(response.getString("Key"));
-                } catch (JSONException e) {
-                    e.printStackTrace();
-                }
-            });
-                     // TODO: dismiss fragment
-
-        });
-
-        Marker marker = mMap.addMarker(new MarkerOptions()
+        if (mMarker != null) {
+            mMarker.remove();
+        }
+        mMarker = mMap.addMarker(new MarkerOptions()
                 .position(latLng)
                 .title("New Marker"));
         mMap.animateCamera(
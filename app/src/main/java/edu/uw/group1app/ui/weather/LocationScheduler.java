@@ -0,0 +1,167 @@
+package edu.uw.group1app.ui.weather;
+
+import android.Manifest;
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.content.pm.PackageManager;
+
+import androidx.annotation.MainThread;
+import androidx.core.content.ContextCompat;
+
+import com.google.android.gms.location.FusedLocationProviderClient;
+import com.google.android.gms.location.LocationCallback;
+import com.google.android.gms.location.LocationRequest;
+
+/**
+ * Decides how hard the fused location provider should work. Updates are only requested
+ * while something uses the location, which is a weather or map screen that is started.
+ * GPS is asked for while the activity is also resumed; while it is paused behind a dialog
+ * or another window, a coarse, infrequent request is enough. Nothing is requested at all
+ * once the activity is stopped or nothing uses the location, as on the chat and contacts
+ * tabs.
+ *
+ * All methods must be called on the main thread.
+ */
+public final class LocationScheduler {
+
+    /**
+     * The desired interval for location updates while a weather screen is visible.
+     * Inexact. Updates may be more or less frequent.
+     */
+    public static final long VISIBLE_INTERVAL_IN_MILLISECONDS = 10000;
+
+    /**
+     * The fastest rate for location updates while a weather screen is visible. Exact.
+     */
+    public static final long VISIBLE_FASTEST_INTERVAL_IN_MILLISECONDS =
+            VISIBLE_INTERVAL_IN_MILLISECONDS / 2;
+
+    /**
+     * Movement in meters below which no update is delivered while a weather screen is
+     * visible. Small enough for the blue dot on the map to follow the user.
+     */
+    public static final float VISIBLE_DISPLACEMENT_IN_METERS = 10;
+
+    /**
+     * The desired interval for location updates while the activity is paused.
+     */
+    public static final long BACKGROUND_INTERVAL_IN_MILLISECONDS = 5 * 60 * 1000;
+
+    /**
+     * The fastest rate for location updates while the activity is paused.
+     */
+    public static final long BACKGROUND_FASTEST_INTERVAL_IN_MILLISECONDS = 60 * 1000;
+
+    /**
+     * Movement in meters below which no update is delivered while the activity is paused.
+     * Half a GeoKeyResolver cell, so the AccuWeather location still follows the user.
+     */
+    public static final float BACKGROUND_DISPLACEMENT_IN_METERS = 500;
+
+    private final Context mContext;
+    private final FusedLocationProviderClient mClient;
+    private final LocationCallback mCallback;
+
+    private final LocationRequest mVisibleRequest;
+    private final LocationRequest mBackgroundRequest;
+
+    private boolean mStarted;
+    private boolean mResumed;
+    private boolean mObserved;
+
+    /**
+     * The request currently given to mClient, or null if updates are stopped.
+     */
+    private LocationRequest mCurrent;
+
+    /**
+     * Constructor for LocationScheduler
+     *
+     * @param context any context, used to check the location permission
+     * @param client the provider to request updates from
+     * @param callback gets every update
+     */
+    public LocationScheduler(final Context context,
+                             final FusedLocationProviderClient client,
+                             final LocationCallback callback) {
+        mContext = context.getApplicationContext();
+        mClient = client;
+        mCallback = callback;
+
+        mVisibleRequest = LocationRequest.create()
+                .setPriority(LocationRequest.PRIORITY_HIGH_ACCURACY)
+                .setInterval(VISIBLE_INTERVAL_IN_MILLISECONDS)
+                .setFastestInterval(VISIBLE_FASTEST_INTERVAL_IN_MILLISECONDS)
+                .setSmallestDisplacement(VISIBLE_DISPLACEMENT_IN_METERS);
+
+        mBackgroundRequest = LocationRequest.create()
+                .setPriority(LocationRequest.PRIORITY_BALANCED_POWER_ACCURACY)
+                .setInterval(BACKGROUND_INTERVAL_IN_MILLISECONDS)
+                .setFastestInterval(BACKGROUND_FASTEST_INTERVAL_IN_MILLISECONDS)
+                .setSmallestDisplacement(BACKGROUND_DISPLACEMENT_IN_METERS);
+    }
+
+    /**
+     * Set whether the activity is started, i.e. in the foreground.
+     */
+    @MainThread
+    public void setStarted(final boolean started) {
+        mStarted = started;
+        update();
+    }
+
+    /**
+     * Set whether the activity is resumed.
+     */
+    @MainThread
+    public void setResumed(final boolean resumed) {
+        mResumed = resumed;
+        update();
+    }
+
+    /**
+     * Set whether anything uses the location, see LocationViewModel#addObservedObserver.
+     */
+    @MainThread
+    public void setObserved(final boolean observed) {
+        mObserved = observed;
+        update();
+    }
+
+    /**
+     * Request updates again, for after the location permission has been granted.
+     */
+    @MainThread
+    public void refresh() {
+        update();
+    }
+
+    @SuppressLint("MissingPermission")
+    private void update() {
+        if (!mStarted || !mObserved || !hasPermission()) {
+            stop();
+            return;
+        }
+        LocationRequest wanted = mResumed ? mVisibleRequest : mBackgroundRequest;
+        if (wanted == mCurrent) {
+            return;
+        }
+        // requesting again with the same callback replaces the previous request
+        mClient.requestLocationUpdates(wanted, mCallback, null /* Looper */);
+        mCurrent = wanted;
+    }
+
+    private void stop() {
+        if (mCurrent != null) {
+            mClient.removeLocationUpdates(mCallback);
+            mCurrent = null;
+        }
+    }
+
+    private boolean hasPermission() {
+        return ContextCompat.checkSelfPermission(mContext,
+                Manifest.permission.ACCESS_FINE_LOCATION) == PackageManager.PERMISSION_GRANTED
+                || ContextCompat.checkSelfPermission(mContext,
+                Manifest.permission.ACCESS_COARSE_LOCATION) == PackageManager.PERMISSION_GRANTED;
+    }
+}
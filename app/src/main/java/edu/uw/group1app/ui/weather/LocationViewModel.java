@@ -3,6 +3,8 @@ package edu.uw.group1app.ui.weather;
 import android.location.Location;
 
 import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
 import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
@@ -13,8 +15,36 @@ public class LocationViewModel extends ViewModel {
 
     private MutableLiveData<Location> mLocation;
 
+    /**
+     * True while at least one observer of mLocation or one location user is started.
+     */
+    private MutableLiveData<Boolean> mObserved;
+
+    /**
+     * How many of mLocation, counted once however many observers it has, and the location
+     * users are started.
+     */
+    private int mStartedUsers;
+
+    /**
+     * Answers requestSingleLocation.
+     */
+    private NextValue<Location> mNextLocation;
+
     public LocationViewModel() {
-        mLocation = new MediatorLiveData<>();
+        mObserved = new MutableLiveData<>(false);
+        mLocation = new MediatorLiveData<Location>() {
+            @Override
+            protected void onActive() {
+                userStarted();
+            }
+
+            @Override
+            protected void onInactive() {
+                userStopped();
+            }
+        };
+        mNextLocation = new NextValue<>(mLocation);
     }
 
     public void addLocationObserver(@NonNull LifecycleOwner owner,
@@ -22,6 +52,61 @@ public class LocationViewModel extends ViewModel {
         mLocation.observe(owner, observer);
     }
 
+    /**
+     * Register a screen that wants fresh locations while it is started without observing
+     * every one, such as a screen that asks for a single fix on demand.
+     *
+     * @param owner the screen's lifecycle owner
+     */
+    public void addLocationUser(@NonNull LifecycleOwner owner) {
+        // an owner that is already started is sent ON_START straight away, and ON_STOP is
+        // always sent before ON_DESTROY, so the count stays balanced
+        owner.getLifecycle().addObserver((LifecycleEventObserver) (source, event) -> {
+            if (event == Lifecycle.Event.ON_START) {
+                userStarted();
+            } else if (event == Lifecycle.Event.ON_STOP) {
+                userStopped();
+            }
+        });
+    }
+
+    /**
+     * Register as an observer of whether anything uses the location, so location updates
+     * can be stopped while nothing does.
+     *
+     * @param owner the lifecycle owner
+     * @param observer gets true when the first location observer or user starts and false
+     *                 when the last one stops
+     */
+    public void addObservedObserver(@NonNull LifecycleOwner owner,
+                                    @NonNull Observer<? super Boolean> observer) {
+        mObserved.observe(owner, observer);
+    }
+
+    /**
+     * Get the next location once, or the current one straight away if there is one. Asking
+     * again before a location arrives replaces the earlier request rather than adding to it.
+     *
+     * @param owner the lifecycle owner
+     * @param observer gets exactly one location
+     */
+    public void requestSingleLocation(@NonNull LifecycleOwner owner,
+                                      @NonNull Observer<? super Location> observer) {
+        mNextLocation.request(owner, observer);
+    }
+
+    private void userStarted() {
+        if (mStartedUsers++ == 0) {
+            mObserved.setValue(true);
+        }
+    }
+
+    private void userStopped() {
+        if (--mStartedUsers == 0) {
+            mObserved.setValue(false);
+        }
+    }
+
     public void setLocation(final Location location) {
         if (mLocation.getValue() == null
                 || location.getLatitude() != mLocation.getValue().getLatitude()
@@ -37,4 +122,4 @@ public class LocationViewModel extends ViewModel {
         return new Location(mLocation.getValue());
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package edu.uw.group1app.ui.weather;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+
+/**
+ * Hands one value of a LiveData to one observer: the current value straight away if there
+ * is one, otherwise the next. Asking again before a value arrives replaces the earlier
+ * observer rather than adding to it.
+ *
+ * @param <T> the type of the value
+ */
+final class NextValue<T> {
+
+    private final LiveData<T> mData;
+
+    /**
+     * The observer waiting for a value, or null.
+     */
+    private Observer<T> mWaiting;
+
+    /**
+     * Constructor for NextValue
+     *
+     * @param data the LiveData to take values from
+     */
+    NextValue(final LiveData<T> data) {
+        mData = data;
+    }
+
+    /**
+     * Get one value.
+     *
+     * @param owner the lifecycle owner
+     * @param observer gets exactly one value
+     */
+    void request(@NonNull final LifecycleOwner owner,
+                 @NonNull final Observer<? super T> observer) {
+        if (mWaiting != null) {
+            mData.removeObserver(mWaiting);
+        }
+        mWaiting = new Observer<T>() {
+            @Override
+            public void onChanged(final T value) {
+                mData.removeObserver(this);
+                mWaiting = null;
+                observer.onChanged(value);
+            }
+        };
+        mData.observe(owner, mWaiting);
+    }
+}
@@ -0,0 +1,103 @@
+package edu.uw.group1app.ui.weather;
+
+import androidx.annotation.MainThread;
+
+import com.android.volley.Response;
+import com.android.volley.VolleyError;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.uw.group1app.io.Cancellable;
+
+/**
+ * Everyone waiting on one in-flight request. Each waiter can leave on its own; when the
+ * last one leaves before the answer lands, the request is abandoned so the caller can
+ * cancel the network call.
+ *
+ * All methods must be called on the main thread.
+ *
+ * @param <T> the answer the waiters get
+ */
+final class SharedRequest<T> {
+
+    private static final class Waiter<T> implements Cancellable {
+        private final SharedRequest<T> mRequest;
+        private final Response.Listener<T> mListener;
+        private final Response.ErrorListener mErrorListener;
+
+        Waiter(final SharedRequest<T> request,
+               final Response.Listener<T> listener,
+               final Response.ErrorListener errorListener) {
+            mRequest = request;
+            mListener = listener;
+            mErrorListener = errorListener;
+        }
+
+        @Override
+        public void cancel() {
+            mRequest.leave(this);
+        }
+    }
+
+    private final List<Waiter<T>> mWaiters = new ArrayList<>(2);
+
+    private final Runnable mOnAbandoned;
+
+    /**
+     * Set once the answer or error is being handed out, or the request was abandoned.
+     */
+    private boolean mDone;
+
+    /**
+     * Constructor for SharedRequest
+     *
+     * @param onAbandoned run when every waiter has left before the answer lands
+     */
+    SharedRequest(final Runnable onAbandoned) {
+        mOnAbandoned = onAbandoned;
+    }
+
+    /**
+     * Start waiting on the answer.
+     *
+     * @return the handle to stop waiting with
+     */
+    @MainThread
+    Cancellable join(final Response.Listener<T> listener,
+                     final Response.ErrorListener errorListener) {
+        Waiter<T> waiter = new Waiter<>(this, listener, errorListener);
+        mWaiters.add(waiter);
+        return waiter;
+    }
+
+    @MainThread
+    void deliver(final T answer) {
+        mDone = true;
+        for (Waiter<T> waiter : new ArrayList<>(mWaiters)) {
+            // skip anyone an earlier listener cancelled while this loop was running
+            if (mWaiters.contains(waiter)) {
+                waiter.mListener.onResponse(answer);
+            }
+        }
+        mWaiters.clear();
+    }
+
+    @MainThread
+    void fail(final VolleyError error) {
+        mDone = true;
+        for (Waiter<T> waiter : new ArrayList<>(mWaiters)) {
+            if (mWaiters.contains(waiter)) {
+                waiter.mErrorListener.onErrorResponse(error);
+            }
+        }
+        mWaiters.clear();
+    }
+
+    private void leave(final Waiter<T> waiter) {
+        if (mWaiters.remove(waiter) && !mDone && mWaiters.isEmpty()) {
+            mDone = true;
+            mOnAbandoned.run();
+        }
+    }
+}
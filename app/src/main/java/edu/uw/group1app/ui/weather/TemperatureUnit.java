@@ -0,0 +1,54 @@
+package edu.uw.group1app.ui.weather;
+
+/**
+ * A temperature scale, with conversion between the two AccuWeather can answer in.
+ */
+public enum TemperatureUnit {
+    FAHRENHEIT("F"),
+    CELSIUS("C");
+
+    private final String mSymbol;
+
+    TemperatureUnit(final String symbol) {
+        mSymbol = symbol;
+    }
+
+    /**
+     * it returns the unit for the Unit field of a response
+     *
+     * @param symbol "F" or "C"
+     * @return the unit, FAHRENHEIT if the symbol is not recognised
+     */
+    public static TemperatureUnit fromSymbol(final String symbol) {
+        return CELSIUS.mSymbol.equalsIgnoreCase(symbol) ? CELSIUS : FAHRENHEIT;
+    }
+
+    public String getSymbol() {
+        return mSymbol;
+    }
+
+    /**
+     * Convert a temperature to this unit.
+     *
+     * @param value the temperature
+     * @param from the unit value is in
+     * @return the temperature in this unit
+     */
+    public float convert(final float value, final TemperatureUnit from) {
+        if (from == this) {
+            return value;
+        }
+        return this == CELSIUS ? (value - 32f) * 5f / 9f : value * 9f / 5f + 32f;
+    }
+
+    /**
+     * Format a temperature in this unit for display, rounded to a whole degree.
+     *
+     * @param value the temperature
+     * @param from the unit value is in
+     * @return the text to show
+     */
+    public String format(final float value, final TemperatureUnit from) {
+        return Integer.toString(Math.round(convert(value, from)));
+    }
+}
@@ -47,9 +47,9 @@ public class TwelveHourListFragment extends Fragment {
         FragmentTwelveHourListBinding binding = FragmentTwelveHourListBinding.bind(getView());
 
 
-        mModel.addResponseObserver(getViewLifecycleOwner(), hourList ->{
+        mModel.addResponseObserver(getViewLifecycleOwner(), snapshot ->{
             binding.layoutRoot.setAdapter(
-                    new HourRecyclerViewAdapter(hourList));
+                    new HourRecyclerViewAdapter(snapshot.getItems()));
         });
 
 
@@ -6,37 +6,26 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LifecycleOwner;
-import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Observer;
 
-import com.android.volley.DefaultRetryPolicy;
-import com.android.volley.Request;
 import com.android.volley.VolleyError;
-import com.android.volley.toolbox.JsonArrayRequest;
-import com.android.volley.toolbox.JsonObjectRequest;
-import com.android.volley.toolbox.Volley;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
-import java.util.ArrayList;
-import java.util.List;
-import java.util.function.IntFunction;
-import edu.uw.group1app.R;
+import edu.uw.group1app.io.RequestSlot;
 
 public class TwelveHourViewModel extends AndroidViewModel {
 
-    private MutableLiveData<List<HourPost>> mHourList;
+    private ForecastLiveData<HourPost> mHourList;
+
+    private RequestSlot mRequest;
 
     public TwelveHourViewModel(@NonNull Application application) {
         super(application);
-        mHourList = new MutableLiveData<>();
-        mHourList.setValue(new ArrayList<>());
+        mHourList = new ForecastLiveData<>();
+        mRequest = new RequestSlot();
     }
 
     public void addResponseObserver(@NonNull LifecycleOwner owner,
-                                    @NonNull Observer<? super List<HourPost>> observer) {
+            @NonNull Observer<? super ForecastSnapshot<HourPost>> observer) {
         mHourList.observe(owner, observer);
     }
 
@@ -48,65 +37,21 @@ public class TwelveHourViewModel extends AndroidViewModel {
         //throw new IllegalStateException(error.getMessage());
     }
 
-    private void handleResult(final JSONArray result){
-        IntFunction<String> getString =
-                getApplication().getResources()::getString;
-            Log.d("TwelveHourViewModel handleResult result", result.toString());
-        try{
-             for(int i= 0; i < result.length(); i++) {
-                JSONObject jsonHour = result.getJSONObject(i);
-                JSONObject temp = jsonHour.getJSONObject("Temperature");
-                HourPost post = new HourPost.Builder(
-                        jsonHour.getString(
-                                getString.apply(
-                                        R.string.keys_json_weather_dateTime)),
-                        temp.getString(
-                                getString.apply(
-                                        R.string.keys_json_weather_value)),
-                        jsonHour.getString(
-                                getString.apply(R.string.keys_json_weather_condition)))
-                        .build();
-                if(!mHourList.getValue().contains(post)){
-                    mHourList.getValue().add(post);
-                }
-
-            }
-        } catch (JSONException e){
-            Log.e("ERROR!", e.getMessage());
-        }
-
-        mHourList.setValue(mHourList.getValue());
-
-    }
-
-
-
-
-
+    /**
+     * Connect to the web service for the twelve hour forecast. The hours are parsed off the
+     * main thread and published as one read-only snapshot, which the home screen card and
+     * the twelve hour list both observe. An answer that arrives after connect has been
+     * called again for another location is dropped.
+     * @param locationKey the AccuWeather location key
+     */
     public void connect(final String locationKey){
-        String url = "https://mobileapp-group-backend.herokuapp.com/twelvehour";
-
-        JSONObject body = new JSONObject();
-        try{
-            body.put("locationkey", locationKey);
-        } catch (JSONException e){
-            e.printStackTrace();
-        }
-
-        CustomJsonArrayRequest request = new CustomJsonArrayRequest(
-                Request.Method.POST,
-                url,
-                body,
-                this::handleResult,
-                this::handleError
-        );
+        mRequest.set(WeatherRepository.getInstance(getApplication())
+                .getTwelveHour(locationKey, mHourList.expect(locationKey), this::handleError));
+    }
 
-        request.setRetryPolicy(new DefaultRetryPolicy(
-                10_000,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
-        //Instantiate the RequestQueue and add the request to the queue
-        Volley.newRequestQueue(getApplication().getApplicationContext())
-                .add(request);
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        mRequest.cancel();
     }
 }
@@ -0,0 +1,59 @@
+package edu.uw.group1app.ui.weather;
+
+/**
+ * The kind of weather an AccuWeather icon number stands for. Several icons share one
+ * condition, e.g. sunny and mostly sunny are both CLEAR.
+ */
+public enum WeatherCondition {
+    CLEAR(1, 2, 33, 34),
+    PARTLY_CLOUDY(3, 4, 5, 35, 36, 37),
+    CLOUDY(6, 7, 8, 38),
+    FOG(11),
+    SHOWERS(12, 13, 14, 39, 40),
+    THUNDERSTORMS(15, 16, 17, 41, 42),
+    RAIN(18),
+    SNOW(19, 20, 21, 22, 23, 43, 44),
+    ICE(24, 25, 26),
+    RAIN_AND_SNOW(29),
+    HOT(30),
+    COLD(31),
+    WINDY(32),
+    UNKNOWN;
+
+    /**
+     * AccuWeather icon numbers run from 1 to 44.
+     */
+    private static final int MAX_ICON = 44;
+
+    /**
+     * Condition for each icon number, so a lookup is one array read.
+     */
+    private static final WeatherCondition[] BY_ICON = new WeatherCondition[MAX_ICON + 1];
+
+    static {
+        for (WeatherCondition condition : values()) {
+            for (int icon : condition.mIcons) {
+                BY_ICON[icon] = condition;
+            }
+        }
+    }
+
+    private final int[] mIcons;
+
+    WeatherCondition(final int... icons) {
+        mIcons = icons;
+    }
+
+    /**
+     * it returns the condition for an AccuWeather icon number
+     *
+     * @param icon the icon number from the response
+     * @return the condition, or UNKNOWN for a number not in the table
+     */
+    public static WeatherCondition fromIcon(final int icon) {
+        if (icon < 0 || icon > MAX_ICON || BY_ICON[icon] == null) {
+            return UNKNOWN;
+        }
+        return BY_ICON[icon];
+    }
+}
@@ -21,10 +21,6 @@ import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.Navigation;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -55,10 +51,8 @@ public class WeatherFragment extends Fragment {
     private GeopositionViewModel mGeoModel;
     private ZipcodeDialog zipBinding;
     private LocationViewModel mLocationModel;
-    private TwelveHourHomeViewModel mTwelveModel;
-    private FiveDayHomeViewModel mFiveModel;
-    private TwelveHourViewModel mTwelveListModel;
-    private FiveDayViewModel mFiveListModel;
+    private TwelveHourViewModel mTwelveModel;
+    private FiveDayViewModel mFiveModel;
 
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
@@ -68,10 +62,9 @@ public class WeatherFragment extends Fragment {
         mZipModel = new ViewModelProvider(getActivity()).get(ZipcodeViewModel.class);
         mGeoModel = new ViewModelProvider(getActivity()).get(GeopositionViewModel.class);
         mLocationModel = new ViewModelProvider(getActivity()).get(LocationViewModel.class);
-        mTwelveModel = new ViewModelProvider(getActivity()).get(TwelveHourHomeViewModel.class);
-        mFiveModel = new ViewModelProvider(getActivity()).get(FiveDayHomeViewModel.class);
-        mTwelveListModel = new ViewModelProvider(getActivity()).get(TwelveHourViewModel.class);
-        mFiveListModel = new ViewModelProvider(getActivity()).get(FiveDayViewModel.class);
+        //shared with the list screens, which read the same forecasts in full
+        mTwelveModel = new ViewModelProvider(getActivity()).get(TwelveHourViewModel.class);
+        mFiveModel = new ViewModelProvider(getActivity()).get(FiveDayViewModel.class);
 
 
     }
@@ -90,6 +83,8 @@ public class WeatherFragment extends Fragment {
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
 
+        //keep the location fresh while shown, so "current location" is answered quickly
+        mLocationModel.addLocationUser(getViewLifecycleOwner());
         mModel.addResponseObserver(getViewLifecycleOwner(), this::observeResponse);
         mGeoModel.addResponseObserver(getViewLifecycleOwner(),this::observeGeoResponse);
         mZipModel.addResponseObserver(getViewLifecycleOwner(), this::observeZipResponse);
@@ -111,14 +106,11 @@ public class WeatherFragment extends Fragment {
             menu.setOnMenuItemClickListener(item -> {
                 switch (item.getItemId()) {
                     case R.id.item_current_location:
-                        mLocationModel.addLocationObserver(getViewLifecycleOwner(), location -> {
-
-                            String lat = String.valueOf(location.getLatitude());
-                            String lng = String.valueOf(location.getLongitude());
-                            mGeoModel.connect(lat, lng);
-
-                            Log.d("SUBMENU","" + lat + " " + lng);
+                        mLocationModel.requestSingleLocation(getViewLifecycleOwner(), location -> {
+                            mGeoModel.connect(location.getLatitude(), location.getLongitude());
 
+                            Log.d("SUBMENU","" + location.getLatitude()
+                                    + " " + location.getLongitude());
                         });
 
                         return true;
@@ -143,100 +135,55 @@ public class WeatherFragment extends Fragment {
 
 
 
-    private void observeFiveHomeResponse(JSONObject response) {
-        Log.d("Five Response", response.toString());
-
-        try{
-            JSONArray array = response.getJSONArray("DailyForecasts");
-
-            JSONObject data = array.getJSONObject(0);
-            //TODO:
-            binding.textViewDay1.setText("DAY1");
-            JSONObject temp = data.getJSONObject("Temperature");
-            JSONObject max = temp.getJSONObject("Maximum");
-            binding.textViewDayHiTemp1.setText(max.getString("Value"));
-            JSONObject min = temp.getJSONObject("Minimum");
-            binding.textViewDayLoTemp1.setText(min.getString("Value"));
-
-            JSONObject data2 = array.getJSONObject(1);
-            //TODO:
-            binding.textViewDay2.setText("DAY2");
-            JSONObject temp2 = data2.getJSONObject("Temperature");
-            JSONObject max2 = temp2.getJSONObject("Maximum");
-            binding.textViewDayHiTemp2.setText(max2.getString("Value"));
-            JSONObject min2 = temp2.getJSONObject("Minimum");
-            binding.textViewDayLoTemp2.setText(min2.getString("Value"));
-
-            JSONObject data3 = array.getJSONObject(2);
-            //TODO:
-            binding.textViewDay3.setText("DAY3");
-            JSONObject temp3 = data3.getJSONObject("Temperature");
-            JSONObject max3 = temp3.getJSONObject("Maximum");
-            binding.textViewDayHiTemp3.setText(max3.getString("Value"));
-            JSONObject min3 = temp3.getJSONObject("Minimum");
-            binding.textViewDayLoTemp3.setText(min3.getString("Value"));
-
-            JSONObject data4 = array.getJSONObject(3);
-            //TODO:
-            binding.textViewDay4.setText("DAY4");
-            JSONObject temp4 = data4.getJSONObject("Temperature");
-            JSONObject max4 = temp4.getJSONObject("Maximum");
-            binding.textViewDayHiTemp4.setText(max4.getString("Value"));
-            JSONObject min4 = temp4.getJSONObject("Minimum");
-            binding.textViewDayLoTemp4.setText(min4.getString("Value"));
-
-        } catch (JSONException e){
-            Log.e("JSON Parse Error on 5", e.getMessage());
+    private void observeFiveHomeResponse(ForecastSnapshot<DayPost> snapshot) {
+        List<DayPost> days = snapshot.getItems();
+        if (days.size() < 4) {
+            return;
         }
+        binding.textViewDay1.setText(days.get(0).getDay());
+        binding.textViewDayHiTemp1.setText(days.get(0).getHiTempText());
+        binding.textViewDayLoTemp1.setText(days.get(0).getLoTempText());
+
+        binding.textViewDay2.setText(days.get(1).getDay());
+        binding.textViewDayHiTemp2.setText(days.get(1).getHiTempText());
+        binding.textViewDayLoTemp2.setText(days.get(1).getLoTempText());
+
+        binding.textViewDay3.setText(days.get(2).getDay());
+        binding.textViewDayHiTemp3.setText(days.get(2).getHiTempText());
+        binding.textViewDayLoTemp3.setText(days.get(2).getLoTempText());
+
+        binding.textViewDay4.setText(days.get(3).getDay());
+        binding.textViewDayHiTemp4.setText(days.get(3).getHiTempText());
+        binding.textViewDayLoTemp4.setText(days.get(3).getLoTempText());
     }
 
-    private void observeTwelveHomeResponse(JSONArray response) {
-        Log.d("Twelve Response", response.toString());
-        //TODO:
-        try{
-            JSONObject data1 = response.getJSONObject(0);
-            binding.textViewHour1.setText("Hour1");
-            JSONObject temp = data1.getJSONObject("Temperature");
-            binding.textViewTemp1.setText(temp.getString("Value"));
-            binding.textViewCond1.setText(data1.getString("IconPhrase"));
-
-            JSONObject data2 = response.getJSONObject(1);
-            binding.textViewHour2.setText("Hour2");
-            JSONObject temp2 = data2.getJSONObject("Temperature");
-            binding.textViewTemp2.setText(temp2.getString("Value"));
-            binding.textViewCond2.setText(data2.getString("IconPhrase"));
-
-            JSONObject data3 = response.getJSONObject(2);
-            binding.textViewHour3.setText("Hour3");
-            JSONObject temp3 = data3.getJSONObject("Temperature");
-            binding.textViewTemp3.setText(temp3.getString("Value"));
-            binding.textViewCond3.setText(data3.getString("IconPhrase"));
-
-            JSONObject data4 = response.getJSONObject(3);
-            binding.textViewHour4.setText("Hour4");
-            JSONObject temp4 = data4.getJSONObject("Temperature");
-            binding.textViewTemp4.setText(temp4.getString("Value"));
-            binding.textViewCond4.setText(data4.getString("IconPhrase"));
-
-        } catch (JSONException e){
-            Log.e("JSON Parse Error",e.getMessage());
+    private void observeTwelveHomeResponse(ForecastSnapshot<HourPost> snapshot) {
+        List<HourPost> hours = snapshot.getItems();
+        if (hours.size() < 4) {
+            return;
         }
-    }
+        binding.textViewHour1.setText(hours.get(0).getHour());
+        binding.textViewTemp1.setText(hours.get(0).getTempText());
+        binding.textViewCond1.setText(hours.get(0).getConditionText());
 
-    private void observeGeoResponse(JSONObject response) {
+        binding.textViewHour2.setText(hours.get(1).getHour());
+        binding.textViewTemp2.setText(hours.get(1).getTempText());
+        binding.textViewCond2.setText(hours.get(1).getConditionText());
 
-        try{
-            binding.textViewCity.setText(response.getString("LocalizedName"));
-            mModel.connect(response.getString("Key"));
-            mFiveModel.connect(response.getString("Key"));
-            mTwelveModel.connect(response.getString("Key"));
-            mFiveListModel.connect(response.getString("Key"));
-            mTwelveListModel.connect(response.getString("Key"));
+        binding.textViewHour3.setText(hours.get(2).getHour());
+        binding.textViewTemp3.setText(hours.get(2).getTempText());
+        binding.textViewCond3.setText(hours.get(2).getConditionText());
 
-        }catch(JSONException e){
-            Log.e("JSON Parse Error",e.getMessage());
+        binding.textViewHour4.setText(hours.get(3).getHour());
+        binding.textViewTemp4.setText(hours.get(3).getTempText());
+        binding.textViewCond4.setText(hours.get(3).getConditionText());
+    }
 
-        }
+    private void observeGeoResponse(WeatherLocation location) {
+        binding.textViewCity.setText(location.getLocalizedName());
+        mModel.connect(location.getKey());
+        mFiveModel.connect(location.getKey());
+        mTwelveModel.connect(location.getKey());
     }
 
     private void searchByZipCode() {
@@ -244,33 +191,17 @@ public class WeatherFragment extends Fragment {
         dialog.show(getChildFragmentManager(),"hello");
     }
 
-    private void observeResponse(final JSONObject response){
-
-        try {
-            binding.textViewStatus.setText(response.getString("WeatherText"));
-            JSONObject temp = response.getJSONObject("Temperature");
-            JSONObject type = temp.getJSONObject("Imperial");
-            binding.textViewTemperature.setText(type.getString("Value"));
-
-        } catch(JSONException e){
-            Log.e("JSON Parse Error",e.getMessage());
-        }
-
+    private void observeResponse(final CurrentPost current){
+        binding.textViewStatus.setText(current.getConditionText());
+        binding.textViewTemperature.setText(current.getTempText());
+        binding.textView4.setText(current.getUnit().getSymbol());
     }
 
 
-    private void observeZipResponse(final JSONObject response){
-        try{
-            binding.textViewCity.setText(response.getString("LocalizedName"));
-            mModel.connect(response.getString("Key"));
-            mFiveModel.connect(response.getString("Key"));
-            mTwelveModel.connect(response.getString("Key"));
-            mTwelveListModel.connect(response.getString("Key"));
-            mFiveListModel.connect(response.getString("Key"));
-
-        } catch (JSONException e) {
-
-            Log.e("JSON Parse Error",e.getMessage());
-        }
+    private void observeZipResponse(final WeatherLocation location){
+        binding.textViewCity.setText(location.getLocalizedName());
+        mModel.connect(location.getKey());
+        mFiveModel.connect(location.getKey());
+        mTwelveModel.connect(location.getKey());
     }
 }
\ No newline at end of file
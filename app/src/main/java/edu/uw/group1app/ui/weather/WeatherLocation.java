@@ -0,0 +1,64 @@
+package edu.uw.group1app.ui.weather;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * An AccuWeather location: the key the forecast endpoints take, and the city name to show.
+ */
+public final class WeatherLocation {
+
+    private final String mKey;
+    private final String mLocalizedName;
+
+    /**
+     * Constructor for WeatherLocation
+     *
+     * @param key the AccuWeather location key
+     * @param localizedName the name of the location
+     */
+    public WeatherLocation(final String key, final String localizedName) {
+        mKey = key;
+        mLocalizedName = localizedName;
+    }
+
+    /**
+     * Read a location from a geoposition or zip code lookup response.
+     *
+     * @param response the lookup response
+     * @return the location
+     * @throws JSONException when the response has no Key or LocalizedName
+     */
+    static WeatherLocation fromLookup(final JSONObject response) throws JSONException {
+        return new WeatherLocation(response.getString("Key"),
+                response.getString("LocalizedName"));
+    }
+
+    /**
+     * Write this location as a string, for storing in shared preferences.
+     */
+    String encode() {
+        return mKey + "\n" + mLocalizedName;
+    }
+
+    /**
+     * Read a location written by encode().
+     *
+     * @return the location, or null if the text is not one
+     */
+    static WeatherLocation decode(final String encoded) {
+        int split = encoded == null ? -1 : encoded.indexOf('\n');
+        if (split < 0) {
+            return null;
+        }
+        return new WeatherLocation(encoded.substring(0, split), encoded.substring(split + 1));
+    }
+
+    public String getKey() {
+        return mKey;
+    }
+
+    public String getLocalizedName() {
+        return mLocalizedName;
+    }
+}
@@ -0,0 +1,123 @@
+package edu.uw.group1app.ui.weather;
+
+import android.content.res.Resources;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import edu.uw.group1app.R;
+
+/**
+ * Turns the text of the weather endpoints into the objects the weather screens show.
+ * Runs on whichever thread has the text, usually a network dispatcher or the disk thread,
+ * so everything a screen needs, down to the text of each label, is worked out here.
+ */
+final class WeatherParser {
+
+    private final String mKeyWeatherText;
+    private final String mKeyTemperature;
+    private final String mKeyImperial;
+    private final String mKeyUnit;
+    private final String mKeyValue;
+    private final String mKeyCondition;
+    private final String mKeyMinimum;
+    private final String mKeyDay;
+    private final String mKeyNight;
+    private final String mKeyEpochDate;
+    private final String mKeyEpochDateTime;
+    private final String mKeyEpochTime;
+    private final String mKeyIcon;
+    private final String mKeyWeatherIcon;
+
+    /**
+     * Constructor for WeatherParser
+     *
+     * @param resources used to look up JSON key names from json_keys.xml
+     */
+    WeatherParser(final Resources resources) {
+        mKeyWeatherText = resources.getString(R.string.keys_json_weather_weathertext);
+        mKeyTemperature = resources.getString(R.string.keys_json_weather_temperature);
+        mKeyImperial = resources.getString(R.string.keys_json_weather_metric);
+        mKeyUnit = resources.getString(R.string.keys_json_weather_unit);
+        mKeyValue = resources.getString(R.string.keys_json_weather_value);
+        mKeyCondition = resources.getString(R.string.keys_json_weather_condition);
+        mKeyMinimum = resources.getString(R.string.keys_json_weather_min);
+        mKeyDay = resources.getString(R.string.keys_json_weather_day);
+        mKeyNight = resources.getString(R.string.keys_json_weather_night);
+        mKeyEpochDate = resources.getString(R.string.keys_json_weather_epoch_date);
+        mKeyEpochDateTime = resources.getString(R.string.keys_json_weather_epoch_date_time);
+        mKeyEpochTime = resources.getString(R.string.keys_json_weather_epoch_time);
+        mKeyIcon = resources.getString(R.string.keys_json_weather_icon);
+        mKeyWeatherIcon = resources.getString(R.string.keys_json_weather_weather_icon);
+    }
+
+    CurrentPost parseCurrent(final String json) throws JSONException {
+        JSONObject current = new JSONObject(json);
+        JSONObject temp = current.getJSONObject(mKeyTemperature).getJSONObject(mKeyImperial);
+        return new CurrentPost.Builder(
+                current.getLong(mKeyEpochTime),
+                (float) temp.getDouble(mKeyValue),
+                TemperatureUnit.fromSymbol(temp.optString(mKeyUnit)))
+                .addCondition(WeatherCondition.fromIcon(current.optInt(mKeyWeatherIcon)),
+                        current.getString(mKeyWeatherText))
+                .build();
+    }
+
+    List<DayPost> parseDays(final String json) throws JSONException {
+        JSONArray data = new JSONObject(json).getJSONArray("DailyForecasts");
+        // one formatter per call, SimpleDateFormat is not safe to share between threads
+        DateFormat dayFormat = new SimpleDateFormat("EEE", Locale.getDefault());
+        List<DayPost> days = new ArrayList<>(data.length());
+        for (int i = 0; i < data.length(); i++) {
+            JSONObject jsonDay = data.getJSONObject(i);
+            JSONObject temp = jsonDay.getJSONObject(mKeyTemperature);
+            JSONObject max = temp.getJSONObject("Maximum");
+            JSONObject min = temp.getJSONObject(mKeyMinimum);
+            JSONObject day = jsonDay.getJSONObject(mKeyDay);
+            JSONObject night = jsonDay.getJSONObject(mKeyNight);
+            long epochSeconds = jsonDay.getLong(mKeyEpochDate);
+
+            days.add(new DayPost.Builder(
+                    epochSeconds,
+                    dayFormat.format(new Date(epochSeconds * 1000L)),
+                    (float) max.getDouble(mKeyValue),
+                    (float) min.getDouble(mKeyValue),
+                    TemperatureUnit.fromSymbol(max.optString(mKeyUnit)))
+                    .addDayCondition(WeatherCondition.fromIcon(day.optInt(mKeyIcon)),
+                            day.getString(mKeyCondition))
+                    .addNightCondition(WeatherCondition.fromIcon(night.optInt(mKeyIcon)),
+                            night.getString(mKeyCondition))
+                    .build());
+        }
+        return Collections.unmodifiableList(days);
+    }
+
+    List<HourPost> parseHours(final String json) throws JSONException {
+        JSONArray result = new JSONArray(json);
+        DateFormat hourFormat = new SimpleDateFormat("h a", Locale.getDefault());
+        List<HourPost> hours = new ArrayList<>(result.length());
+        for (int i = 0; i < result.length(); i++) {
+            JSONObject jsonHour = result.getJSONObject(i);
+            JSONObject temp = jsonHour.getJSONObject(mKeyTemperature);
+            long epochSeconds = jsonHour.getLong(mKeyEpochDateTime);
+            hours.add(new HourPost.Builder(
+                    epochSeconds,
+                    hourFormat.format(new Date(epochSeconds * 1000L)),
+                    (float) temp.getDouble(mKeyValue),
+                    TemperatureUnit.fromSymbol(temp.optString(mKeyUnit)))
+                    .addCondition(WeatherCondition.fromIcon(jsonHour.optInt(mKeyWeatherIcon)),
+                            jsonHour.getString(mKeyCondition))
+                    .build());
+        }
+        return Collections.unmodifiableList(hours);
+    }
+}
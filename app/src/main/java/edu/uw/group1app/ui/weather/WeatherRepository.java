@@ -0,0 +1,494 @@
+package edu.uw.group1app.ui.weather;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.collection.LruCache;
+
+import com.android.volley.ParseError;
+import com.android.volley.Response;
+
+import org.json.JSONException;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import edu.uw.group1app.io.ApiClient;
+import edu.uw.group1app.io.Cancellable;
+import edu.uw.group1app.io.ResponseDecoder;
+
+/**
+ * Single entry point for weather data, cached by product and AccuWeather location key.
+ *
+ * A copy younger than its product's max age is served without touching the network. An
+ * older copy is still served straight away, and a refresh is started in the background;
+ * the caller hears from the listener again when it lands. Copies are kept in a small memory
+ * LRU and one file per copy on disk, so they survive the app being closed. Files older than
+ * a day are deleted, and only the most recently fetched ones are kept past a cap.
+ *
+ * Callers asking for the same product for the same location while a request is already
+ * out share that one request instead of starting another. Every call returns a handle to
+ * stop listening with; the network call is only cancelled once nobody is left waiting.
+ *
+ * All methods must be called on the main thread, which is also where Volley delivers.
+ */
+public final class WeatherRepository {
+
+    private static final long MINUTE_MILLIS = 60 * 1000L;
+
+    private static final int MEMORY_ENTRIES = 24;
+
+    private static final String DISK_DIR = "weather";
+
+    /**
+     * Most copies kept on disk, two per copy the memory LRU holds.
+     */
+    private static final int DISK_ENTRIES = 2 * MEMORY_ENTRIES;
+
+    /**
+     * Age past which a copy on disk is deleted rather than served stale.
+     */
+    private static final long DISK_MAX_AGE_MILLIS = 24 * 60 * MINUTE_MILLIS;
+
+    private static WeatherRepository instance;
+
+    private final ApiClient mApi;
+
+    private final Product<CurrentPost> mCurrent;
+    private final Product<ForecastSnapshot<DayPost>> mFiveDay;
+    private final Product<ForecastSnapshot<HourPost>> mTwelveHour;
+
+    private final GeoKeyResolver mGeoKeys;
+
+    private final ZipCodeCache mZipCodes;
+
+    /**
+     * Most recently used copies, keyed by product name and location key.
+     */
+    private final LruCache<String, Entry<?>> mMemory;
+
+    private final File mDiskDir;
+
+    /**
+     * Runs every read and write against mDiskDir, in order, off the main thread.
+     */
+    private final ExecutorService mDiskExecutor;
+
+    private final Handler mMainHandler;
+
+    /**
+     * Requests still waiting on the web service, keyed like mMemory.
+     */
+    private final Map<String, SharedRequest<?>> mInFlight;
+
+    /**
+     * Starts a request for one product, decoded by the given decoder.
+     */
+    private interface Fetch {
+        <R> void start(String locationKey,
+                       Object tag,
+                       ResponseDecoder<R> decoder,
+                       Response.Listener<R> listener,
+                       Response.ErrorListener errorListener);
+    }
+
+    /**
+     * Parses the text of one product, fetched for a location at a time.
+     *
+     * @param <T> the parsed product
+     */
+    private interface Parser<T> {
+        T parse(String locationKey, String json, long fetchedAt) throws JSONException;
+    }
+
+    /**
+     * A weather product and how long a copy of it stays fresh.
+     *
+     * @param <T> the parsed product
+     */
+    private static final class Product<T> {
+        private final String mName;
+        private final long mMaxAgeMillis;
+        private final Fetch mFetch;
+        private final Parser<T> mParser;
+
+        Product(final String name, final long maxAgeMillis,
+                final Fetch fetch, final Parser<T> parser) {
+            mName = name;
+            mMaxAgeMillis = maxAgeMillis;
+            mFetch = fetch;
+            mParser = parser;
+        }
+    }
+
+    /**
+     * One cached copy of a product. The raw text is kept so it can be written to disk.
+     *
+     * @param <T> the parsed product
+     */
+    private static final class Entry<T> {
+        private final T mValue;
+        private final String mRaw;
+        private final long mFetchedAt;
+
+        Entry(final T value, final String raw, final long fetchedAt) {
+            mValue = value;
+            mRaw = raw;
+            mFetchedAt = fetchedAt;
+        }
+
+        boolean isStale(final long maxAgeMillis) {
+            return System.currentTimeMillis() - mFetchedAt > maxAgeMillis;
+        }
+    }
+
+    /**
+     * A read from disk that may be followed by a fetch. Cancelling stops both.
+     */
+    private static final class DiskRead implements Cancellable {
+        private boolean mCancelled;
+        private Cancellable mFetch = Cancellable.NONE;
+
+        @Override
+        public void cancel() {
+            mCancelled = true;
+            mFetch.cancel();
+        }
+    }
+
+    private WeatherRepository(final Context context) {
+        mApi = ApiClient.getInstance(context);
+        WeatherParser parser = new WeatherParser(context.getResources());
+        mCurrent = new Product<>("weather", 10 * MINUTE_MILLIS,
+                mApi::getCurrentWeather,
+                (locationKey, json, fetchedAt) -> parser.parseCurrent(json));
+        mFiveDay = new Product<>("fiveday", 60 * MINUTE_MILLIS,
+                mApi::getFiveDayForecast,
+                (locationKey, json, fetchedAt) ->
+                        new ForecastSnapshot<>(locationKey, fetchedAt, parser.parseDays(json)));
+        mTwelveHour = new Product<>("twelvehour", 30 * MINUTE_MILLIS,
+                mApi::getTwelveHourForecast,
+                (locationKey, json, fetchedAt) ->
+                        new ForecastSnapshot<>(locationKey, fetchedAt, parser.parseHours(json)));
+
+        mZipCodes = new ZipCodeCache(context);
+
+        mMemory = new LruCache<>(MEMORY_ENTRIES);
+        mDiskDir = new File(context.getCacheDir(), DISK_DIR);
+        mDiskExecutor = Executors.newSingleThreadExecutor();
+        mMainHandler = new Handler(Looper.getMainLooper());
+        mGeoKeys = new GeoKeyResolver(mApi, GeoKeyResolver.DEFAULT_GRID_DEGREES,
+                new GeoKeyStore(context), mDiskExecutor, mMainHandler::post);
+        mInFlight = new HashMap<>();
+    }
+
+    public static synchronized WeatherRepository getInstance(final Context context) {
+        if (instance == null) {
+            instance = new WeatherRepository(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Get the current conditions for a location.
+     *
+     * @return the handle to stop listening with
+     */
+    @MainThread
+    public Cancellable getCurrentWeather(final String locationKey,
+                                         final Response.Listener<CurrentPost> listener,
+                                         final Response.ErrorListener errorListener) {
+        return get(mCurrent, locationKey, listener, errorListener);
+    }
+
+    /**
+     * Get the five day forecast for a location. The listener may hear a stale snapshot
+     * first and a fresh one after; compare their fetch times.
+     *
+     * @return the handle to stop listening with
+     */
+    @MainThread
+    public Cancellable getFiveDay(final String locationKey,
+                                  final Response.Listener<ForecastSnapshot<DayPost>> listener,
+                                  final Response.ErrorListener errorListener) {
+        return get(mFiveDay, locationKey, listener, errorListener);
+    }
+
+    /**
+     * Get the twelve hour forecast for a location. Like getFiveDay, the listener may hear
+     * twice.
+     *
+     * @return the handle to stop listening with
+     */
+    @MainThread
+    public Cancellable getTwelveHour(final String locationKey,
+                                     final Response.Listener<ForecastSnapshot<HourPost>> listener,
+                                     final Response.ErrorListener errorListener) {
+        return get(mTwelveHour, locationKey, listener, errorListener);
+    }
+
+    /**
+     * Find the AccuWeather location for a coordinate. Coordinates close to one already
+     * looked up are answered from the cache.
+     *
+     * @return the handle to stop listening with
+     */
+    @MainThread
+    public Cancellable getGeoposition(final double latitude, final double longitude,
+                                      final Response.Listener<WeatherLocation> listener,
+                                      final Response.ErrorListener errorListener) {
+        return mGeoKeys.resolve(latitude, longitude, listener, errorListener);
+    }
+
+    /**
+     * Find the AccuWeather location for a zip code. A zip looked up before is answered
+     * from the cache, which is read off the main thread.
+     *
+     * @return the handle to stop listening with
+     */
+    @MainThread
+    public Cancellable getZipcode(final String zipCode,
+                                  final Response.Listener<WeatherLocation> listener,
+                                  final Response.ErrorListener errorListener) {
+        final String zip = zipCode.trim();
+        final DiskRead read = new DiskRead();
+        mDiskExecutor.execute(() -> {
+            WeatherLocation known = mZipCodes.get(zip);
+            mMainHandler.post(() -> {
+                if (read.mCancelled) {
+                    return;
+                }
+                if (known != null) {
+                    listener.onResponse(known);
+                } else {
+                    read.mFetch = fetchZipcode(zip, listener, errorListener);
+                }
+            });
+        });
+        return read;
+    }
+
+    private Cancellable fetchZipcode(final String zip,
+                                     final Response.Listener<WeatherLocation> listener,
+                                     final Response.ErrorListener errorListener) {
+        final Object tag = new Object();
+        mApi.getZipcode(zip, tag,
+                response -> {
+                    WeatherLocation location;
+                    try {
+                        location = WeatherLocation.fromLookup(response);
+                    } catch (JSONException e) {
+                        errorListener.onErrorResponse(new ParseError(e));
+                        return;
+                    }
+                    mDiskExecutor.execute(() -> mZipCodes.put(zip, location));
+                    listener.onResponse(location);
+                },
+                errorListener);
+        return () -> mApi.cancelAll(tag);
+    }
+
+    /**
+     * List zip codes looked up before that start with a prefix. The cache may be read from
+     * disk, so this must be called off the main thread.
+     *
+     * @param prefix what the user has typed so far
+     * @param limit the most zips to return
+     * @return the matching zips, in order
+     */
+    @WorkerThread
+    public List<String> suggestZipcodes(final String prefix, final int limit) {
+        return mZipCodes.suggest(prefix.trim(), limit);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Cancellable get(final Product<T> product,
+                                final String locationKey,
+                                final Response.Listener<T> listener,
+                                final Response.ErrorListener errorListener) {
+        final String key = product.mName + "/" + locationKey;
+        Entry<T> cached = (Entry<T>) mMemory.get(key);
+        if (cached != null) {
+            listener.onResponse(cached.mValue);
+            if (cached.isStale(product.mMaxAgeMillis)) {
+                return fetch(product, key, locationKey, listener, errorListener);
+            }
+            return Cancellable.NONE;
+        }
+
+        final DiskRead read = new DiskRead();
+        mDiskExecutor.execute(() -> {
+            Entry<T> stored = readFromDisk(product, key, locationKey);
+            mMainHandler.post(() -> {
+                if (stored != null && mMemory.get(key) == null) {
+                    mMemory.put(key, stored);
+                }
+                if (read.mCancelled) {
+                    return;
+                }
+                if (stored != null) {
+                    listener.onResponse(stored.mValue);
+                    if (!stored.isStale(product.mMaxAgeMillis) || read.mCancelled) {
+                        return;
+                    }
+                }
+                read.mFetch = fetch(product, key, locationKey, listener, errorListener);
+            });
+        });
+        return read;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Cancellable fetch(final Product<T> product,
+                                  final String key,
+                                  final String locationKey,
+                                  final Response.Listener<T> listener,
+                                  final Response.ErrorListener errorListener) {
+        SharedRequest<T> pending = (SharedRequest<T>) mInFlight.get(key);
+        if (pending != null) {
+            // already on its way, just wait for it
+            return pending.join(listener, errorListener);
+        }
+
+        // a tag of its own, so this network call can be cancelled once every waiter has left
+        final Object tag = new Object();
+        final SharedRequest<T> created = new SharedRequest<>(() -> {
+            mInFlight.remove(key);
+            mApi.cancelAll(tag);
+        });
+        mInFlight.put(key, created);
+        Cancellable waiter = created.join(listener, errorListener);
+
+        product.mFetch.start(locationKey, tag,
+                (data, charset) -> {
+                    // parsed here on the network dispatcher thread
+                    String raw = new String(data, charset);
+                    long fetchedAt = System.currentTimeMillis();
+                    return new Entry<>(product.mParser.parse(locationKey, raw, fetchedAt),
+                            raw, fetchedAt);
+                },
+                (Entry<T> entry) -> {
+                    mInFlight.remove(key);
+                    mMemory.put(key, entry);
+                    mDiskExecutor.execute(() -> writeToDisk(key, entry));
+                    created.deliver(entry.mValue);
+                },
+                error -> {
+                    mInFlight.remove(key);
+                    created.fail(error);
+                });
+        return waiter;
+    }
+
+    private File fileFor(final String key) {
+        return new File(mDiskDir, key.replaceAll("[^A-Za-z0-9]", "_"));
+    }
+
+    /**
+     * Read a copy from disk. The file holds the fetch time on the first line and the raw
+     * response after it.
+     */
+    @WorkerThread
+    @Nullable
+    private <T> Entry<T> readFromDisk(final Product<T> product, final String key,
+                                      final String locationKey) {
+        File file = fileFor(key);
+        if (!file.exists()) {
+            return null;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(file), StandardCharsets.UTF_8))) {
+            long fetchedAt = Long.parseLong(reader.readLine());
+            StringBuilder raw = new StringBuilder();
+            char[] buffer = new char[4096];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                raw.append(buffer, 0, read);
+            }
+            String json = raw.toString();
+            return new Entry<>(product.mParser.parse(locationKey, json, fetchedAt),
+                    json, fetchedAt);
+        } catch (IOException | JSONException | NumberFormatException e) {
+            Log.e("WEATHER CACHE", "Dropping unreadable copy of " + key + ": " + e.getMessage());
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+            return null;
+        }
+    }
+
+    @WorkerThread
+    private void writeToDisk(final String key, final Entry<?> entry) {
+        if (!mDiskDir.exists() && !mDiskDir.mkdirs()) {
+            return;
+        }
+        File file = fileFor(key);
+        File temp = new File(mDiskDir, file.getName() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(
+                new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+            writer.write(Long.toString(entry.mFetchedAt));
+            writer.write('\n');
+            writer.write(entry.mRaw);
+        } catch (IOException e) {
+            Log.e("WEATHER CACHE", "Could not save " + key + ": " + e.getMessage());
+            //noinspection ResultOfMethodCallIgnored
+            temp.delete();
+            return;
+        }
+        // swap in the whole file at once so a reader never sees half of it
+        if (!temp.renameTo(file)) {
+            //noinspection ResultOfMethodCallIgnored
+            temp.delete();
+        }
+        trimDisk();
+    }
+
+    /**
+     * Delete copies past DISK_MAX_AGE_MILLIS, then the least recently fetched ones until at
+     * most DISK_ENTRIES are left.
+     */
+    @WorkerThread
+    private void trimDisk() {
+        File[] files = mDiskDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        long oldest = System.currentTimeMillis() - DISK_MAX_AGE_MILLIS;
+        List<File> kept = new ArrayList<>(files.length);
+        for (File file : files) {
+            if (file.lastModified() < oldest) {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            } else {
+                kept.add(file);
+            }
+        }
+        if (kept.size() <= DISK_ENTRIES) {
+            return;
+        }
+        // newest first; each file is rewritten whenever its copy is fetched
+        Collections.sort(kept, (a, b) -> Long.compare(b.lastModified(), a.lastModified()));
+        for (File file : kept.subList(DISK_ENTRIES, kept.size())) {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package edu.uw.group1app.ui.weather;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import edu.uw.group1app.R;
+
+/**
+ * Zip codes the user has looked up before and the AccuWeather location each one gave.
+ * Kept in shared preferences, with a sorted in-memory index so the zips starting with what
+ * the user has typed so far can be listed without scanning them all.
+ *
+ * The index is read from disk on first use, so every method must be called off the main
+ * thread. They are safe to call from several threads at once; the zip code dialog asks for
+ * suggestions from its filter thread while the repository reads and writes on its own.
+ */
+final class ZipCodeCache {
+
+    private final SharedPreferences mDisk;
+
+    /**
+     * Every cached zip in sorted order, loaded from mDisk on first use.
+     */
+    private TreeMap<String, WeatherLocation> mIndex;
+
+    /**
+     * Constructor for ZipCodeCache
+     *
+     * @param context any context
+     */
+    ZipCodeCache(final Context context) {
+        mDisk = context.getSharedPreferences(
+                context.getString(R.string.keys_shared_prefs_zip_keys), Context.MODE_PRIVATE);
+    }
+
+    /**
+     * it returns the location a zip code gave last time
+     *
+     * @param zipCode the zip code
+     * @return the location, or null if the zip has not been looked up
+     */
+    @WorkerThread
+    @Nullable
+    synchronized WeatherLocation get(final String zipCode) {
+        return index().get(zipCode);
+    }
+
+    /**
+     * Remember the location a zip code gave.
+     *
+     * @param zipCode the zip code
+     * @param location the location
+     */
+    @WorkerThread
+    synchronized void put(final String zipCode, final WeatherLocation location) {
+        index().put(zipCode, location);
+        mDisk.edit().putString(zipCode, location.encode()).apply();
+    }
+
+    /**
+     * List cached zip codes starting with a prefix, in order.
+     *
+     * @param prefix what the user has typed so far
+     * @param limit the most zips to return
+     * @return the matching zips
+     */
+    @WorkerThread
+    synchronized List<String> suggest(final String prefix, final int limit) {
+        List<String> result = new ArrayList<>(limit);
+        // every key starting with prefix sorts between prefix and prefix + MAX_VALUE
+        for (String zip : index().subMap(prefix, prefix + Character.MAX_VALUE).keySet()) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(zip);
+        }
+        return result;
+    }
+
+    private TreeMap<String, WeatherLocation> index() {
+        if (mIndex == null) {
+            mIndex = new TreeMap<>();
+            for (Map.Entry<String, ?> entry : mDisk.getAll().entrySet()) {
+                WeatherLocation location = WeatherLocation.decode(
+                        entry.getValue() instanceof String ? (String) entry.getValue() : null);
+                if (location != null) {
+                    mIndex.put(entry.getKey(), location);
+                }
+            }
+        }
+        return mIndex;
+    }
+}
@@ -7,7 +7,9 @@ import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.ArrayAdapter;
 import android.widget.Button;
+import android.widget.Filter;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
@@ -15,6 +17,10 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.DialogFragment;
 import androidx.lifecycle.ViewModelProvider;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import edu.uw.group1app.R;
 import edu.uw.group1app.databinding.FragmentWeatherBinding;
 import edu.uw.group1app.databinding.ZipcodeDialogBinding;
@@ -26,14 +32,14 @@ public class ZipcodeDialog extends DialogFragment {
 
     private ZipcodeDialogBinding binding;
     private ZipcodeViewModel mZipModel;
-    //private FiveDayHomeViewModel mFiveModel;
+    //private FiveDayViewModel mFiveModel;
 
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
         mZipModel = new ViewModelProvider(getActivity()).get(ZipcodeViewModel.class);
-        //mFiveModel = new ViewModelProvider(getActivity()).get(FiveDayHomeViewModel.class);
+        //mFiveModel = new ViewModelProvider(getActivity()).get(FiveDayViewModel.class);
     }
 
     @Override
@@ -48,6 +54,48 @@ public class ZipcodeDialog extends DialogFragment {
             }
         });
 
+        binding.editTextEnterZip.setAdapter(new SuggestionAdapter(mZipModel, view));
+    }
+
+    /**
+     * Offers zip codes the user has looked up before, matched by prefix against the
+     * cache's sorted index rather than by filtering a copy of every zip.
+     */
+    private static class SuggestionAdapter extends ArrayAdapter<String> {
+
+        private final ZipcodeViewModel mModel;
+
+        SuggestionAdapter(final ZipcodeViewModel model, final View view) {
+            super(view.getContext(), android.R.layout.simple_dropdown_item_1line,
+                    new ArrayList<>());
+            mModel = model;
+        }
+
+        @NonNull
+        @Override
+        public Filter getFilter() {
+            return new Filter() {
+                @Override
+                protected FilterResults performFiltering(CharSequence prefix) {
+                    FilterResults results = new FilterResults();
+                    List<String> zips = prefix == null
+                            ? Collections.emptyList()
+                            : mModel.getSuggestions(prefix.toString());
+                    results.values = zips;
+                    results.count = zips.size();
+                    return results;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                protected void publishResults(CharSequence prefix, FilterResults results) {
+                    setNotifyOnChange(false);
+                    clear();
+                    addAll((List<String>) results.values);
+                    notifyDataSetChanged();
+                }
+            };
+        }
     }
 
     @Override
@@ -9,33 +9,31 @@ import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Observer;
 
-import com.android.volley.DefaultRetryPolicy;
-import com.android.volley.Request;
 import com.android.volley.VolleyError;
-import com.android.volley.toolbox.JsonArrayRequest;
-import com.android.volley.toolbox.JsonObjectRequest;
-import com.android.volley.toolbox.JsonRequest;
-import com.android.volley.toolbox.Volley;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
+import java.util.List;
 
-import java.util.function.IntFunction;
+import edu.uw.group1app.io.RequestSlot;
 
 public class ZipcodeViewModel extends AndroidViewModel {
 
-    private MutableLiveData<JSONObject> mDetails;
+    /**
+     * Most suggestions shown under the zip code field.
+     */
+    private static final int MAX_SUGGESTIONS = 5;
 
+    private MutableLiveData<WeatherLocation> mDetails;
+
+    private RequestSlot mRequest;
 
     public ZipcodeViewModel(@NonNull Application application) {
         super(application);
         mDetails = new MutableLiveData<>();
-        mDetails.setValue(new JSONObject());
+        mRequest = new RequestSlot();
     }
 
     public void addResponseObserver(@NonNull LifecycleOwner owner,
-                                    @NonNull Observer<? super JSONObject> observer) {
+                                    @NonNull Observer<? super WeatherLocation> observer) {
         mDetails.observe(owner, observer);
     }
 
@@ -48,30 +46,30 @@ public class ZipcodeViewModel extends AndroidViewModel {
     }
 
 
+    /**
+     * Find the AccuWeather location for a zip code. Zips looked up before are answered
+     * without a network call.
+     * @param zipCode the zip code
+     */
     public void connect(final String zipCode){
-        String url = "https://mobileapp-group-backend.herokuapp.com/zipcode";
-
-        JSONObject body = new JSONObject();
-        try{
-            body.put("zipcode", zipCode);
-        } catch (JSONException e){
-            e.printStackTrace();
-        }
-
-        Request request = new JsonObjectRequest(
-                Request.Method.POST,
-                url,
-                body,
-                mDetails::setValue,
-                this::handleError
-        );
-
-        request.setRetryPolicy(new DefaultRetryPolicy(
-                10_000,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
-        //Instantiate the RequestQueue and add the request to the queue
-        Volley.newRequestQueue(getApplication().getApplicationContext())
-                .add(request);
+        mRequest.set(WeatherRepository.getInstance(getApplication())
+                .getZipcode(zipCode, mDetails::setValue, this::handleError));
+    }
+
+    /**
+     * List zip codes looked up before that start with what the user has typed. Must be
+     * called off the main thread, e.g. from the dialog's filter thread.
+     * @param prefix the text typed so far
+     * @return the matching zips, in order
+     */
+    public List<String> getSuggestions(final String prefix) {
+        return WeatherRepository.getInstance(getApplication())
+                .suggestZipcodes(prefix, MAX_SUGGESTIONS);
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        mRequest.cancel();
     }
 }
@@ -0,0 +1,160 @@
+package edu.uw.group1app.io;
+
+import com.android.volley.Request;
+import com.android.volley.VolleyError;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import edu.uw.group1app.ui.contacts.all.Contact;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link ApiClient}, run against a stand-in {@link Transport} that
+ * records every call instead of sending it.
+ */
+public class ApiClientTest {
+
+    private static final String BASE_URL = "https://example.test/";
+
+    private static final String CONTACTS = "{\"contacts\": ["
+            + "{\"email\": \"jsmith@uw.edu\", \"firstName\": \"John\", \"lastName\": \"Smith\","
+            + " \"userName\": \"jsmith\", \"memberId\": 1, \"verified\": 1},"
+            + "{\"email\": \"mlee@uw.edu\", \"firstName\": \"Mary\", \"lastName\": \"Lee\","
+            + " \"userName\": \"mlee\", \"memberId\": 2, \"verified\": 0}]}";
+
+    /**
+     * Keeps every call it is handed, so a test can check it and answer it.
+     */
+    private static final class FakeTransport implements Transport {
+        private final List<ApiCall<?>> mSent = new ArrayList<>();
+        private final List<Object> mCancelled = new ArrayList<>();
+
+        @Override
+        public <T> void send(final ApiCall<T> call) {
+            mSent.add(call);
+        }
+
+        @Override
+        public void cancelAll(final Object tag) {
+            mCancelled.add(tag);
+        }
+    }
+
+    private final FakeTransport mTransport = new FakeTransport();
+
+    private final ApiClient mClient = new ApiClient(BASE_URL, mTransport);
+
+    private final List<Object> mDelivered = new ArrayList<>();
+
+    private final List<VolleyError> mErrors = new ArrayList<>();
+
+    /**
+     * Answer a call the way a transport would, decoding the body and delivering the result.
+     */
+    private static <T> void answer(final ApiCall<T> call, final String body) throws Exception {
+        call.getListener().onResponse(call.getDecoder().decode(
+                body.getBytes(StandardCharsets.UTF_8), "UTF-8"));
+    }
+
+    private ApiCall<?> onlyCall() {
+        assertEquals(1, mTransport.mSent.size());
+        return mTransport.mSent.get(0);
+    }
+
+    @Test
+    public void getContacts_sendsAnAuthorizedGetAndDecodesVerifiedContacts() throws Exception {
+        mClient.getContacts("jwt-1", mDelivered::add, mErrors::add);
+
+        ApiCall<?> call = onlyCall();
+        assertEquals(Request.Method.GET, call.getMethod());
+        assertEquals(BASE_URL + "contact", call.getUrl());
+        assertNull(call.getBody());
+        assertNull(call.getTag());
+        assertEquals(Collections.singletonMap("Authorization", "jwt-1"), call.getHeaders());
+
+        answer(call, CONTACTS);
+        assertEquals(Collections.singletonList(Collections.singletonList(
+                new Contact("jsmith@uw.edu", "John", "Smith", "jsmith", 1))), mDelivered);
+        assertTrue(mErrors.isEmpty());
+    }
+
+    @Test(expected = JSONException.class)
+    public void getContacts_malformedBodyFailsTheDecode() throws Exception {
+        mClient.getContacts("jwt-1", mDelivered::add, mErrors::add);
+        answer(onlyCall(), "{\"contacts\": [{\"email\": \"jsmith@uw.edu\"}]}");
+    }
+
+    @Test
+    public void authHeaders_areBuiltOncePerJwt() {
+        mClient.getContacts("jwt-1", mDelivered::add, mErrors::add);
+        mClient.getFavorites("jwt-1", mDelivered::add, mErrors::add);
+        mClient.getChatRooms("jwt-2", mDelivered::add, mErrors::add);
+
+        Map<String, String> first = mTransport.mSent.get(0).getHeaders();
+        assertSame(first, mTransport.mSent.get(1).getHeaders());
+        assertEquals(Collections.singletonMap("Authorization", "jwt-2"),
+                mTransport.mSent.get(2).getHeaders());
+        assertEquals(Collections.singletonMap("Authorization", "jwt-1"), first);
+    }
+
+    @Test
+    public void weatherCall_sendsNoAuthorizationAndKeepsItsTag() throws Exception {
+        Object tag = new Object();
+        mClient.getZipcode("98402", tag, mDelivered::add, mErrors::add);
+
+        ApiCall<?> call = onlyCall();
+        assertEquals(Request.Method.POST, call.getMethod());
+        assertEquals(BASE_URL + "zipcode", call.getUrl());
+        assertEquals("98402", call.getBody().getString("zipcode"));
+        assertTrue(call.getHeaders().isEmpty());
+        assertSame(tag, call.getTag());
+
+        mClient.cancelAll(tag);
+        assertEquals(Collections.singletonList(tag), mTransport.mCancelled);
+
+        answer(call, "{\"Key\": \"331423\"}");
+        assertEquals("331423", ((JSONObject) mDelivered.get(0)).getString("Key"));
+    }
+
+    @Test
+    public void queuedCall_withoutAnOutbox_isSentStraightAway() throws Exception {
+        assertNull(mClient.getOutbox());
+        mClient.addChat("jwt-1", "Study group", mDelivered::add, mErrors::add);
+
+        ApiCall<?> call = onlyCall();
+        assertEquals(Request.Method.POST, call.getMethod());
+        assertEquals(BASE_URL + "chats", call.getUrl());
+        assertEquals("Study group", call.getBody().getString("name"));
+        assertEquals(Collections.singletonMap("Authorization", "jwt-1"), call.getHeaders());
+
+        answer(call, "{\"success\": true, \"chatID\": 42}");
+        assertEquals(Collections.singletonList(42), mDelivered);
+    }
+
+    @Test
+    public void sendQueued_addsTheKeyWithoutChangingTheSharedHeaders() throws Exception {
+        mClient.getContacts("jwt-1", mDelivered::add, mErrors::add);
+        mClient.sendQueued("jwt-1", Request.Method.PUT, "chats/7",
+                new JSONObject("{\"chatid\": 7}"), "key-1",
+                (data, charset) -> new String(data, charset), mDelivered::add, mErrors::add);
+
+        ApiCall<?> queued = mTransport.mSent.get(1);
+        assertEquals(Request.Method.PUT, queued.getMethod());
+        assertEquals(BASE_URL + "chats/7", queued.getUrl());
+        assertEquals(7, queued.getBody().getInt("chatid"));
+        assertEquals("jwt-1", queued.getHeaders().get("Authorization"));
+        assertEquals("key-1", queued.getHeaders().get(Outbox.IDEMPOTENCY_HEADER));
+
+        assertEquals(Collections.singletonMap("Authorization", "jwt-1"),
+                mTransport.mSent.get(0).getHeaders());
+    }
+}
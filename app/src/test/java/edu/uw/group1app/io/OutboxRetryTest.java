@@ -0,0 +1,134 @@
+package edu.uw.group1app.io;
+
+import com.android.volley.NetworkError;
+import com.android.volley.NetworkResponse;
+import com.android.volley.NoConnectionError;
+import com.android.volley.Request;
+import com.android.volley.ServerError;
+import com.android.volley.TimeoutError;
+import com.android.volley.VolleyError;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.net.UnknownHostException;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link OutboxRetry}, the rule the outbox uses to decide which
+ * failed calls to send again, and how long it waits between attempts. OutboxTest runs the
+ * real outbox through an outage.
+ */
+public class OutboxRetryTest {
+
+    private static VolleyError offline() {
+        return new NoConnectionError(new UnknownHostException("no network"));
+    }
+
+    private static VolleyError refused() {
+        return new NoConnectionError(new ConnectException("connection refused"));
+    }
+
+    private static VolleyError dropped() {
+        return new NoConnectionError(new SocketException("connection reset"));
+    }
+
+    private static VolleyError status(final int code) {
+        return new ServerError(new NetworkResponse(code, new byte[0],
+                Collections.<String, String>emptyMap(), false));
+    }
+
+    @Test
+    public void callsThatNeverLeftTheDevice_areAlwaysRetried() {
+        for (int method : new int[]{Request.Method.POST, Request.Method.PUT,
+                Request.Method.DELETE}) {
+            assertTrue(OutboxRetry.shouldRetry(method, offline(), false, 1));
+            assertTrue(OutboxRetry.shouldRetry(method, refused(), false, 1));
+        }
+    }
+
+    @Test
+    public void postThatMayHaveArrived_isNotRetried() {
+        assertFalse(OutboxRetry.shouldRetry(Request.Method.POST, new TimeoutError(), false, 1));
+        assertFalse(OutboxRetry.shouldRetry(Request.Method.POST, dropped(), false, 1));
+        assertFalse(OutboxRetry.shouldRetry(Request.Method.POST, status(503), false, 1));
+        assertFalse(OutboxRetry.shouldRetry(Request.Method.POST,
+                new NetworkError(new IOException()), false, 1));
+    }
+
+    @Test
+    public void postThatMayHaveArrived_isRetriedWhenTheKeyIsHonoured() {
+        assertTrue(OutboxRetry.shouldRetry(Request.Method.POST, new TimeoutError(), true, 1));
+        assertTrue(OutboxRetry.shouldRetry(Request.Method.POST, dropped(), true, 1));
+        assertTrue(OutboxRetry.shouldRetry(Request.Method.POST, status(502), true, 1));
+    }
+
+    @Test
+    public void idempotentCallThatMayHaveArrived_isRetried() {
+        assertTrue(OutboxRetry.shouldRetry(Request.Method.PUT, new TimeoutError(), false, 1));
+        assertTrue(OutboxRetry.shouldRetry(Request.Method.DELETE, status(500), false, 1));
+        assertTrue(OutboxRetry.shouldRetry(Request.Method.PUT, dropped(), false, 1));
+    }
+
+    @Test
+    public void callTurnedDown_isNeverRetried() {
+        for (boolean honoursKey : new boolean[]{false, true}) {
+            assertFalse(OutboxRetry.shouldRetry(Request.Method.PUT, status(400), honoursKey, 1));
+            assertFalse(OutboxRetry.shouldRetry(Request.Method.POST, status(409), honoursKey, 1));
+            assertFalse(OutboxRetry.shouldRetry(Request.Method.DELETE, new VolleyError(),
+                    honoursKey, 1));
+        }
+    }
+
+    @Test
+    public void callTheWebServiceKeepsFailing_isGivenUpOnAfterMaxAttempts() {
+        for (int attempts = 1; attempts < OutboxRetry.MAX_ATTEMPTS; attempts++) {
+            assertTrue(OutboxRetry.shouldRetry(Request.Method.PUT, status(500), false,
+                    attempts));
+            assertTrue(OutboxRetry.shouldRetry(Request.Method.POST, new TimeoutError(), true,
+                    attempts));
+        }
+        assertFalse(OutboxRetry.shouldRetry(Request.Method.PUT, status(500), false,
+                OutboxRetry.MAX_ATTEMPTS));
+        assertFalse(OutboxRetry.shouldRetry(Request.Method.POST, new TimeoutError(), true,
+                OutboxRetry.MAX_ATTEMPTS));
+    }
+
+    @Test
+    public void attemptsThatNeverLeftTheDevice_doNotCount() {
+        assertFalse(OutboxRetry.countsAsAttempt(offline()));
+        assertFalse(OutboxRetry.countsAsAttempt(refused()));
+        assertTrue(OutboxRetry.countsAsAttempt(dropped()));
+        assertTrue(OutboxRetry.countsAsAttempt(new TimeoutError()));
+        assertTrue(OutboxRetry.countsAsAttempt(status(503)));
+        // however long the phone is offline, the call is kept
+        assertTrue(OutboxRetry.shouldRetry(Request.Method.POST, offline(), false,
+                OutboxRetry.MAX_ATTEMPTS));
+    }
+
+    @Test
+    public void isIdempotent_followsTheMethod() {
+        assertTrue(OutboxRetry.isIdempotent(Request.Method.GET));
+        assertTrue(OutboxRetry.isIdempotent(Request.Method.PUT));
+        assertTrue(OutboxRetry.isIdempotent(Request.Method.DELETE));
+        assertFalse(OutboxRetry.isIdempotent(Request.Method.POST));
+        assertFalse(OutboxRetry.isIdempotent(Request.Method.PATCH));
+    }
+
+    @Test
+    public void nextDelay_doublesUpToTheCapAndResets() {
+        OutboxRetry backOff = new OutboxRetry();
+        long expected = OutboxRetry.FIRST_DELAY_MILLIS;
+        for (int i = 0; i < 10; i++) {
+            assertEquals(expected, backOff.nextDelay());
+            expected = Math.min(expected * 2, OutboxRetry.MAX_DELAY_MILLIS);
+        }
+        assertEquals(OutboxRetry.MAX_DELAY_MILLIS, backOff.nextDelay());
+        backOff.reset();
+        assertEquals(OutboxRetry.FIRST_DELAY_MILLIS, backOff.nextDelay());
+    }
+}
@@ -0,0 +1,183 @@
+package edu.uw.group1app.ui.chat;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link ChatMessageList}, and a benchmark loading 50k messages into
+ * one room.
+ */
+public class ChatMessageListTest {
+
+    private static final int ROOM_SIZE = 50_000;
+
+    private static final int PAGE_SIZE = 20;
+
+    private static ChatMessage message(final int id) {
+        return new ChatMessage(id, "message " + id, "a@uw.edu", "2020-11-01 10:00:00");
+    }
+
+    private static void assertIds(final ChatMessageList list, final int... ids) {
+        assertEquals(ids.length, list.size());
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(ids[i], list.get(i).getMessageId());
+        }
+    }
+
+    @Test
+    public void insertAll_sortsAndSkipsDuplicates() {
+        ChatMessageList list = new ChatMessageList();
+        assertEquals(3, list.insertAll(Arrays.asList(message(5), message(1), message(3))));
+        assertEquals(1, list.insertAll(Arrays.asList(message(3), message(4))));
+        assertIds(list, 1, 3, 4, 5);
+    }
+
+    @Test
+    public void insertAll_addsOlderAndNewerPagesAtTheEnds() {
+        ChatMessageList list = new ChatMessageList();
+        list.insertAll(Arrays.asList(message(10), message(11)));
+        list.insertAll(Arrays.asList(message(8), message(9)));
+        list.insertAll(Collections.singletonList(message(12)));
+        assertIds(list, 8, 9, 10, 11, 12);
+        assertEquals(8, list.getOldestSent().getMessageId());
+        assertEquals(12, list.getNewestSent().getMessageId());
+    }
+
+    @Test
+    public void insert_fillsAGap() {
+        ChatMessageList list = new ChatMessageList();
+        list.insertAll(Arrays.asList(message(1), message(2), message(6), message(7)));
+        list.insertAll(Arrays.asList(message(3), message(5), message(4)));
+        assertIds(list, 1, 2, 3, 4, 5, 6, 7);
+        assertFalse(list.insert(message(4)));
+    }
+
+    @Test
+    public void findById_followsTheList() {
+        ChatMessageList list = new ChatMessageList();
+        list.insertAll(Arrays.asList(message(1), message(2)));
+        assertTrue(list.containsId(2));
+        assertTrue(list.contains(message(2)));
+        assertEquals("message 2", list.findById(2).getMessage());
+        assertNull(list.findById(3));
+        list.clear();
+        assertFalse(list.containsId(2));
+        assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void pending_comeAfterSentMessages() {
+        ChatMessageList list = new ChatMessageList();
+        list.insert(message(1));
+        list.addPending(new ChatMessage(-1, "hi", "a@uw.edu", ""));
+        list.insert(message(2));
+        assertEquals(3, list.size());
+        assertEquals(-1, list.get(2).getMessageId());
+        assertEquals(2, list.getNewestSent().getMessageId());
+
+        assertTrue(list.removePending(-1));
+        assertFalse(list.removePending(-1));
+        assertIds(list, 1, 2);
+    }
+
+    @Test
+    public void removePendingCopyOf_dropsTheOldestMatch() {
+        ChatMessageList list = new ChatMessageList();
+        list.addPending(new ChatMessage(-1, "hi", "a@uw.edu", ""));
+        list.addPending(new ChatMessage(-2, "hi", "a@uw.edu", ""));
+        assertTrue(list.removePendingCopyOf(new ChatMessage(7, "hi", "a@uw.edu", "")));
+        assertEquals(-2, list.get(0).getMessageId());
+        assertFalse(list.removePendingCopyOf(new ChatMessage(8, "bye", "a@uw.edu", "")));
+    }
+
+    @Test
+    public void trim_dropsFromOneEndAndKeepsPending() {
+        ChatMessageList list = new ChatMessageList();
+        list.insertAll(Arrays.asList(message(1), message(2), message(3), message(4)));
+        list.addPending(new ChatMessage(-1, "hi", "a@uw.edu", ""));
+
+        assertEquals(1, list.trimOldest(3));
+        assertFalse(list.containsId(1));
+        assertEquals(1, list.trimNewest(2));
+        assertFalse(list.containsId(4));
+        assertEquals(0, list.trimNewest(2));
+
+        assertEquals(3, list.size());
+        assertEquals(2, list.get(0).getMessageId());
+        assertEquals(3, list.get(1).getMessageId());
+        assertEquals(-1, list.get(2).getMessageId());
+    }
+
+    /**
+     * Loads 50k messages into one room, page by page as scrolling back through history
+     * does, then again in shuffled batches that each land in the middle of the list. The
+     * page by page load is also timed the way the room used to load, checking contains()
+     * on the list and adding each row at the front, for comparison.
+     */
+    @Test
+    public void benchmark_50kMessagesInOneRoom() {
+        // the web service sends each page newest first
+        List<List<ChatMessage>> pages = new ArrayList<>();
+        for (int high = ROOM_SIZE; high > 0; high -= PAGE_SIZE) {
+            List<ChatMessage> page = new ArrayList<>(PAGE_SIZE);
+            for (int id = high; id > Math.max(0, high - PAGE_SIZE); id--) {
+                page.add(message(id));
+            }
+            pages.add(page);
+        }
+
+        long start = System.nanoTime();
+        ChatMessageList paged = new ChatMessageList();
+        for (List<ChatMessage> page : pages) {
+            paged.insertAll(page);
+        }
+        long pagedNanos = System.nanoTime() - start;
+        assertSorted(paged);
+        assertEquals(0, paged.insertAll(pages.get(pages.size() / 2)));
+
+        List<ChatMessage> shuffled = new ArrayList<>();
+        for (List<ChatMessage> page : pages) {
+            shuffled.addAll(page);
+        }
+        Collections.shuffle(shuffled, new Random(450));
+        start = System.nanoTime();
+        ChatMessageList batched = new ChatMessageList();
+        for (int i = 0; i < shuffled.size(); i += 500) {
+            batched.insertAll(shuffled.subList(i, Math.min(i + 500, shuffled.size())));
+        }
+        long batchedNanos = System.nanoTime() - start;
+        assertSorted(batched);
+
+        start = System.nanoTime();
+        List<ChatMessage> old = new ArrayList<>();
+        for (List<ChatMessage> page : pages) {
+            for (ChatMessage message : page) {
+                if (!old.contains(message)) {
+                    old.add(0, message);
+                }
+            }
+        }
+        long oldNanos = System.nanoTime() - start;
+        assertEquals(paged, old);
+
+        System.out.printf(Locale.ROOT,
+                "50k messages: %d ms by page, %d ms in shuffled batches, %d ms as before%n",
+                pagedNanos / 1_000_000, batchedNanos / 1_000_000, oldNanos / 1_000_000);
+    }
+
+    private static void assertSorted(final ChatMessageList list) {
+        assertEquals(ROOM_SIZE, list.size());
+        for (int i = 0; i < ROOM_SIZE; i++) {
+            assertEquals(i + 1, list.get(i).getMessageId());
+            assertTrue(list.containsId(i + 1));
+        }
+    }
+}
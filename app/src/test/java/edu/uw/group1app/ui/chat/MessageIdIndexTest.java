@@ -0,0 +1,102 @@
+package edu.uw.group1app.ui.chat;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link MessageIdIndex}.
+ */
+public class MessageIdIndexTest {
+
+    private static ChatMessage message(final int id) {
+        return new ChatMessage(id, "message " + id, "a@uw.edu", "2020-11-01 10:00:00");
+    }
+
+    @Test
+    public void putIfAbsent_keepsTheFirstMessageForAnId() {
+        MessageIdIndex index = new MessageIdIndex();
+        ChatMessage first = message(7);
+        assertTrue(index.putIfAbsent(7, first));
+        assertFalse(index.putIfAbsent(7, message(7)));
+        assertSame(first, index.get(7));
+        assertEquals(1, index.size());
+        assertNull(index.get(8));
+        assertFalse(index.containsKey(8));
+    }
+
+    @Test
+    public void index_growsPastItsFirstTable() {
+        MessageIdIndex index = new MessageIdIndex();
+        for (int id = 1; id <= 1_000; id++) {
+            assertTrue(index.putIfAbsent(id, message(id)));
+        }
+        assertEquals(1_000, index.size());
+        for (int id = 1; id <= 1_000; id++) {
+            assertEquals(id, index.get(id).getMessageId());
+        }
+    }
+
+    @Test
+    public void remove_keepsEveryOtherIdReachable() {
+        MessageIdIndex index = new MessageIdIndex();
+        for (int id = 0; id < 100; id++) {
+            index.putIfAbsent(id, message(id));
+        }
+        for (int id = 0; id < 100; id += 3) {
+            assertTrue(index.remove(id));
+            assertFalse(index.remove(id));
+        }
+        for (int id = 0; id < 100; id++) {
+            assertEquals(id % 3 != 0, index.containsKey(id));
+        }
+    }
+
+    @Test
+    public void negativeIds_areKeysLikeAnyOther() {
+        MessageIdIndex index = new MessageIdIndex();
+        index.putIfAbsent(-1, message(-1));
+        index.putIfAbsent(0, message(0));
+        assertEquals(-1, index.get(-1).getMessageId());
+        assertEquals(0, index.get(0).getMessageId());
+    }
+
+    @Test
+    public void clear_emptiesTheIndex() {
+        MessageIdIndex index = new MessageIdIndex();
+        index.putIfAbsent(1, message(1));
+        index.clear();
+        assertEquals(0, index.size());
+        assertFalse(index.containsKey(1));
+        assertTrue(index.putIfAbsent(1, message(1)));
+    }
+
+    /**
+     * Random puts and removes over a small range of ids, so probe runs collide and wrap,
+     * checked against a HashMap after every step.
+     */
+    @Test
+    public void randomPutsAndRemoves_matchAHashMap() {
+        MessageIdIndex index = new MessageIdIndex();
+        Map<Integer, ChatMessage> expected = new HashMap<>();
+        Random random = new Random(450);
+        for (int step = 0; step < 20_000; step++) {
+            int id = random.nextInt(300) - 50;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(id) != null, index.remove(id));
+            } else {
+                ChatMessage message = message(id);
+                assertEquals(!expected.containsKey(id), index.putIfAbsent(id, message));
+                expected.putIfAbsent(id, message);
+            }
+            assertEquals(expected.size(), index.size());
+        }
+        for (int id = -50; id < 250; id++) {
+            assertSame(expected.get(id), index.get(id));
+        }
+    }
+}
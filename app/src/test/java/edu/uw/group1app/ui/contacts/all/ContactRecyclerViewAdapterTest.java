@@ -0,0 +1,138 @@
+package edu.uw.group1app.ui.contacts.all;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the diff {@link ContactRecyclerViewAdapter} hands to ListAdapter,
+ * counting the rows a new contact list would bind again.
+ */
+public class ContactRecyclerViewAdapterTest {
+
+    /**
+     * The row updates a new list causes, as RecyclerView would be told about them.
+     */
+    private static final class Updates implements ListUpdateCallback {
+        private int mInserted;
+        private int mRemoved;
+        private int mMoved;
+        private final List<Integer> mChanged = new ArrayList<>();
+
+        @Override
+        public void onInserted(final int position, final int count) {
+            mInserted += count;
+        }
+
+        @Override
+        public void onRemoved(final int position, final int count) {
+            mRemoved += count;
+        }
+
+        @Override
+        public void onMoved(final int fromPosition, final int toPosition) {
+            mMoved++;
+        }
+
+        @Override
+        public void onChanged(final int position, final int count,
+                              @Nullable final Object payload) {
+            for (int i = 0; i < count; i++) {
+                mChanged.add(position + i);
+            }
+        }
+
+        /**
+         * it returns how many rows are bound again, by being added or changed
+         */
+        int rebound() {
+            return mInserted + mChanged.size();
+        }
+    }
+
+    private static Updates diff(final List<Contact> before, final List<Contact> after) {
+        DiffUtil.DiffResult result = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return before.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return after.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(final int oldPosition, final int newPosition) {
+                return ContactRecyclerViewAdapter.DIFF_CALLBACK.areItemsTheSame(
+                        before.get(oldPosition), after.get(newPosition));
+            }
+
+            @Override
+            public boolean areContentsTheSame(final int oldPosition, final int newPosition) {
+                return ContactRecyclerViewAdapter.DIFF_CALLBACK.areContentsTheSame(
+                        before.get(oldPosition), after.get(newPosition));
+            }
+        });
+        Updates updates = new Updates();
+        result.dispatchUpdatesTo(updates);
+        return updates;
+    }
+
+    private static List<Contact> contacts(final int count) {
+        List<Contact> contacts = new ArrayList<>();
+        for (int id = 1; id <= count; id++) {
+            contacts.add(contact(id, "Last" + id));
+        }
+        return contacts;
+    }
+
+    private static Contact contact(final int id, final String lastName) {
+        return new Contact("user" + id + "@uw.edu", "First" + id, lastName, "user" + id, id);
+    }
+
+    @Test
+    public void favoriteToggle_rebindsExactlyOneRowOfTheFavoriteList() {
+        List<Contact> favorites = new ArrayList<>(Arrays.asList(contact(2, "Last2"),
+                contact(7, "Last7")));
+        List<Contact> favorited = new ArrayList<>(favorites);
+        favorited.add(1, contact(5, "Last5"));
+
+        Updates added = diff(favorites, favorited);
+        assertEquals(1, added.rebound());
+        assertEquals(1, added.mInserted);
+
+        Updates removed = diff(favorited, favorites);
+        assertEquals(0, removed.rebound());
+        assertEquals(1, removed.mRemoved);
+    }
+
+    @Test
+    public void favoriteToggle_rebindsNothingInTheContactList() {
+        // favoriting does not change any contact, so the refetched list is equal
+        Updates updates = diff(contacts(50), contacts(50));
+        assertEquals(0, updates.rebound());
+        assertEquals(0, updates.mRemoved);
+        assertEquals(0, updates.mMoved);
+    }
+
+    @Test
+    public void oneContactChanging_rebindsExactlyItsRow() {
+        List<Contact> before = contacts(50);
+        List<Contact> after = contacts(50);
+        after.set(20, contact(21, "Renamed"));
+
+        Updates updates = diff(before, after);
+        assertEquals(1, updates.rebound());
+        assertEquals(Arrays.asList(20), updates.mChanged);
+        assertEquals(0, updates.mMoved);
+    }
+}
@@ -0,0 +1,234 @@
+package edu.uw.group1app.ui.contacts.search;
+
+import org.junit.Test;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import edu.uw.group1app.ui.contacts.all.Contact;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link ContactSearchIndex}, and benchmarks over 50k and 100k
+ * contacts.
+ */
+public class ContactSearchIndexTest {
+
+    private static final long FRAME_NANOS = 16_000_000L;
+
+    private static final int KEYSTROKE_RUNS = 5;
+
+    private static final Contact JOHN =
+            new Contact("jsmith@uw.edu", "John", "Smith", "jsmith", 1);
+    private static final Contact JOSE =
+            new Contact("jose@uw.edu", "José", "Álvarez", "jalvarez", 2);
+    private static final Contact MARY =
+            new Contact("mary@gmail.com", "Mary", "Lee", "mlee", 3);
+
+    private static ContactSearchIndex index(final Contact... contacts) {
+        ContactSearchIndex index = new ContactSearchIndex();
+        index.setContacts(Arrays.asList(contacts));
+        return index;
+    }
+
+    @Test
+    public void search_matchesEveryWordByPrefix() {
+        ContactSearchIndex index = index(JOHN, JOSE, MARY);
+        assertEquals(Arrays.asList(JOHN, JOSE), index.search("jo"));
+        assertEquals(Collections.singletonList(JOHN), index.search("jo sm"));
+        assertEquals(Collections.singletonList(MARY), index.search("LEE"));
+        assertTrue(index.search("jo xyz").isEmpty());
+    }
+
+    @Test
+    public void search_findsUsernameAndEmail() {
+        ContactSearchIndex index = index(JOHN, JOSE, MARY);
+        assertEquals(Collections.singletonList(JOHN), index.search("jsmith@uw"));
+        assertEquals(Collections.singletonList(MARY), index.search("gmail"));
+        assertEquals(Collections.singletonList(JOSE), index.search("jalv"));
+    }
+
+    @Test
+    public void search_ignoresAccents() {
+        ContactSearchIndex index = index(JOHN, JOSE, MARY);
+        assertEquals(Collections.singletonList(JOSE), index.search("jose alvarez"));
+        assertEquals(Collections.singletonList(JOSE), index.search("álv"));
+    }
+
+    @Test
+    public void search_blankQueryListsEveryone() {
+        ContactSearchIndex index = index(MARY, JOHN);
+        assertEquals(Arrays.asList(MARY, JOHN), index.search("  "));
+        assertEquals(Arrays.asList(MARY, JOHN), index.search(null));
+    }
+
+    @Test
+    public void search_narrowsAndWidensAsTheQueryChanges() {
+        ContactSearchIndex index = index(JOHN, JOSE, MARY);
+        assertEquals(Arrays.asList(JOHN, JOSE), index.search("j"));
+        assertEquals(Arrays.asList(JOHN, JOSE), index.search("jo"));
+        assertEquals(Collections.singletonList(JOSE), index.search("jos"));
+        // deleting a letter must not keep searching only the narrower matches
+        assertEquals(Arrays.asList(JOHN, JOSE), index.search("jo"));
+    }
+
+    @Test
+    public void setContacts_reindexesChangedAndDropsRemovedContacts() {
+        ContactSearchIndex index = index(JOHN, JOSE, MARY);
+        assertEquals(Collections.singletonList(MARY), index.search("lee"));
+
+        Contact renamed = new Contact("mary@gmail.com", "Mary", "Park", "mpark", 3);
+        index.setContacts(Arrays.asList(renamed, JOHN));
+        assertTrue(index.search("lee").isEmpty());
+        assertEquals(Collections.singletonList(renamed), index.search("park"));
+        assertTrue(index.search("jose").isEmpty());
+        assertEquals(Arrays.asList(renamed, JOHN), index.search(""));
+    }
+
+    /**
+     * Types a few queries a letter at a time over 100k contacts and checks the index
+     * answers the same as scanning the list. The timings are printed for comparison.
+     */
+    @Test
+    public void benchmark_100kContacts() {
+        List<Contact> contacts = contacts(100_000);
+
+        long start = System.nanoTime();
+        ContactSearchIndex index = new ContactSearchIndex();
+        index.setContacts(contacts);
+        long built = System.nanoTime();
+
+        long indexNanos = 0;
+        long scanNanos = 0;
+        for (String query : new String[]{"mary ngu", "sofia ross", "jsmith12", "wei"}) {
+            for (int length = 1; length <= query.length(); length++) {
+                String typed = query.substring(0, length);
+
+                long t0 = System.nanoTime();
+                List<Contact> found = index.search(typed);
+                long t1 = System.nanoTime();
+                List<Contact> expected = scan(contacts, typed);
+                long t2 = System.nanoTime();
+
+                indexNanos += t1 - t0;
+                scanNanos += t2 - t1;
+                assertEquals(typed, expected, found);
+            }
+        }
+        System.out.printf(Locale.ROOT,
+                "100k contacts: build %d ms, index search %d ms, list scan %d ms%n",
+                (built - start) / 1_000_000, indexNanos / 1_000_000, scanNanos / 1_000_000);
+    }
+
+    /**
+     * Types and deletes a query a letter at a time over 50k contacts, as the search box
+     * would run it, and checks every keystroke's search fits in a 16 ms frame. The typing
+     * is timed a few times and each keystroke's median kept, so one GC pause does not fail
+     * it.
+     */
+    @Test
+    public void benchmark_50kContactsPerKeystroke() {
+        ContactSearchIndex index = new ContactSearchIndex();
+        index.setContacts(contacts(50_000));
+
+        List<String> keystrokes = new ArrayList<>();
+        for (String query : new String[]{"sofia ross", "jsmith12", "mary ngu"}) {
+            for (int length = 1; length <= query.length(); length++) {
+                keystrokes.add(query.substring(0, length));
+            }
+            for (int length = query.length() - 1; length >= 0; length--) {
+                keystrokes.add(query.substring(0, length));
+            }
+        }
+
+        // warm up so the timings are of compiled code
+        for (int i = 0; i < 5; i++) {
+            for (String typed : keystrokes) {
+                index.search(typed);
+            }
+        }
+
+        // the typing is replayed as a whole so each search follows the one before it
+        long[][] runs = new long[keystrokes.size()][KEYSTROKE_RUNS];
+        for (int run = 0; run < KEYSTROKE_RUNS; run++) {
+            for (int k = 0; k < keystrokes.size(); k++) {
+                long start = System.nanoTime();
+                index.search(keystrokes.get(k));
+                runs[k][run] = System.nanoTime() - start;
+            }
+        }
+
+        long worst = 0;
+        String worstQuery = "";
+        for (int k = 0; k < keystrokes.size(); k++) {
+            String typed = keystrokes.get(k);
+            Arrays.sort(runs[k]);
+            long median = runs[k][KEYSTROKE_RUNS / 2];
+            if (median > worst) {
+                worst = median;
+                worstQuery = typed;
+            }
+            assertTrue("\"" + typed + "\" took " + median / 1_000 + " us",
+                    median < FRAME_NANOS);
+        }
+        System.out.printf(Locale.ROOT,
+                "50k contacts: %d keystrokes, slowest \"%s\" %.2f ms%n",
+                keystrokes.size(), worstQuery, worst / 1e6);
+    }
+
+    /**
+     * it returns count contacts with names drawn from a fixed seed
+     */
+    private static List<Contact> contacts(final int count) {
+        final String[] first = {"John", "Mary", "José", "Linh", "Ahmed", "Sofia", "Wei",
+                "Olga", "Kwame", "Priya", "Lucas", "Hana"};
+        final String[] last = {"Smith", "Nguyen", "García", "Kim", "Patel", "Müller",
+                "Okafor", "Rossi", "Tanaka", "Jones", "Ivanova", "Silva"};
+        Random random = new Random(450);
+        List<Contact> contacts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String f = first[random.nextInt(first.length)];
+            String l = last[random.nextInt(last.length)];
+            String user = (f.charAt(0) + l).toLowerCase(Locale.ROOT) + i;
+            contacts.add(new Contact(user + "@uw.edu", f, l, user, i));
+        }
+        return contacts;
+    }
+
+    /**
+     * The same match rule as the index, by walking every contact.
+     */
+    private static List<Contact> scan(final List<Contact> contacts, final String query) {
+        String[] terms = plain(query).split("[^\\p{L}\\p{N}]+");
+        List<Contact> result = new ArrayList<>();
+        for (Contact contact : contacts) {
+            String[] words = plain(contact.getFirstName() + " " + contact.getLastName() + " "
+                    + contact.getUsername() + " " + contact.getEmail())
+                    .split("[^\\p{L}\\p{N}]+");
+            boolean all = true;
+            for (String term : terms) {
+                boolean any = false;
+                for (String word : words) {
+                    any |= word.startsWith(term);
+                }
+                all &= term.isEmpty() || any;
+            }
+            if (all) {
+                result.add(contact);
+            }
+        }
+        return result;
+    }
+
+    private static String plain(final String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,252 @@
+package edu.uw.group1app.ui.weather;
+
+import com.android.volley.VolleyError;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import edu.uw.group1app.io.ApiCall;
+import edu.uw.group1app.io.ApiClient;
+import edu.uw.group1app.io.Cancellable;
+import edu.uw.group1app.io.Transport;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the grid {@link GeoKeyResolver} caches coordinates by, and how
+ * often a real resolver reaches the network over a GPS trace. The resolver runs against a
+ * stand-in {@link Transport} that counts lookups and a map standing in for the disk, with
+ * both executors running tasks in place.
+ */
+public class GeoKeyResolverTest {
+
+    private static final String BASE_URL = "https://example.test/";
+
+    private static final double GRID = GeoKeyResolver.DEFAULT_GRID_DEGREES;
+
+    private static final double METRES_PER_DEGREE = 111_320;
+
+    private static String cellOf(final double latitude, final double longitude) {
+        return GeoKeyResolver.cellKey(GeoKeyResolver.snap(latitude, GRID),
+                GeoKeyResolver.snap(longitude, GRID));
+    }
+
+    @Test
+    public void snap_roundsToTheNearestCellCentre() {
+        assertEquals(4724, GeoKeyResolver.snap(47.2446, GRID));
+        assertEquals(-12244, GeoKeyResolver.snap(-122.4376, GRID));
+        assertEquals(0, GeoKeyResolver.snap(0.004, GRID));
+        assertEquals(0, GeoKeyResolver.snap(-0.004, GRID));
+        assertEquals(1, GeoKeyResolver.snap(0.006, GRID));
+        assertEquals(-1, GeoKeyResolver.snap(-0.006, GRID));
+    }
+
+    @Test
+    public void cellKey_isTheSameForJitterInsideACell() {
+        assertEquals("4724,-12244", cellOf(47.2446, -122.4376));
+        assertEquals(cellOf(47.2446, -122.4376), cellOf(47.24465, -122.43758));
+        assertNotEquals(cellOf(47.2446, -122.4376), cellOf(47.2456, -122.4376));
+    }
+
+    /**
+     * Counts geoposition lookups. Answers each one straight away with a location named
+     * after the coordinate asked about, unless told to hold them.
+     */
+    private static final class CountingTransport implements Transport {
+        private final List<ApiCall<?>> mHeld = new ArrayList<>();
+        private final List<Object> mCancelled = new ArrayList<>();
+        private int mLookups;
+        private boolean mHold;
+
+        @Override
+        public <T> void send(final ApiCall<T> call) {
+            mLookups++;
+            if (mHold) {
+                mHeld.add(call);
+            } else {
+                answer(call);
+            }
+        }
+
+        @Override
+        public void cancelAll(final Object tag) {
+            mCancelled.add(tag);
+        }
+
+        private static <T> void answer(final ApiCall<T> call) {
+            try {
+                String where = call.getBody().getString("latitude") + ","
+                        + call.getBody().getString("longitude");
+                String body = "{\"Key\": \"" + where + "\", \"LocalizedName\": \"Tacoma\"}";
+                call.getListener().onResponse(call.getDecoder().decode(
+                        body.getBytes(StandardCharsets.UTF_8), "UTF-8"));
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    /**
+     * Keeps cells in a map, counting reads.
+     */
+    private static final class MapDisk implements GeoKeyResolver.Disk {
+        private final Map<String, WeatherLocation> mCells = new HashMap<>();
+        private int mReads;
+
+        @Override
+        public WeatherLocation get(final String cell) {
+            mReads++;
+            return mCells.get(cell);
+        }
+
+        @Override
+        public void put(final String cell, final WeatherLocation location) {
+            mCells.put(cell, location);
+        }
+    }
+
+    private final CountingTransport mTransport = new CountingTransport();
+
+    private final MapDisk mDisk = new MapDisk();
+
+    private final List<WeatherLocation> mDelivered = new ArrayList<>();
+
+    private final List<VolleyError> mErrors = new ArrayList<>();
+
+    private GeoKeyResolver resolver() {
+        return new GeoKeyResolver(new ApiClient(BASE_URL, mTransport), GRID, mDisk,
+                Runnable::run, Runnable::run);
+    }
+
+    private int resolveAll(final GeoKeyResolver resolver, final List<double[]> trace) {
+        for (double[] fix : trace) {
+            resolver.resolve(fix[0], fix[1], mDelivered::add, mErrors::add);
+        }
+        return mTransport.mLookups;
+    }
+
+    /**
+     * A phone sitting still, walking 2 km and sitting still again, with a fix every 5 s
+     * and about 8 m of GPS noise. Only the first fix in each cell should reach the
+     * network, while caching the exact coordinates would miss every time.
+     */
+    @Test
+    public void gpsTrace_looksUpEachCellOnce() {
+        List<double[]> trace = trace();
+        Set<String> cells = new HashSet<>();
+        Set<String> exact = new HashSet<>();
+        for (double[] fix : trace) {
+            cells.add(cellOf(fix[0], fix[1]));
+            exact.add(fix[0] + "," + fix[1]);
+        }
+
+        int lookups = resolveAll(resolver(), trace);
+
+        assertEquals(cells.size(), lookups);
+        assertEquals(cells.size(), mDisk.mCells.size());
+        assertEquals(trace.size(), mDelivered.size());
+        assertTrue(mErrors.isEmpty());
+        double hitRatio = 1 - (double) lookups / trace.size();
+        assertTrue("hit ratio " + hitRatio, hitRatio >= 0.99);
+        assertEquals(trace.size(), exact.size());
+        // sitting still and walking 2 km crosses only a handful of cells
+        assertTrue("lookups " + lookups, lookups <= 8);
+        // the disk is only read for a cell memory does not have
+        assertEquals(cells.size(), mDisk.mReads);
+    }
+
+    @Test
+    public void newResolver_answersKnownCellsFromDisk() {
+        List<double[]> trace = trace();
+        int lookups = resolveAll(resolver(), trace);
+        mDelivered.clear();
+
+        assertEquals(lookups, resolveAll(resolver(), trace));
+        assertEquals(trace.size(), mDelivered.size());
+    }
+
+    @Test
+    public void everyPointInACell_getsTheSameLocation() {
+        GeoKeyResolver resolver = resolver();
+        resolver.resolve(47.2446, -122.4376, mDelivered::add, mErrors::add);
+        resolver.resolve(47.24465, -122.43758, mDelivered::add, mErrors::add);
+
+        assertEquals(1, mTransport.mLookups);
+        assertEquals("47.240000,-122.440000", mDelivered.get(0).getKey());
+        assertSame(mDelivered.get(0), mDelivered.get(1));
+    }
+
+    @Test
+    public void resolvesInOneCell_shareOneLookup() {
+        mTransport.mHold = true;
+        GeoKeyResolver resolver = resolver();
+        resolver.resolve(47.2446, -122.4376, mDelivered::add, mErrors::add);
+        resolver.resolve(47.24465, -122.43758, mDelivered::add, mErrors::add);
+        assertEquals(1, mTransport.mLookups);
+        assertTrue(mDelivered.isEmpty());
+
+        CountingTransport.answer(mTransport.mHeld.get(0));
+        assertEquals(2, mDelivered.size());
+        assertSame(mDelivered.get(0), mDelivered.get(1));
+    }
+
+    @Test
+    public void cancellingEveryWaiter_cancelsTheLookup() {
+        mTransport.mHold = true;
+        GeoKeyResolver resolver = resolver();
+        Cancellable first = resolver.resolve(47.2446, -122.4376, mDelivered::add, mErrors::add);
+        Cancellable second = resolver.resolve(47.24465, -122.43758,
+                mDelivered::add, mErrors::add);
+
+        first.cancel();
+        assertTrue(mTransport.mCancelled.isEmpty());
+        second.cancel();
+        assertEquals(1, mTransport.mCancelled.size());
+        assertSame(mTransport.mHeld.get(0).getTag(), mTransport.mCancelled.get(0));
+
+        // the cell is looked up afresh next time
+        resolver.resolve(47.2446, -122.4376, mDelivered::add, mErrors::add);
+        assertEquals(2, mTransport.mLookups);
+    }
+
+    private static List<double[]> trace() {
+        final double homeLat = 47.2446;
+        final double homeLng = -122.4376;
+        final double lngMetres = METRES_PER_DEGREE * Math.cos(Math.toRadians(homeLat));
+        final double noise = 8;
+        final double step = 1.4 * 5;
+        final Random random = new Random(450);
+
+        List<double[]> trace = new ArrayList<>();
+        double north = 0;
+        double east = 0;
+        for (int i = 0; i < 360; i++) {
+            trace.add(fix(homeLat, homeLng, north, east, noise, lngMetres, random));
+        }
+        for (double walked = 0; walked < 2000; walked += step) {
+            north += step * 0.8;
+            east += step * 0.6;
+            trace.add(fix(homeLat, homeLng, north, east, noise, lngMetres, random));
+        }
+        for (int i = 0; i < 360; i++) {
+            trace.add(fix(homeLat, homeLng, north, east, noise, lngMetres, random));
+        }
+        return trace;
+    }
+
+    private static double[] fix(final double lat, final double lng, final double north,
+                                final double east, final double noise,
+                                final double lngMetres, final Random random) {
+        return new double[]{
+            lat + (north + random.nextGaussian() * noise) / METRES_PER_DEGREE,
+            lng + (east + random.nextGaussian() * noise) / lngMetres};
+    }
+}
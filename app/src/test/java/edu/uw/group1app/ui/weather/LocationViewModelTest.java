@@ -0,0 +1,95 @@
+package edu.uw.group1app.ui.weather;
+
+import androidx.annotation.NonNull;
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the observed flag {@link LocationViewModel} gates location updates
+ * on.
+ */
+public class LocationViewModelTest {
+
+    /**
+     * A screen that can be moved through its lifecycle.
+     */
+    private static final class Screen implements LifecycleOwner {
+        private final LifecycleRegistry mRegistry = new LifecycleRegistry(this);
+
+        void moveTo(final Lifecycle.State state) {
+            mRegistry.setCurrentState(state);
+        }
+
+        @NonNull
+        @Override
+        public Lifecycle getLifecycle() {
+            return mRegistry;
+        }
+    }
+
+    @Rule
+    public InstantTaskExecutorRule mInstantTasks = new InstantTaskExecutorRule();
+
+    private final LocationViewModel mModel = new LocationViewModel();
+
+    /**
+     * Stands in for the activity, which stays in the foreground for the whole test.
+     */
+    private Screen mOwner;
+
+    @Before
+    public void setUp() {
+        // after the rule has swapped in its executor, which the lifecycle checks threads with
+        mOwner = new Screen();
+        mOwner.moveTo(Lifecycle.State.RESUMED);
+    }
+
+    private List<Boolean> observed() {
+        List<Boolean> observed = new ArrayList<>();
+        mModel.addObservedObserver(mOwner, observed::add);
+        return observed;
+    }
+
+    @Test
+    public void observed_followsTheLocationObservers() {
+        List<Boolean> observed = observed();
+        Screen map = new Screen();
+        map.moveTo(Lifecycle.State.CREATED);
+        mModel.addLocationObserver(map, location -> { });
+        mModel.addLocationObserver(map, location -> { });
+
+        map.moveTo(Lifecycle.State.RESUMED);
+        map.moveTo(Lifecycle.State.CREATED);
+        assertEquals(Arrays.asList(false, true, false), observed);
+    }
+
+    @Test
+    public void observed_followsTheLocationUsersWhileStarted() {
+        List<Boolean> observed = observed();
+        Screen weather = new Screen();
+        Screen map = new Screen();
+        weather.moveTo(Lifecycle.State.STARTED);
+        mModel.addLocationUser(weather);
+        map.moveTo(Lifecycle.State.STARTED);
+        mModel.addLocationUser(map);
+
+        weather.moveTo(Lifecycle.State.CREATED);
+        assertEquals(Arrays.asList(false, true), observed);
+        map.moveTo(Lifecycle.State.DESTROYED);
+        assertEquals(Arrays.asList(false, true, false), observed);
+        weather.moveTo(Lifecycle.State.RESUMED);
+        assertEquals(Arrays.asList(false, true, false, true), observed);
+    }
+}
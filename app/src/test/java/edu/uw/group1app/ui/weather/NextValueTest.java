@@ -0,0 +1,87 @@
+package edu.uw.group1app.ui.weather;
+
+import androidx.annotation.NonNull;
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+import androidx.lifecycle.MutableLiveData;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link NextValue}, which the weather screen's "current location"
+ * item uses to start one geoposition lookup per tap. Strings stand in for locations.
+ */
+public class NextValueTest {
+
+    /**
+     * A screen that stays in the foreground for the whole test.
+     */
+    private static final class ResumedOwner implements LifecycleOwner {
+        private final LifecycleRegistry mRegistry = new LifecycleRegistry(this);
+
+        ResumedOwner() {
+            mRegistry.setCurrentState(Lifecycle.State.RESUMED);
+        }
+
+        @NonNull
+        @Override
+        public Lifecycle getLifecycle() {
+            return mRegistry;
+        }
+    }
+
+    @Rule
+    public InstantTaskExecutorRule mInstantTasks = new InstantTaskExecutorRule();
+
+    private final MutableLiveData<String> mLocation = new MutableLiveData<>();
+
+    private final NextValue<String> mNext = new NextValue<>(mLocation);
+
+    private LifecycleOwner mOwner;
+
+    /**
+     * Stands in for the geoposition lookups the observer would start.
+     */
+    private int mLookups;
+
+    @Before
+    public void setUp() {
+        // after the rule has swapped in its executor, which the lifecycle checks threads with
+        mOwner = new ResumedOwner();
+    }
+
+    private void tap() {
+        mNext.request(mOwner, location -> mLookups++);
+    }
+
+    @Test
+    public void tapsBeforeAFix_startOneLookup() {
+        tap();
+        tap();
+        tap();
+        assertEquals(0, mLookups);
+
+        mLocation.setValue("47.2446,-122.4376");
+        assertEquals(1, mLookups);
+        assertFalse(mLocation.hasObservers());
+
+        mLocation.setValue("47.2456,-122.4376");
+        assertEquals(1, mLookups);
+    }
+
+    @Test
+    public void eachTapAfterAFix_startsOneLookup() {
+        mLocation.setValue("47.2446,-122.4376");
+        for (int taps = 1; taps <= 5; taps++) {
+            tap();
+            assertEquals(taps, mLookups);
+        }
+        assertFalse(mLocation.hasObservers());
+    }
+}
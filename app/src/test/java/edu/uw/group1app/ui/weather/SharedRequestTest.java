@@ -0,0 +1,140 @@
+package edu.uw.group1app.ui.weather;
+
+import com.android.volley.TimeoutError;
+import com.android.volley.VolleyError;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.uw.group1app.io.Cancellable;
+import edu.uw.group1app.io.RequestSlot;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link SharedRequest} and the {@link RequestSlot} the weather
+ * ViewModels keep it in, showing a cancelled or superseded request delivers nothing.
+ */
+public class SharedRequestTest {
+
+    private final List<String> mDelivered = new ArrayList<>();
+
+    private int mAbandoned;
+
+    private SharedRequest<String> request() {
+        return new SharedRequest<>(() -> mAbandoned++);
+    }
+
+    private Cancellable join(final SharedRequest<String> request, final String who) {
+        return request.join(answer -> mDelivered.add(who + ":" + answer),
+                error -> mDelivered.add(who + ":error"));
+    }
+
+    @Test
+    public void deliver_reachesEveryWaiterStillJoined() {
+        SharedRequest<String> request = request();
+        join(request, "a");
+        Cancellable b = join(request, "b");
+        join(request, "c");
+        b.cancel();
+
+        request.deliver("sunny");
+        assertEquals(Arrays.asList("a:sunny", "c:sunny"), mDelivered);
+        assertEquals(0, mAbandoned);
+    }
+
+    @Test
+    public void fail_skipsCancelledWaiters() {
+        SharedRequest<String> request = request();
+        Cancellable a = join(request, "a");
+        join(request, "b");
+        a.cancel();
+
+        request.fail(new TimeoutError());
+        assertEquals(Arrays.asList("b:error"), mDelivered);
+    }
+
+    @Test
+    public void lastWaiterLeaving_abandonsTheRequestOnce() {
+        SharedRequest<String> request = request();
+        Cancellable a = join(request, "a");
+        Cancellable b = join(request, "b");
+        a.cancel();
+        assertEquals(0, mAbandoned);
+        b.cancel();
+        b.cancel();
+        assertEquals(1, mAbandoned);
+
+        // an answer that was already on its way is still not handed to anyone
+        request.deliver("sunny");
+        assertTrue(mDelivered.isEmpty());
+    }
+
+    @Test
+    public void cancelAfterDelivery_doesNotAbandon() {
+        SharedRequest<String> request = request();
+        Cancellable a = join(request, "a");
+        request.deliver("sunny");
+        a.cancel();
+        assertEquals(0, mAbandoned);
+        assertEquals(Arrays.asList("a:sunny"), mDelivered);
+    }
+
+    @Test
+    public void cancelFromAListener_stopsLaterWaiters() {
+        SharedRequest<String> request = request();
+        final Cancellable[] b = new Cancellable[1];
+        request.join(answer -> {
+            mDelivered.add("a:" + answer);
+            b[0].cancel();
+        }, (VolleyError error) -> { });
+        b[0] = join(request, "b");
+
+        request.deliver("sunny");
+        assertEquals(Arrays.asList("a:sunny"), mDelivered);
+    }
+
+    @Test
+    public void slot_neverDeliversASupersededRequest() {
+        RequestSlot slot = new RequestSlot();
+        SharedRequest<String> first = request();
+        SharedRequest<String> second = request();
+
+        slot.set(join(first, "first"));
+        slot.set(join(second, "second"));
+        assertEquals(1, mAbandoned);
+
+        // the superseded answer lands after the new one was asked for
+        first.deliver("old");
+        second.deliver("new");
+        assertEquals(Arrays.asList("second:new"), mDelivered);
+    }
+
+    @Test
+    public void slot_askingAgainKeepsTheSharedRequest() {
+        RequestSlot slot = new RequestSlot();
+        SharedRequest<String> request = request();
+
+        slot.set(join(request, "once"));
+        slot.set(join(request, "again"));
+        assertEquals(0, mAbandoned);
+
+        request.deliver("sunny");
+        assertEquals(Arrays.asList("again:sunny"), mDelivered);
+    }
+
+    @Test
+    public void slotCancel_dropsEverything() {
+        RequestSlot slot = new RequestSlot();
+        SharedRequest<String> request = request();
+        slot.set(join(request, "a"));
+
+        slot.cancel();
+        assertEquals(1, mAbandoned);
+        request.deliver("sunny");
+        assertTrue(mDelivered.isEmpty());
+    }
+}